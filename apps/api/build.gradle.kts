@@ -7,6 +7,12 @@ plugins {
 group = "com.github.john_g1t"
 version = "1.0-SNAPSHOT"
 
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+}
+
 repositories {
     mavenCentral()
 }
@@ -17,6 +23,16 @@ dependencies {
 
     implementation("com.fasterxml.jackson.core:jackson-databind:2.15.2")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.15.2")
+
+    testImplementation(platform("org.junit:junit-bom:5.9.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+// Postgres tests run against the database in TEST_DB_URL and are skipped without it
+tasks.test {
+    useJUnitPlatform()
+    inputs.property("testDbUrl", providers.environmentVariable("TEST_DB_URL").orElse(""))
 }
 
 application {
@@ -3,9 +3,16 @@ package com.github.john_g1t;
 import com.github.john_g1t.domain.service.PasswordGenerator;
 import com.github.john_g1t.infrastructure.ApplicationContext;
 import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.MigrationRunner;
+import com.github.john_g1t.infrastructure.repository.postgres.PartitionMaintainer;
 import com.github.john_g1t.infrastructure.repository.postgres.PostgresConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.RoutingConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.shard.ShardSequences;
 import com.github.john_g1t.presentation.console.ConsoleMenu;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Main {
     private static final boolean USE_INMEMORY = false;
     public static void main(String[] args) {
@@ -16,12 +23,26 @@ public class Main {
             context = new ApplicationContext();
         } else {
             PostgresConnectionFactory connectionFactory = initializePostgres();
-            context = new ApplicationContext(connectionFactory);
+            new MigrationRunner(connectionFactory).migrate();
+            new PartitionMaintainer(connectionFactory).ensurePartitions();
+            List<PostgresConnectionFactory> shards = initializeShards();
+            for (int shardId = 0; shardId < shards.size(); shardId++) {
+                MigrationRunner.forShard(shards.get(shardId)).migrate();
+                ShardSequences.configure(shards.get(shardId), shardId);
+                new PartitionMaintainer(shards.get(shardId)).ensurePartitions();
+            }
+            context = shards.isEmpty()
+                    ? new ApplicationContext(withReplica(connectionFactory))
+                    : new ApplicationContext(withReplica(connectionFactory), shards);
         }
 
         ConsoleMenu menu = new ConsoleMenu(context);
 
-        menu.start();
+        try {
+            menu.start();
+        } finally {
+            context.close();
+        }
     }
 
     private static void initializePasswordGenerator() {
@@ -52,4 +73,43 @@ public class Main {
         }
         return new PostgresConnectionFactory(host, port, name, user, password);
     }
+
+    // DB_SHARDS lists attempt shards in a fixed order, as database names or host:port/name
+    private static List<PostgresConnectionFactory> initializeShards() {
+        String value = System.getenv("DB_SHARDS");
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<PostgresConnectionFactory> shards = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String host = "postgres";
+            String port = System.getenv("DB_PORT");
+            String name = entry.trim();
+            int slash = name.indexOf('/');
+            if (slash != -1) {
+                String[] address = name.substring(0, slash).split(":");
+                host = address[0];
+                port = address.length > 1 ? address[1] : port;
+                name = name.substring(slash + 1);
+            }
+            shards.add(new PostgresConnectionFactory(host, port, name,
+                    System.getenv("DB_USER"), System.getenv("DB_PASSWORD")));
+        }
+        return shards;
+    }
+
+    // A streaming replica is optional; without DB_REPLICA_HOST every query goes to the primary
+    private static ConnectionFactory withReplica(PostgresConnectionFactory primary) {
+        String host = System.getenv("DB_REPLICA_HOST");
+        if (host == null || host.isBlank()) {
+            return primary;
+        }
+        String port = System.getenv("DB_REPLICA_PORT");
+        if (port == null) {
+            port = System.getenv("DB_PORT");
+        }
+        PostgresConnectionFactory replica = new PostgresConnectionFactory(host, port, System.getenv("DB_NAME"),
+                System.getenv("DB_USER"), System.getenv("DB_PASSWORD"));
+        return new RoutingConnectionFactory(primary, replica);
+    }
 }
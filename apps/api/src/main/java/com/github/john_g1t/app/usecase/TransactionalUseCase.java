@@ -0,0 +1,18 @@
+package com.github.john_g1t.app.usecase;
+
+import com.github.john_g1t.domain.repository.UnitOfWork;
+
+public class TransactionalUseCase<Request, Response> implements UseCase<Request, Response> {
+    private final UseCase<Request, Response> delegate;
+    private final UnitOfWork unitOfWork;
+
+    public TransactionalUseCase(UseCase<Request, Response> delegate, UnitOfWork unitOfWork) {
+        this.delegate = delegate;
+        this.unitOfWork = unitOfWork;
+    }
+
+    @Override
+    public Response execute(Request request) {
+        return unitOfWork.execute(() -> delegate.execute(request));
+    }
+}
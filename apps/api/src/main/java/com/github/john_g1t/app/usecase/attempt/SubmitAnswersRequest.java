@@ -0,0 +1,14 @@
+package com.github.john_g1t.app.usecase.attempt;
+
+import java.util.List;
+
+public record SubmitAnswersRequest(
+    Integer attemptId,
+    List<Answer> answers
+) {
+    public record Answer(
+        Integer questionId,
+        Integer answerId,
+        String answerText
+    ) {}
+}
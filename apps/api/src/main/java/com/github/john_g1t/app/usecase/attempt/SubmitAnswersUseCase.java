@@ -0,0 +1,46 @@
+package com.github.john_g1t.app.usecase.attempt;
+
+import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.service.attempt.TestAttemptService;
+import com.github.john_g1t.domain.service.attempt.UserAnswerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class SubmitAnswersUseCase implements UseCase<SubmitAnswersRequest, Void> {
+    private final TestAttemptService attemptService;
+    private final UserAnswerFactory userAnswerFactory;
+
+    public SubmitAnswersUseCase(TestAttemptService attemptService, UserAnswerFactory userAnswerFactory) {
+        this.attemptService = attemptService;
+        this.userAnswerFactory = userAnswerFactory;
+    }
+
+    @Override
+    public Void execute(SubmitAnswersRequest request) {
+        if (request.answers() == null || request.answers().isEmpty()) {
+            throw new IllegalArgumentException("At least one answer must be provided");
+        }
+
+        List<UserAnswer> answers = new ArrayList<>(request.answers().size());
+        for (SubmitAnswersRequest.Answer answer : request.answers()) {
+            if (answer.questionId() == null) {
+                throw new IllegalArgumentException("Question ID is required");
+            }
+            if (answer.answerId() == null && answer.answerText() == null) {
+                throw new IllegalArgumentException("Either answerId or answerText must be provided");
+            }
+            answers.add(userAnswerFactory.createUserAnswer(
+                request.attemptId(),
+                answer.questionId(),
+                answer.answerId(),
+                answer.answerText()
+            ));
+        }
+
+        attemptService.submitAnswers(request.attemptId(), answers);
+
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.github.john_g1t.app.usecase.test;
+
+import com.github.john_g1t.domain.repository.QuestionBankImporter;
+
+import java.util.Iterator;
+
+public record ImportQuestionBankRequest(
+    Integer creatorId,
+    Iterator<QuestionBankImporter.Row> rows
+) {}
@@ -0,0 +1,28 @@
+package com.github.john_g1t.app.usecase.test;
+
+import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.domain.repository.QuestionBankImporter;
+import com.github.john_g1t.domain.repository.QuestionBankImporter.ImportResult;
+import com.github.john_g1t.domain.service.user.UserService;
+
+public class ImportQuestionBankUseCase implements UseCase<ImportQuestionBankRequest, ImportResult> {
+    private final QuestionBankImporter importer;
+    private final UserService userService;
+
+    public ImportQuestionBankUseCase(QuestionBankImporter importer, UserService userService) {
+        this.importer = importer;
+        this.userService = userService;
+    }
+
+    @Override
+    public ImportResult execute(ImportQuestionBankRequest request) {
+        if (request.rows() == null) {
+            throw new IllegalArgumentException("Import source cannot be empty");
+        }
+        if (!userService.existsById(request.creatorId())) {
+            throw new IllegalArgumentException("Creator user does not exist");
+        }
+
+        return importer.importRows(request.creatorId(), request.rows());
+    }
+}
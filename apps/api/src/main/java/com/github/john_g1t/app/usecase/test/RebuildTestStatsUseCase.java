@@ -0,0 +1,17 @@
+package com.github.john_g1t.app.usecase.test;
+
+import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.domain.service.attempt.TestAttemptService;
+
+public class RebuildTestStatsUseCase implements UseCase<Void, Integer> {
+    private final TestAttemptService attemptService;
+
+    public RebuildTestStatsUseCase(TestAttemptService attemptService) {
+        this.attemptService = attemptService;
+    }
+
+    @Override
+    public Integer execute(Void request) {
+        return attemptService.rebuildTestStatistics();
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.john_g1t.domain.model;
+
+/**
+ * One submitted answer as shown when reviewing a finished attempt. The correct option is
+ * the highest scoring option of the question; it is null for free-text answers.
+ */
+public record AnswerDetail(
+    Integer answerId,
+    Integer questionId,
+    String questionText,
+    Integer maxScore,
+    Integer userAnswerId,
+    String userAnswerText,
+    int scoreEarned,
+    String correctAnswerText
+) {
+    public boolean isCorrect() {
+        return scoreEarned > 0;
+    }
+}
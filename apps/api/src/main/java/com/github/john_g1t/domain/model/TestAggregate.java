@@ -0,0 +1,39 @@
+package com.github.john_g1t.domain.model;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * Read-only snapshot of a test with its questions and their answer options, in id order.
+ * Unlike the entities it is built from, nothing in the tree can be modified after loading.
+ */
+public record TestAggregate(
+    Integer id,
+    Integer createdBy,
+    String title,
+    String description,
+    Integer timeLimit,
+    Integer maxAttempts,
+    boolean active,
+    ZonedDateTime startTime,
+    ZonedDateTime endTime,
+    List<QuestionNode> questions
+) {
+    public TestAggregate {
+        questions = List.copyOf(questions);
+    }
+
+    public record QuestionNode(
+        Integer id,
+        String text,
+        String answerType,
+        Integer maxPoints,
+        List<OptionNode> options
+    ) {
+        public QuestionNode {
+            options = List.copyOf(options);
+        }
+    }
+
+    public record OptionNode(Integer id, String optionText, Integer score) {}
+}
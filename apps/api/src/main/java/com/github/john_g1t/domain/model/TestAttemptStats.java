@@ -0,0 +1,20 @@
+package com.github.john_g1t.domain.model;
+
+/**
+ * Score aggregates over the attempts of one test. Only finished attempts count towards
+ * the score figures; min and max are null while none of them has a score.
+ */
+public record TestAttemptStats(
+    long totalAttempts,
+    long completedAttempts,
+    long scoredAttempts,
+    double averageScore,
+    double scoreStdDev,
+    Integer maxScore,
+    Integer minScore,
+    long passedAttempts
+) {
+    public double passRate() {
+        return completedAttempts > 0 ? passedAttempts * 100.0 / completedAttempts : 0.0;
+    }
+}
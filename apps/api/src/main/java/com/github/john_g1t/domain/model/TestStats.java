@@ -0,0 +1,52 @@
+package com.github.john_g1t.domain.model;
+
+/**
+ * Running totals for one test, kept up to date as attempts finish and questions change,
+ * so statistics never have to scan the attempts. Sums rather than averages are stored so
+ * every update is a plain increment.
+ */
+public record TestStats(
+    Integer testId,
+    long attemptCount,
+    long completedCount,
+    long scoredCount,
+    long scoreSum,
+    long scoreSumSquares,
+    Integer minScore,
+    Integer maxScore,
+    long passCount,
+    int maxPossibleScore
+) {
+    public static final double PASS_RATIO = 0.6;
+    // Used when the test has no questions with points to derive a maximum from
+    public static final int DEFAULT_MAX_SCORE = 100;
+
+    public static TestStats empty(Integer testId) {
+        return new TestStats(testId, 0, 0, 0, 0, 0, null, null, 0, 0);
+    }
+
+    public static int passThreshold(int maxPossibleScore) {
+        return (int) ((maxPossibleScore > 0 ? maxPossibleScore : DEFAULT_MAX_SCORE) * PASS_RATIO);
+    }
+
+    public int passThreshold() {
+        return passThreshold(maxPossibleScore);
+    }
+
+    public double averageScore() {
+        return scoredCount > 0 ? (double) scoreSum / scoredCount : 0.0;
+    }
+
+    public double scoreStdDev() {
+        if (scoredCount == 0) {
+            return 0.0;
+        }
+        double mean = averageScore();
+        return Math.sqrt(Math.max(0.0, (double) scoreSumSquares / scoredCount - mean * mean));
+    }
+
+    public TestAttemptStats toAttemptStats() {
+        return new TestAttemptStats(attemptCount, completedCount, scoredCount, averageScore(),
+                scoreStdDev(), maxScore, minScore, passCount);
+    }
+}
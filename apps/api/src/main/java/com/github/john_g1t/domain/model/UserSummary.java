@@ -0,0 +1,6 @@
+package com.github.john_g1t.domain.model;
+
+/**
+ * Read-only view of a user for listings. Deliberately carries no password hash.
+ */
+public record UserSummary(Integer id, String email, String firstName, String lastName) {}
@@ -0,0 +1,11 @@
+package com.github.john_g1t.domain.repository;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+
+public interface AnswerDetailRepository {
+    /**
+     * Answers of the attempt ordered by question, a page of questionLimit questions at a
+     * time. A question is never split across pages, however many options were chosen.
+     */
+    Page<AnswerDetail> findByAttemptId(Integer attemptId, String cursor, int questionLimit);
+}
@@ -0,0 +1,11 @@
+package com.github.john_g1t.domain.repository;
+
+import java.io.OutputStream;
+
+public interface GradebookExporter {
+    /**
+     * Writes every attempt of the test as CSV, one line per submitted answer, with a header row.
+     * Rows are written as they are produced; nothing is collected in memory first.
+     */
+    void exportTestResults(Integer testId, OutputStream out);
+}
@@ -0,0 +1,13 @@
+package com.github.john_g1t.domain.repository;
+
+import java.util.List;
+
+/**
+ * One keyset page. nextCursor is opaque to callers: it is passed back as is to fetch the
+ * following page and is null on the last one.
+ */
+public record Page<T>(List<T> items, String nextCursor) {
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.john_g1t.domain.repository;
+
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+
+public interface QuestionBankImporter {
+    /**
+     * Loads flattened question bank rows in one pass. Keys in the rows belong to the
+     * source file and are remapped to freshly allocated ids.
+     */
+    ImportResult importRows(Integer creatorId, Iterator<Row> rows);
+
+    /**
+     * One answer option together with its question and test. A question without options,
+     * or a test without questions, is a row with the trailing columns left null. Test and
+     * question columns are taken from the first row that carries each key.
+     */
+    record Row(
+        String testKey,
+        String testTitle,
+        String testDescription,
+        Integer timeLimit,
+        Integer maxAttempts,
+        ZonedDateTime startTime,
+        ZonedDateTime endTime,
+        String questionKey,
+        String questionText,
+        String answerType,
+        Integer maxPoints,
+        String optionText,
+        Integer optionScore
+    ) {
+        public Row {
+            if (testKey == null || testKey.isBlank()) {
+                throw new IllegalArgumentException("Test key cannot be empty");
+            }
+            if (questionKey == null && optionText != null) {
+                throw new IllegalArgumentException("Answer option must belong to a question");
+            }
+        }
+    }
+
+    record ImportResult(int tests, int questions, int answerOptions) {}
+}
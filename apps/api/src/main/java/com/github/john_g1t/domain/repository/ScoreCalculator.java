@@ -0,0 +1,14 @@
+package com.github.john_g1t.domain.repository;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+public interface ScoreCalculator {
+    /**
+     * Sums the scores of the options chosen in the attempt and stamps the attempt with that
+     * score and the end time, as one step. Empty when the attempt does not exist or has
+     * already been finished, so two concurrent finishes cannot both score it. attemptStart
+     * is the start time of the attempt, which places it without a lookup.
+     */
+    Optional<Integer> finishAttempt(Integer attemptId, ZonedDateTime attemptStart, ZonedDateTime endTime);
+}
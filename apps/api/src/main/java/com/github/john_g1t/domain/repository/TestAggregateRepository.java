@@ -0,0 +1,10 @@
+package com.github.john_g1t.domain.repository;
+
+import com.github.john_g1t.domain.model.TestAggregate;
+
+import java.util.Optional;
+
+public interface TestAggregateRepository {
+    // The whole tree in a single round trip; empty when the test does not exist
+    Optional<TestAggregate> loadFull(Integer testId);
+}
@@ -1,15 +1,30 @@
 package com.github.john_g1t.domain.repository;
 
 import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface TestAttemptRepository {
     Integer save(TestAttempt attempt);
+    /**
+     * Inserts a new attempt numbered one past the user's latest attempt at the test, unless
+     * that would exceed maxAttempts (null means unlimited). Sets the id and number on the
+     * attempt. Concurrent calls for the same user and test never share a number.
+     */
+    Optional<Integer> insertNextAttempt(TestAttempt attempt, Integer maxAttempts);
     Optional<TestAttempt> findById(Integer id);
     List<TestAttempt> findByUserId(Integer userId);
     List<TestAttempt> findByTestId(Integer testId);
     List<TestAttempt> findByUserAndTest(Integer userId, Integer testId);
+    // A finished attempt passes when its score is at least passThreshold
+    TestAttemptStats aggregateForTest(Integer testId, int passThreshold);
+    long count();
+    long countInProgress();
+    // Attempts whose end_time falls in [from, to)
+    long countFinishedBetween(ZonedDateTime from, ZonedDateTime to);
+    long estimateCount();
     void delete(Integer id);
 }
\ No newline at end of file
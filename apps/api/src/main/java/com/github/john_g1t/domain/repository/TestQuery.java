@@ -0,0 +1,22 @@
+package com.github.john_g1t.domain.repository;
+
+/**
+ * Catalog filters plus the cursor returned with the previous page. Null filters are not applied.
+ */
+public record TestQuery(
+    Boolean active,
+    Integer creatorId,
+    String cursor,
+    int limit
+) {
+    public static final int MAX_LIMIT = 100;
+
+    public TestQuery {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        if (cursor != null && cursor.isBlank()) {
+            cursor = null;
+        }
+    }
+}
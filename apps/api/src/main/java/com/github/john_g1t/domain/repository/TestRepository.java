@@ -2,6 +2,7 @@ package com.github.john_g1t.domain.repository;
 
 import com.github.john_g1t.domain.model.Test;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,7 +10,14 @@ public interface TestRepository {
     Integer save(Test test);
     Optional<Test> findById(Integer id);
     List<Test> findAll();
+    List<Test> findByIds(Collection<Integer> ids);
     List<Test> findByCreator(Integer creatorId);
     List<Test> findActiveTests();
+    long count();
+    long countActive();
+    long estimateCount();
+    Page<Test> findPage(TestQuery query);
+    // Best matches first; the page's filters and cursor apply to the ranked results
+    Page<Test> search(String text, TestQuery page);
     void delete(Integer id);
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.github.john_g1t.domain.repository;
+
+import com.github.john_g1t.domain.model.TestStats;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Maintains the per-test rollup. Every update must run in the same unit of work as the
+ * change it accounts for, otherwise the totals drift from the raw data.
+ *
+ * Attempts are counted by the rebuild, and those started after it as they finish, so
+ * starting an attempt writes nothing here. Attempts started since the last rebuild and
+ * not yet finished are missing from the count until the next one.
+ */
+public interface TestStatsRepository {
+    Optional<TestStats> findByTestId(Integer testId);
+    void recordAttemptFinished(Integer testId, ZonedDateTime startTime, int score, boolean passed);
+    // Recomputes the max possible score from the test's current questions
+    void refreshMaxPossibleScore(Integer testId);
+    // Recomputes every row from tests, questions and attempts; returns the number of tests
+    int rebuild();
+}
@@ -0,0 +1,42 @@
+package com.github.john_g1t.domain.repository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+public interface UnitOfWork {
+    /**
+     * Runs the work atomically. Nested calls join the unit of work already in progress.
+     */
+    <T> T execute(Supplier<T> work);
+
+    /**
+     * Runs reads that may be served slightly behind the latest commit, for example by a
+     * replica. Inside a unit of work the reads stay on its transaction.
+     */
+    <T> T readOnly(Supplier<T> work);
+
+    /**
+     * Starts a lookup that may overlap with other I/O of the caller. Meant for read paths
+     * outside a unit of work, where it sees committed data only. Inside a unit of work it
+     * simply runs to completion on the caller's transaction.
+     */
+    <T> CompletableFuture<T> async(Supplier<T> work);
+
+    /**
+     * Waits for async work and rethrows its failure as is, rather than wrapped.
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -2,11 +2,20 @@ package com.github.john_g1t.domain.repository;
 
 import com.github.john_g1t.domain.model.UserAnswer;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserAnswerRepository {
     Integer save(UserAnswer answer);
+    /**
+     * Stores the answer as the only one to its question in the attempt, replacing an
+     * earlier answer in place. Sets and returns the id of the row. attemptStart is the
+     * start time of the answer's attempt, which places the answer without a lookup.
+     */
+    Integer upsert(UserAnswer answer, ZonedDateTime attemptStart);
+    // Like upsert for each answer in order, so a later answer to the same question wins
+    List<Integer> upsertAll(List<UserAnswer> answers, ZonedDateTime attemptStart);
     Optional<UserAnswer> findById(Integer id);
     List<UserAnswer> findByAttemptId(Integer attemptId);
     void delete(Integer id);
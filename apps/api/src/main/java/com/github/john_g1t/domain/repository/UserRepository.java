@@ -1,6 +1,7 @@
 package com.github.john_g1t.domain.repository;
 
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,6 +11,10 @@ public interface UserRepository {
     Optional<User> findById(Integer id);
     Optional<User> findByEmail(String email);
     List<User> findAll();
+    // Substring match on email, first and last name; a null term lists everyone
+    Page<UserSummary> search(String term, String cursor, int limit);
+    long count();
+    long estimateCount();
     boolean existsByEmail(String email);
     boolean existsById(Integer id);
     void delete(Integer id);
@@ -1,16 +1,27 @@
 package com.github.john_g1t.domain.service.attempt;
 
+import com.github.john_g1t.domain.model.AnswerDetail;
 import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
 import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.Page;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface TestAttemptService {
     Integer startAttempt(Integer userId, Integer testId);
     void submitAnswer(Integer attemptId, Integer questionId, Integer answerId, String answerText);
+    void submitAnswers(Integer attemptId, List<UserAnswer> answers);
     Integer finishAttempt(Integer attemptId);
     Optional<TestAttempt> getAttempt(Integer attemptId);
     List<TestAttempt> getUserAttempts(Integer userId);
     List<TestAttempt> getByTestId(Integer testId);
+    TestAttemptStats getTestStatistics(Integer testId);
+    int rebuildTestStatistics();
+    long countAttempts(boolean estimate);
+    long countAttemptsInProgress();
+    long countAttemptsFinishedBetween(ZonedDateTime from, ZonedDateTime to);
     List<UserAnswer> getAttemptAnswers(Integer attemptId);
+    Page<AnswerDetail> getAnswerDetails(Integer attemptId, String cursor, int questionLimit);
 }
@@ -1,29 +1,43 @@
 package com.github.john_g1t.domain.service.attempt;
 
-import com.github.john_g1t.domain.model.AnswerOption;
+import com.github.john_g1t.domain.model.AnswerDetail;
 import com.github.john_g1t.domain.model.Question;
 import com.github.john_g1t.domain.model.Test;
 import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
+import com.github.john_g1t.domain.model.TestStats;
 import com.github.john_g1t.domain.model.User;
 import com.github.john_g1t.domain.model.UserAnswer;
-import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.AnswerDetailRepository;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.ScoreCalculator;
 import com.github.john_g1t.domain.repository.TestAttemptRepository;
 import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+import com.github.john_g1t.domain.repository.UnitOfWork;
 import com.github.john_g1t.domain.repository.UserAnswerRepository;
 import com.github.john_g1t.domain.repository.UserRepository;
 
 import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class TestAttemptServiceImpl implements TestAttemptService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final TestAttemptRepository attemptRepository;
     private final TestRepository testRepository;
     private final QuestionRepository questionRepository;
-    private final AnswerOptionRepository answerOptionRepository;
     private final UserAnswerRepository userAnswerRepository;
     private final UserRepository userRepository;
+    private final TestStatsRepository testStatsRepository;
+    private final ScoreCalculator scoreCalculator;
+    private final AnswerDetailRepository answerDetailRepository;
+    private final UnitOfWork unitOfWork;
     private final TestAttemptFactory attemptFactory;
     private final UserAnswerFactory userAnswerFactory;
 
@@ -31,30 +45,38 @@ public class TestAttemptServiceImpl implements TestAttemptService {
         TestAttemptRepository attemptRepository,
         TestRepository testRepository,
         QuestionRepository questionRepository,
-        AnswerOptionRepository answerOptionRepository,
         UserAnswerRepository userAnswerRepository,
         UserRepository userRepository,
+        TestStatsRepository testStatsRepository,
+        ScoreCalculator scoreCalculator,
+        AnswerDetailRepository answerDetailRepository,
+        UnitOfWork unitOfWork,
         TestAttemptFactory attemptFactory,
         UserAnswerFactory userAnswerFactory
     ) {
         this.attemptRepository = attemptRepository;
         this.testRepository = testRepository;
         this.questionRepository = questionRepository;
-        this.answerOptionRepository = answerOptionRepository;
         this.userAnswerRepository = userAnswerRepository;
         this.userRepository = userRepository;
+        this.testStatsRepository = testStatsRepository;
+        this.scoreCalculator = scoreCalculator;
+        this.answerDetailRepository = answerDetailRepository;
+        this.unitOfWork = unitOfWork;
         this.attemptFactory = attemptFactory;
         this.userAnswerFactory = userAnswerFactory;
     }
 
     @Override
     public Integer startAttempt(Integer userId, Integer testId) {
-        Optional<User> user = userRepository.findById(userId);
-        if (user.isEmpty()) {
+        // The checks only need committed data and the insert is atomic on its own, so the
+        // user and the test load side by side before the unit of work opens
+        CompletableFuture<Optional<User>> user = unitOfWork.async(() -> userRepository.findById(userId));
+        Optional<Test> test = testRepository.findById(testId);
+        if (UnitOfWork.join(user).isEmpty()) {
             throw new IllegalArgumentException("User not found");
         }
 
-        Optional<Test> test = testRepository.findById(testId);
         if (test.isEmpty()) {
             throw new IllegalArgumentException("Test not found");
         }
@@ -72,15 +94,9 @@ public class TestAttemptServiceImpl implements TestAttemptService {
             throw new IllegalStateException("Test has ended");
         }
 
-        List<TestAttempt> previousAttempts = attemptRepository.findByUserAndTest(userId, testId);
-        if (t.getMaxAttempts() != null && previousAttempts.size() >= t.getMaxAttempts()) {
-            throw new IllegalStateException("Maximum attempts reached");
-        }
-
-        int attemptNumber = previousAttempts.size() + 1;
-        TestAttempt attempt = attemptFactory.createTestAttempt(userId, testId, attemptNumber);
-
-        return attemptRepository.save(attempt);
+        TestAttempt attempt = attemptFactory.createTestAttempt(userId, testId);
+        return unitOfWork.execute(() -> attemptRepository.insertNextAttempt(attempt, t.getMaxAttempts()))
+                .orElseThrow(() -> new IllegalStateException("Maximum attempts reached"));
     }
 
     @Override
@@ -100,7 +116,39 @@ public class TestAttemptServiceImpl implements TestAttemptService {
         }
 
         UserAnswer userAnswer = userAnswerFactory.createUserAnswer(attemptId, questionId, answerId, answerText);
-        userAnswerRepository.save(userAnswer);
+        userAnswerRepository.upsert(userAnswer, attempt.get().getStartTime());
+    }
+
+    @Override
+    public void submitAnswers(Integer attemptId, List<UserAnswer> answers) {
+        Optional<TestAttempt> attempt = attemptRepository.findById(attemptId);
+        if (attempt.isEmpty()) {
+            throw new IllegalArgumentException("Test attempt not found");
+        }
+
+        if (attempt.get().getEndTime() != null) {
+            throw new IllegalStateException("Test attempt already finished");
+        }
+
+        if (answers.isEmpty()) {
+            return;
+        }
+
+        // One lookup for the whole page instead of one per answer
+        Set<Integer> questionIds = questionRepository.findByTestId(attempt.get().getTestId()).stream()
+                .map(Question::getId)
+                .collect(Collectors.toSet());
+
+        for (UserAnswer answer : answers) {
+            if (!attemptId.equals(answer.getAttemptId())) {
+                throw new IllegalArgumentException("Answer does not belong to this attempt");
+            }
+            if (!questionIds.contains(answer.getQuestionId())) {
+                throw new IllegalArgumentException("Question not found");
+            }
+        }
+
+        userAnswerRepository.upsertAll(answers, attempt.get().getStartTime());
     }
 
     @Override
@@ -130,26 +178,11 @@ public class TestAttemptServiceImpl implements TestAttemptService {
             }
         }
 
-        int totalScore = calculateScore(attemptId);
-        a.setEndTime(now);
-        a.setScore(totalScore);
-        attemptRepository.save(a);
-
-        return totalScore;
-    }
-
-    private int calculateScore(Integer attemptId) {
-        List<UserAnswer> userAnswers = userAnswerRepository.findByAttemptId(attemptId);
-        int totalScore = 0;
-
-        for (UserAnswer userAnswer : userAnswers) {
-            if (userAnswer.getAnswerId() != null) {
-                Optional<AnswerOption> answerOption = answerOptionRepository.findById(userAnswer.getAnswerId());
-                if (answerOption.isPresent() && answerOption.get().getScore() != null) {
-                    totalScore += answerOption.get().getScore();
-                }
-            }
-        }
+        // Another request may have finished the attempt since it was read above
+        int totalScore = scoreCalculator.finishAttempt(attemptId, a.getStartTime(), now)
+                .orElseThrow(() -> new IllegalStateException("Test attempt already finished"));
+        testStatsRepository.recordAttemptFinished(t.getId(), a.getStartTime(), totalScore,
+                totalScore >= passThreshold(t.getId()));
 
         return totalScore;
     }
@@ -161,7 +194,7 @@ public class TestAttemptServiceImpl implements TestAttemptService {
 
     @Override
     public List<TestAttempt> getUserAttempts(Integer userId) {
-        return attemptRepository.findByUserId(userId);
+        return unitOfWork.readOnly(() -> attemptRepository.findByUserId(userId));
     }
 
     @Override
@@ -169,8 +202,57 @@ public class TestAttemptServiceImpl implements TestAttemptService {
         return userAnswerRepository.findByAttemptId(attemptId);
     }
 
+    @Override
+    public Page<AnswerDetail> getAnswerDetails(Integer attemptId, String cursor, int questionLimit) {
+        if (questionLimit <= 0 || questionLimit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return answerDetailRepository.findByAttemptId(
+            attemptId, cursor != null && !cursor.isBlank() ? cursor : null, questionLimit
+        );
+    }
+
     @Override
     public List<TestAttempt> getByTestId(Integer testId) {
         return this.attemptRepository.findByTestId(testId);
     }
+
+    @Override
+    public TestAttemptStats getTestStatistics(Integer testId) {
+        // Tests the rollup has not seen yet are aggregated from the attempts directly
+        return unitOfWork.readOnly(() -> testStatsRepository.findByTestId(testId)
+                .map(TestStats::toAttemptStats)
+                .orElseGet(() -> attemptRepository.aggregateForTest(testId, passThreshold(testId))));
+    }
+
+    @Override
+    public int rebuildTestStatistics() {
+        return testStatsRepository.rebuild();
+    }
+
+    private int passThreshold(Integer testId) {
+        Optional<TestStats> stats = testStatsRepository.findByTestId(testId);
+        if (stats.isPresent()) {
+            return stats.get().passThreshold();
+        }
+        int maxPossibleScore = questionRepository.findByTestId(testId).stream()
+                .mapToInt(q -> q.getMaxPoints() != null ? q.getMaxPoints() : 0)
+                .sum();
+        return TestStats.passThreshold(maxPossibleScore);
+    }
+
+    @Override
+    public long countAttempts(boolean estimate) {
+        return estimate ? attemptRepository.estimateCount() : attemptRepository.count();
+    }
+
+    @Override
+    public long countAttemptsInProgress() {
+        return attemptRepository.countInProgress();
+    }
+
+    @Override
+    public long countAttemptsFinishedBetween(ZonedDateTime from, ZonedDateTime to) {
+        return attemptRepository.countFinishedBetween(from, to);
+    }
 }
@@ -3,7 +3,11 @@ package com.github.john_g1t.domain.service.test;
 import com.github.john_g1t.domain.model.AnswerOption;
 import com.github.john_g1t.domain.model.Question;
 import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.model.TestAggregate;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.TestQuery;
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,9 +20,15 @@ public interface TestService {
     Integer addAnswerOption(Integer questionId, String optionText, Integer score);
     Optional<Test> getTest(Integer testId);
     List<Test> getAllTests();
+    List<Test> getTests(Collection<Integer> testIds);
     List<Test> getActiveTests();
+    long countTests(boolean estimate);
+    long countActiveTests();
     List<Test> getTestsByCreator(Integer creatorId);
+    Page<Test> findTests(TestQuery query);
+    Page<Test> searchTests(String text, TestQuery page);
     List<Question> getQuestions(Integer testId);
+    Optional<TestAggregate> getFullTest(Integer testId);
     List<AnswerOption> getAnswerOptions(Integer questionId);
     Optional<Question> getQuestionById(Integer questionId);
     boolean isTestActive(Integer testId);
@@ -3,12 +3,19 @@ package com.github.john_g1t.domain.service.test;
 import com.github.john_g1t.domain.model.AnswerOption;
 import com.github.john_g1t.domain.model.Question;
 import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.model.TestAggregate;
 import com.github.john_g1t.domain.model.TestAttempt;
 import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.TestAggregateRepository;
+import com.github.john_g1t.domain.repository.TestQuery;
 import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+import com.github.john_g1t.domain.repository.UnitOfWork;
 
 import java.time.ZonedDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +23,9 @@ public class TestServiceImpl implements TestService {
     private final TestRepository testRepository;
     private final QuestionRepository questionRepository;
     private final AnswerOptionRepository answerOptionRepository;
+    private final TestStatsRepository testStatsRepository;
+    private final TestAggregateRepository testAggregateRepository;
+    private final UnitOfWork unitOfWork;
     private final TestFactory testFactory;
     private final QuestionFactory questionFactory;
     private final AnswerOptionFactory answerOptionFactory;
@@ -24,6 +34,9 @@ public class TestServiceImpl implements TestService {
         TestRepository testRepository,
         QuestionRepository questionRepository,
         AnswerOptionRepository answerOptionRepository,
+        TestStatsRepository testStatsRepository,
+        TestAggregateRepository testAggregateRepository,
+        UnitOfWork unitOfWork,
         TestFactory testFactory,
         QuestionFactory questionFactory,
         AnswerOptionFactory answerOptionFactory
@@ -31,6 +44,9 @@ public class TestServiceImpl implements TestService {
         this.testRepository = testRepository;
         this.questionRepository = questionRepository;
         this.answerOptionRepository = answerOptionRepository;
+        this.testStatsRepository = testStatsRepository;
+        this.testAggregateRepository = testAggregateRepository;
+        this.unitOfWork = unitOfWork;
         this.testFactory = testFactory;
         this.questionFactory = questionFactory;
         this.answerOptionFactory = answerOptionFactory;
@@ -54,7 +70,11 @@ public class TestServiceImpl implements TestService {
         }
 
         Question question = questionFactory.createQuestion(testId, text, answerType, maxPoints);
-        return questionRepository.save(question);
+        return unitOfWork.execute(() -> {
+            Integer questionId = questionRepository.save(question);
+            testStatsRepository.refreshMaxPossibleScore(testId);
+            return questionId;
+        });
     }
 
     @Override
@@ -75,7 +95,15 @@ public class TestServiceImpl implements TestService {
 
     @Override
     public List<Test> getAllTests() {
-        return testRepository.findAll();
+        return unitOfWork.readOnly(testRepository::findAll);
+    }
+
+    @Override
+    public List<Test> getTests(Collection<Integer> testIds) {
+        if (testIds.isEmpty()) {
+            return List.of();
+        }
+        return unitOfWork.readOnly(() -> testRepository.findByIds(testIds));
     }
 
     @Override
@@ -88,11 +116,39 @@ public class TestServiceImpl implements TestService {
         return testRepository.findByCreator(creatorId);
     }
 
+    @Override
+    public long countTests(boolean estimate) {
+        return estimate ? testRepository.estimateCount() : testRepository.count();
+    }
+
+    @Override
+    public long countActiveTests() {
+        return testRepository.countActive();
+    }
+
+    @Override
+    public Page<Test> findTests(TestQuery query) {
+        return unitOfWork.readOnly(() -> testRepository.findPage(query));
+    }
+
+    @Override
+    public Page<Test> searchTests(String text, TestQuery page) {
+        if (text == null || text.isBlank()) {
+            return unitOfWork.readOnly(() -> testRepository.findPage(page));
+        }
+        return unitOfWork.readOnly(() -> testRepository.search(text, page));
+    }
+
     @Override
     public List<Question> getQuestions(Integer testId) {
         return questionRepository.findByTestId(testId);
     }
 
+    @Override
+    public Optional<TestAggregate> getFullTest(Integer testId) {
+        return testAggregateRepository.loadFull(testId);
+    }
+
     @Override
     public List<AnswerOption> getAnswerOptions(Integer questionId) {
         return answerOptionRepository.findByQuestionId(questionId);
@@ -126,13 +182,25 @@ public class TestServiceImpl implements TestService {
 
     @Override
     public void saveQuestion(Question question) {
-        this.questionRepository.save(question);
+        unitOfWork.execute(() -> {
+            questionRepository.save(question);
+            testStatsRepository.refreshMaxPossibleScore(question.getTestId());
+            return null;
+        });
     }
 
 
     @Override
     public void deleteQuestionById(Integer questionId) {
-        this.questionRepository.delete(questionId);
+        Optional<Question> question = questionRepository.findById(questionId);
+        if (question.isEmpty()) {
+            return;
+        }
+        unitOfWork.execute(() -> {
+            questionRepository.delete(questionId);
+            testStatsRepository.refreshMaxPossibleScore(question.get().getTestId());
+            return null;
+        });
     }
 
     @Override
@@ -1,6 +1,8 @@
 package com.github.john_g1t.domain.service.user;
 
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +12,8 @@ public interface UserService {
     Optional<User> findById(Integer id);
     Optional<User> findByEmail(String email);
     List<User> getAllUsers();
+    long countUsers(boolean estimate);
+    Page<UserSummary> searchUsers(String term, String cursor, int limit);
     boolean existsById(Integer id);
     boolean existsByEmail(String email);
     void changePassword(Integer userId, String oldPassword, String newPassword);
@@ -1,12 +1,16 @@
 package com.github.john_g1t.domain.service.user;
 
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.repository.UserRepository;
 import com.github.john_g1t.domain.service.PasswordGenerator;
 import java.util.List;
 import java.util.Optional;
 
 public class UserServiceImpl implements UserService {
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
     private final UserFactory userFactory;
 
@@ -59,6 +63,23 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    @Override
+    public long countUsers(boolean estimate) {
+        return estimate ? userRepository.estimateCount() : userRepository.count();
+    }
+
+    @Override
+    public Page<UserSummary> searchUsers(String term, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return userRepository.search(
+            term != null && !term.isBlank() ? term.trim() : null,
+            cursor != null && !cursor.isBlank() ? cursor : null,
+            limit
+        );
+    }
+
     @Override
     public boolean existsById(Integer id) {
         return userRepository.existsById(id);
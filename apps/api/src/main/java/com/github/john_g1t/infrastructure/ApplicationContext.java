@@ -1,22 +1,33 @@
 package com.github.john_g1t.infrastructure;
 
 import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.app.usecase.TransactionalUseCase;
 import com.github.john_g1t.app.usecase.attempt.FinishTestAttemptRequest;
 import com.github.john_g1t.app.usecase.attempt.StartTestAttemptRequest;
 import com.github.john_g1t.app.usecase.attempt.StartTestAttemptUseCase;
 import com.github.john_g1t.app.usecase.attempt.SubmitAnswerUseCase;
 import com.github.john_g1t.app.usecase.attempt.FinishTestAttemptUseCase;
 import com.github.john_g1t.app.usecase.attempt.SubmitAnswerRequest;
+import com.github.john_g1t.app.usecase.attempt.SubmitAnswersRequest;
+import com.github.john_g1t.app.usecase.attempt.SubmitAnswersUseCase;
 import com.github.john_g1t.app.usecase.test.CreateTestRequest;
 import com.github.john_g1t.app.usecase.test.CreateTestUseCase;
+import com.github.john_g1t.app.usecase.test.ImportQuestionBankRequest;
+import com.github.john_g1t.app.usecase.test.ImportQuestionBankUseCase;
+import com.github.john_g1t.app.usecase.test.RebuildTestStatsUseCase;
 import com.github.john_g1t.app.usecase.user.CreateUserRequest;
 import com.github.john_g1t.app.usecase.user.CreateUserUseCase;
 import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.GradebookExporter;
+import com.github.john_g1t.domain.repository.QuestionBankImporter;
+import com.github.john_g1t.domain.repository.QuestionBankImporter.ImportResult;
 import com.github.john_g1t.domain.repository.QuestionRepository;
 import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
 import com.github.john_g1t.domain.repository.UserRepository;
 import com.github.john_g1t.domain.repository.TestAttemptRepository;
 import com.github.john_g1t.domain.repository.UserAnswerRepository;
+import com.github.john_g1t.domain.repository.UnitOfWork;
 import com.github.john_g1t.domain.service.attempt.TestAttemptFactory;
 import com.github.john_g1t.domain.service.attempt.TestAttemptService;
 import com.github.john_g1t.domain.service.attempt.UserAnswerFactory;
@@ -29,16 +40,23 @@ import com.github.john_g1t.domain.service.user.UserService;
 import com.github.john_g1t.domain.service.user.UserServiceImpl;
 import com.github.john_g1t.domain.service.attempt.TestAttemptServiceImpl;
 import com.github.john_g1t.domain.service.test.TestServiceImpl;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 import com.github.john_g1t.infrastructure.repository.RepositoryProvider;
-import com.github.john_g1t.infrastructure.repository.postgres.PostgresConnectionFactory;
+
+import java.util.List;
 
 public class ApplicationContext {
+    private final RepositoryProvider repositories;
     private final UserRepository userRepository;
     private final TestRepository testRepository;
     private final QuestionRepository questionRepository;
     private final AnswerOptionRepository answerOptionRepository;
     private final TestAttemptRepository attemptRepository;
     private final UserAnswerRepository userAnswerRepository;
+    private final TestStatsRepository testStatsRepository;
+    private final UnitOfWork unitOfWork;
+    private final QuestionBankImporter questionBankImporter;
+    private final GradebookExporter gradebookExporter;
 
     private final UserFactory userFactory;
     private final TestFactory testFactory;
@@ -53,25 +71,37 @@ public class ApplicationContext {
 
     private final UseCase<CreateUserRequest, Integer> createUserUseCase;
     private final UseCase<CreateTestRequest, Integer> createTestUseCase;
+    private final UseCase<ImportQuestionBankRequest, ImportResult> importQuestionBankUseCase;
     private final UseCase<StartTestAttemptRequest, Integer> startTestAttemptUseCase;
     private final UseCase<SubmitAnswerRequest, Void> submitAnswerUseCase;
+    private final UseCase<SubmitAnswersRequest, Void> submitAnswersUseCase;
     private final UseCase<FinishTestAttemptRequest, Integer> finishTestAttemptUseCase;
+    private final UseCase<Void, Integer> rebuildTestStatsUseCase;
 
     public ApplicationContext() {
         this(RepositoryProvider.inMemory());
     }
 
-    public ApplicationContext(PostgresConnectionFactory connectionFactory) {
+    public ApplicationContext(ConnectionFactory connectionFactory) {
         this(RepositoryProvider.postgres(connectionFactory));
     }
 
+    public ApplicationContext(ConnectionFactory reference, List<? extends ConnectionFactory> shards) {
+        this(RepositoryProvider.sharded(reference, shards));
+    }
+
     private ApplicationContext(RepositoryProvider repos) {
+        this.repositories = repos;
         this.userRepository = repos.userRepository();
         this.testRepository = repos.testRepository();
         this.questionRepository = repos.questionRepository();
         this.answerOptionRepository = repos.answerOptionRepository();
         this.attemptRepository = repos.attemptRepository();
         this.userAnswerRepository = repos.userAnswerRepository();
+        this.testStatsRepository = repos.testStatsRepository();
+        this.unitOfWork = repos.unitOfWork();
+        this.questionBankImporter = repos.questionBankImporter();
+        this.gradebookExporter = repos.gradebookExporter();
 
         this.userFactory = new UserFactory();
         this.testFactory = new TestFactory();
@@ -83,19 +113,37 @@ public class ApplicationContext {
         this.userService = new UserServiceImpl(userRepository, userFactory);
         this.testService = new TestServiceImpl(
                 testRepository, questionRepository, answerOptionRepository,
+                testStatsRepository, repos.testAggregateRepository(), unitOfWork,
                 testFactory, questionFactory, answerOptionFactory
         );
         this.attemptService = new TestAttemptServiceImpl(
                 attemptRepository, testRepository, questionRepository,
-                answerOptionRepository, userAnswerRepository, userRepository,
+                userAnswerRepository, userRepository, testStatsRepository,
+                repos.scoreCalculator(), repos.answerDetailRepository(), unitOfWork,
                 attemptFactory, userAnswerFactory
         );
 
-        this.createUserUseCase = new CreateUserUseCase(userService);
-        this.createTestUseCase = new CreateTestUseCase(testService, userService);
+        this.createUserUseCase = transactional(new CreateUserUseCase(userService));
+        this.createTestUseCase = transactional(new CreateTestUseCase(testService, userService));
+        this.importQuestionBankUseCase = transactional(
+                new ImportQuestionBankUseCase(questionBankImporter, userService)
+        );
+        // Opens its own unit of work around the insert, after lookups that run concurrently
         this.startTestAttemptUseCase = new StartTestAttemptUseCase(attemptService);
-        this.submitAnswerUseCase = new SubmitAnswerUseCase(attemptService);
-        this.finishTestAttemptUseCase = new FinishTestAttemptUseCase(attemptService);
+        this.submitAnswerUseCase = transactional(new SubmitAnswerUseCase(attemptService));
+        this.submitAnswersUseCase = transactional(new SubmitAnswersUseCase(attemptService, userAnswerFactory));
+        this.finishTestAttemptUseCase = transactional(new FinishTestAttemptUseCase(attemptService));
+        this.rebuildTestStatsUseCase = transactional(new RebuildTestStatsUseCase(attemptService));
+    }
+
+    // Each use case commits once, no matter how many repositories it touches
+    private <Request, Response> UseCase<Request, Response> transactional(UseCase<Request, Response> useCase) {
+        return new TransactionalUseCase<>(useCase, unitOfWork);
+    }
+
+    // Closes the databases and executors handed to the constructor
+    public void close() {
+        repositories.close();
     }
 
     public UserService getUserService() {
@@ -110,6 +158,14 @@ public class ApplicationContext {
         return attemptService;
     }
 
+    public UnitOfWork getUnitOfWork() {
+        return unitOfWork;
+    }
+
+    public GradebookExporter getGradebookExporter() {
+        return gradebookExporter;
+    }
+
     public UseCase<CreateUserRequest, Integer> getCreateUserUseCase() {
         return createUserUseCase;
     }
@@ -118,6 +174,10 @@ public class ApplicationContext {
         return createTestUseCase;
     }
 
+    public UseCase<ImportQuestionBankRequest, ImportResult> getImportQuestionBankUseCase() {
+        return importQuestionBankUseCase;
+    }
+
     public UseCase<StartTestAttemptRequest, Integer> getStartTestAttemptUseCase() {
         return startTestAttemptUseCase;
     }
@@ -126,7 +186,15 @@ public class ApplicationContext {
         return submitAnswerUseCase;
     }
 
+    public UseCase<SubmitAnswersRequest, Void> getSubmitAnswersUseCase() {
+        return submitAnswersUseCase;
+    }
+
     public UseCase<FinishTestAttemptRequest, Integer> getFinishTestAttemptUseCase() {
         return finishTestAttemptUseCase;
     }
+
+    public UseCase<Void, Integer> getRebuildTestStatsUseCase() {
+        return rebuildTestStatsUseCase;
+    }
 }
@@ -0,0 +1,14 @@
+package com.github.john_g1t.infrastructure.archive;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * The full record of an attempt as written to a segment file.
+ */
+public record ArchivedAttempt(int id, int userId, int testId, OffsetDateTime startTime, OffsetDateTime endTime,
+                              Integer score, Integer attemptNumber, List<Answer> answers) {
+
+    public record Answer(int id, int questionId, Integer answerId, String answerText) {
+    }
+}
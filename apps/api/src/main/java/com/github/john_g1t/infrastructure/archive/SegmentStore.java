@@ -0,0 +1,159 @@
+package com.github.john_g1t.infrastructure.archive;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archived attempts on local disk. Each segment is written once and never modified: a data
+ * file of gzip members, one per attempt, and an index file of "attemptId offset length"
+ * lines, so a lookup inflates only the member it needs. Both files are written under a
+ * temporary name and moved into place, hence a segment that can be seen is complete.
+ */
+public class SegmentStore {
+    private static final int CACHED_INDEXES = 64;
+
+    private final Path directory;
+    private final ObjectMapper mapper;
+    private final Map<Long, Map<Integer, long[]>> indexes = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Map<Integer, long[]>> eldest) {
+                    return size() > CACHED_INDEXES;
+                }
+            });
+
+    public SegmentStore(Path directory) {
+        this.directory = directory;
+        this.mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+    }
+
+    // ARCHIVE_DIR should point at storage shared by every instance that serves reads
+    public static SegmentStore fromEnvironment() {
+        String dir = System.getenv("ARCHIVE_DIR");
+        return new SegmentStore(Path.of(dir == null || dir.isBlank() ? "archive" : dir.trim()));
+    }
+
+    public SegmentStore forShard(int shardId) {
+        return new SegmentStore(directory.resolve("shard-" + shardId));
+    }
+
+    public void write(long segment, List<ArchivedAttempt> attempts) {
+        Path data = dataFile(segment);
+        Path index = indexFile(segment);
+        Path dataTmp = data.resolveSibling(data.getFileName() + ".tmp");
+        Path indexTmp = index.resolveSibling(index.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            StringBuilder entries = new StringBuilder();
+            try (FileChannel channel = FileChannel.open(dataTmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (ArchivedAttempt attempt : attempts) {
+                    byte[] member = compress(mapper.writeValueAsBytes(attempt));
+                    entries.append(attempt.id()).append(' ').append(channel.position())
+                            .append(' ').append(member.length).append('\n');
+                    writeFully(channel, member);
+                }
+                channel.force(true);
+            }
+            try (FileChannel channel = FileChannel.open(indexTmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(channel, entries.toString().getBytes(StandardCharsets.US_ASCII));
+                channel.force(true);
+            }
+            // The index goes last: readers treat a segment without one as absent
+            Files.move(dataTmp, data, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(indexTmp, index, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing archive segment " + segment, e);
+        }
+    }
+
+    public Optional<ArchivedAttempt> read(long segment, int attemptId) {
+        long[] entry = index(segment).get(attemptId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(dataFile(segment), StandardOpenOption.READ)) {
+            ByteBuffer member = ByteBuffer.allocate((int) entry[1]);
+            while (member.hasRemaining()) {
+                if (channel.read(member, entry[0] + member.position()) < 0) {
+                    throw new EOFException("Archive segment " + segment + " is truncated");
+                }
+            }
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(member.array()))) {
+                return Optional.of(mapper.readValue(in, ArchivedAttempt.class));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading attempt " + attemptId + " from archive segment " + segment, e);
+        }
+    }
+
+    private Map<Integer, long[]> index(long segment) {
+        return indexes.computeIfAbsent(segment, this::loadIndex);
+    }
+
+    private Map<Integer, long[]> loadIndex(long segment) {
+        try {
+            List<String> lines = Files.readAllLines(indexFile(segment), StandardCharsets.US_ASCII);
+            Map<Integer, long[]> entries = new HashMap<>(lines.size() * 2);
+            for (String line : lines) {
+                String[] parts = line.split(" ");
+                entries.put(Integer.parseInt(parts[0]), new long[]{Long.parseLong(parts[1]), Long.parseLong(parts[2])});
+            }
+            return entries;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading index of archive segment " + segment, e);
+        }
+    }
+
+    private Path dataFile(long segment) {
+        return directory.resolve(String.format("segment-%08d.gz", segment));
+    }
+
+    private Path indexFile(long segment) {
+        return directory.resolve(String.format("segment-%08d.idx", segment));
+    }
+
+    private static byte[] compress(byte[] json) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeFully(FileChannel channel, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
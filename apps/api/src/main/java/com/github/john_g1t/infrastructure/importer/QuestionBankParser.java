@@ -0,0 +1,328 @@
+package com.github.john_g1t.infrastructure.importer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.github.john_g1t.domain.repository.QuestionBankImporter.Row;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Turns a question bank file into importer rows lazily, so files far larger than the
+ * heap can be streamed straight into the database.
+ *
+ * JSON is either an array of tests or an object with a "tests" array. Each test holds
+ * its "questions", each question its "options"; ids are positional.
+ *
+ * CSV has a header row and one row per answer option. test_key and question_key are
+ * the file's own ids; repeated keys refer to the same test or question, so later rows
+ * may leave the test and question columns blank.
+ */
+public final class QuestionBankParser {
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private QuestionBankParser() {
+    }
+
+    public static Iterator<Row> parse(Reader reader, String format) {
+        if (format == null || format.equalsIgnoreCase("json")) {
+            return json(reader);
+        } else if (format.equalsIgnoreCase("csv")) {
+            return csv(reader);
+        }
+        throw new IllegalArgumentException("Unsupported import format: " + format);
+    }
+
+    public static Iterator<Row> json(Reader reader) {
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(reader);
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME && !parser.currentName().equals("tests")) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                parser.nextToken();
+            }
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected an array of tests");
+            }
+            return new JsonRows(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed question bank JSON: " + e.getMessage(), e);
+        }
+    }
+
+    public static Iterator<Row> csv(Reader reader) {
+        return new CsvRows(new CsvReader(reader));
+    }
+
+    record TestEntry(
+        String title,
+        String description,
+        Integer timeLimit,
+        Integer maxAttempts,
+        ZonedDateTime startTime,
+        ZonedDateTime endTime,
+        List<QuestionEntry> questions
+    ) {}
+
+    record QuestionEntry(String text, String answerType, Integer maxPoints, List<OptionEntry> options) {}
+
+    record OptionEntry(String text, Integer score) {}
+
+    private static String normalizeAnswerType(String answerType) {
+        if (answerType == null || answerType.isBlank()) {
+            return null;
+        }
+        return switch (answerType.trim().toLowerCase()) {
+            case "single", "single_choice" -> "single_choice";
+            case "multiple", "multiple_choice" -> "multiple_choice";
+            case "text" -> "text";
+            default -> throw new IllegalArgumentException("Unknown answer type: " + answerType);
+        };
+    }
+
+    private abstract static class BufferedRows implements Iterator<Row> {
+        protected final Deque<Row> pending = new ArrayDeque<>();
+        private boolean exhausted;
+
+        // Refills the buffer with the next chunk; returns false at end of input
+        protected abstract boolean fill() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (pending.isEmpty() && !exhausted) {
+                    exhausted = !fill();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error reading question bank", e);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public Row next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+    }
+
+    private static class JsonRows extends BufferedRows {
+        private final JsonParser parser;
+        private int testNumber;
+
+        JsonRows(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        // Only one test is materialized at a time
+        @Override
+        protected boolean fill() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.close();
+                return false;
+            }
+            TestEntry test = objectMapper.readValue(parser, TestEntry.class);
+            String testKey = Integer.toString(++testNumber);
+            try {
+                expand(testKey, test);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Test #" + testKey + ": " + e.getMessage(), e);
+            }
+            return true;
+        }
+
+        private void expand(String testKey, TestEntry test) {
+            List<QuestionEntry> questions = test.questions() != null ? test.questions() : List.of();
+            if (questions.isEmpty()) {
+                pending.add(row(testKey, test, null, null, null));
+            }
+            for (int i = 0; i < questions.size(); i++) {
+                QuestionEntry question = questions.get(i);
+                String questionKey = Integer.toString(i + 1);
+                List<OptionEntry> options = question.options() != null ? question.options() : List.of();
+                if (options.isEmpty()) {
+                    pending.add(row(testKey, test, questionKey, question, null));
+                }
+                for (OptionEntry option : options) {
+                    pending.add(row(testKey, test, questionKey, question, option));
+                }
+            }
+        }
+
+        private Row row(String testKey, TestEntry test, String questionKey, QuestionEntry question, OptionEntry option) {
+            return new Row(
+                testKey, test.title(), test.description(), test.timeLimit(), test.maxAttempts(),
+                test.startTime(), test.endTime(),
+                questionKey,
+                question != null ? question.text() : null,
+                question != null ? normalizeAnswerType(question.answerType()) : null,
+                question != null ? question.maxPoints() : null,
+                option != null ? option.text() : null,
+                option != null ? option.score() : null
+            );
+        }
+    }
+
+    private static class CsvRows extends BufferedRows {
+        private final CsvReader reader;
+        private Map<String, Integer> columns;
+        private int recordNumber;
+
+        CsvRows(CsvReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        protected boolean fill() throws IOException {
+            if (columns == null) {
+                readHeader();
+            }
+            List<String> record = reader.next();
+            recordNumber++;
+            if (record == null) {
+                reader.close();
+                return false;
+            }
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                return true;
+            }
+            try {
+                pending.add(toRow(record));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Record " + recordNumber + ": " + e.getMessage(), e);
+            }
+            return true;
+        }
+
+        private void readHeader() throws IOException {
+            List<String> header = reader.next();
+            recordNumber++;
+            if (header == null) {
+                throw new IllegalArgumentException("CSV header is missing");
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            if (!columns.containsKey("test_key")) {
+                throw new IllegalArgumentException("CSV header must contain test_key");
+            }
+        }
+
+        private Row toRow(List<String> record) {
+            String startTime = field(record, "start_time");
+            String endTime = field(record, "end_time");
+            return new Row(
+                field(record, "test_key"),
+                field(record, "test_title"),
+                field(record, "test_description"),
+                intField(record, "time_limit"),
+                intField(record, "max_attempts"),
+                startTime != null ? ZonedDateTime.parse(startTime) : null,
+                endTime != null ? ZonedDateTime.parse(endTime) : null,
+                field(record, "question_key"),
+                field(record, "question_text"),
+                normalizeAnswerType(field(record, "answer_type")),
+                intField(record, "max_points"),
+                field(record, "option_text"),
+                intField(record, "option_score")
+            );
+        }
+
+        private String field(List<String> record, String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+                return null;
+            }
+            return record.get(index);
+        }
+
+        private Integer intField(List<String> record, String column) {
+            String value = field(record, column);
+            if (value == null) {
+                return null;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column + " must be an integer");
+            }
+        }
+    }
+
+    // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+    private static class CsvReader {
+        private final BufferedReader reader;
+
+        CsvReader(Reader reader) {
+            this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        }
+
+        List<String> next() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+
+            List<String> record = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int following = reader.read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            record.add(field.toString());
+            return record;
+        }
+
+        void close() throws IOException {
+            reader.close();
+        }
+    }
+}
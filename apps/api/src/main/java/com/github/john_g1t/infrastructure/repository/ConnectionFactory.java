@@ -1,8 +1,18 @@
 package com.github.john_g1t.infrastructure.repository;
 
 import java.sql.Connection;
+import java.util.function.Supplier;
 
 public interface ConnectionFactory {
     Connection getConnection();
     void closeConnection();
+
+    // Connections leased while the work runs may come from a replica, if there is one
+    default <T> T readOnly(Supplier<T> work) {
+        return work.get();
+    }
+
+    // Called right after a commit that may have written, on the connection that made it
+    default void afterCommit(Connection connection) {
+    }
 }
@@ -0,0 +1,508 @@
+package com.github.john_g1t.infrastructure.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded pool of physical JDBC connections. Borrowed connections are proxies:
+ * closing one hands the physical connection back to the pool instead of closing it.
+ * Each physical connection also keeps its prepared statements, keyed by SQL, so the
+ * driver can reuse server-side plans across leases.
+ */
+public class ConnectionPool implements AutoCloseable {
+    @FunctionalInterface
+    public interface Connector {
+        Connection connect() throws SQLException;
+    }
+
+    private final Connector connector;
+    private final ConnectionPoolConfig config;
+    private final Semaphore permits;
+    // Most recently returned connections sit at the head, so hot ones are reused first
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    public ConnectionPool(Connector connector, ConnectionPoolConfig config) {
+        this.connector = connector;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize(), true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = config.housekeepingInterval().toMillis();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() {
+        if (closed) {
+            throw new DatabaseConnectionException("Connection pool is closed", null);
+        }
+
+        long deadline = System.nanoTime() + config.borrowTimeout().toNanos();
+        acquirePermit();
+        try {
+            PooledConnection pooled = obtain(deadline);
+            leased.add(pooled);
+            Throwable trace = config.leakDetectionThreshold().isZero()
+                    ? null
+                    : new Throwable("Connection leased here");
+            return pooled.lease(trace);
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int getActiveCount() {
+        return leased.size();
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public int getTotalCount() {
+        return total.get();
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    private void acquirePermit() {
+        try {
+            if (!permits.tryAcquire(config.borrowTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new DatabaseConnectionException(
+                        "Timed out after " + config.borrowTimeout().toMillis() + " ms waiting for a connection ("
+                                + leased.size() + " of " + config.maxSize() + " in use)", null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseConnectionException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    private PooledConnection obtain(long deadline) {
+        while (true) {
+            PooledConnection pooled = idle.pollFirst();
+            if (pooled != null) {
+                if (isUsable(pooled)) {
+                    return pooled;
+                }
+                discard(pooled);
+                continue;
+            }
+
+            if (reserveSlot()) {
+                return open();
+            }
+
+            // Every slot is taken but we hold a permit, so a connection is on its way back
+            if (System.nanoTime() > deadline) {
+                throw new DatabaseConnectionException("Timed out waiting for an idle connection", null);
+            }
+            LockSupport.parkNanos(100_000);
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = total.get();
+            if (current >= config.maxSize()) {
+                return false;
+            }
+            if (total.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PooledConnection open() {
+        try {
+            return new PooledConnection(connector.connect());
+        } catch (SQLException | RuntimeException e) {
+            total.decrementAndGet();
+            throw new DatabaseConnectionException("Failed to open database connection", e);
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            // Skip the round trip for connections that were in use a moment ago
+            if (pooled.idleNanos(System.nanoTime()) < config.validationIdleThreshold().toNanos()) {
+                return true;
+            }
+            return pooled.physical.isValid((int) config.validationTimeout().toSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        leased.remove(pooled);
+        if (!closed && pooled.resetForReuse()) {
+            idle.offerFirst(pooled);
+            if (closed && idle.remove(pooled)) {
+                discard(pooled);
+            }
+        } else {
+            discard(pooled);
+        }
+        permits.release();
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away anyway
+        }
+    }
+
+    private void housekeep() {
+        try {
+            evictIdle();
+            fillToMinimum();
+            detectLeaks();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool housekeeping failed: " + e.getMessage());
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        long idleTimeout = config.idleTimeout().toNanos();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext() && total.get() > config.minSize()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (pooled.idleNanos(now) > idleTimeout && idle.removeFirstOccurrence(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && total.get() < config.minSize() && reserveSlot()) {
+            idle.offerLast(open());
+        }
+    }
+
+    private void detectLeaks() {
+        if (config.leakDetectionThreshold().isZero()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long threshold = config.leakDetectionThreshold().toNanos();
+        for (PooledConnection pooled : leased) {
+            pooled.reportIfLeaked(now, threshold);
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        private volatile long returnedAt = System.nanoTime();
+        private volatile long leasedAt;
+        private volatile String leaseThread;
+        private volatile Throwable leaseTrace;
+        private volatile boolean leakReported;
+        // Only touched by the thread holding the lease
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= config.statementCacheSize()) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private PreparedStatement prepare(String sql, Connection owner) throws SQLException {
+            if (config.statementCacheSize() == 0) {
+                return physical.prepareStatement(sql);
+            }
+
+            CachedStatement cached = statements.get(sql);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                statementCacheHits.incrementAndGet();
+                return cached.checkout(owner);
+            }
+
+            statementCacheMisses.incrementAndGet();
+            if (cached != null && cached.inUse) {
+                // The same query is already open on this lease, so hand out a private copy
+                return physical.prepareStatement(sql);
+            }
+            cached = new CachedStatement(this, sql, physical.prepareStatement(sql));
+            statements.put(sql, cached);
+            return cached.checkout(owner);
+        }
+
+        private Connection lease(Throwable trace) {
+            leasedAt = System.nanoTime();
+            leaseThread = Thread.currentThread().getName();
+            leaseTrace = trace;
+            leakReported = false;
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new Lease(this)
+            );
+        }
+
+        private long idleNanos(long now) {
+            return now - returnedAt;
+        }
+
+        private boolean resetForReuse() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                physical.clearWarnings();
+                // A statement the borrower never closed cannot be handed to the next one
+                statements.values().removeIf(cached -> {
+                    if (cached.inUse) {
+                        cached.revoke();
+                        cached.closeQuietly();
+                        return true;
+                    }
+                    return false;
+                });
+                returnedAt = System.nanoTime();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        private void reportIfLeaked(long now, long threshold) {
+            if (leakReported || now - leasedAt < threshold) {
+                return;
+            }
+            leakReported = true;
+            System.err.println("Possible connection leak: connection leased by thread " + leaseThread
+                    + " has not been returned for " + TimeUnit.NANOSECONDS.toMillis(now - leasedAt) + " ms");
+            if (leaseTrace != null) {
+                leaseTrace.printStackTrace();
+            }
+        }
+    }
+
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    if (args.length == 1 && !returned.get()) {
+                        return pooled.prepare((String) args[0], (Connection) proxy);
+                    }
+                    break;
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    if (returned.get()) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class CachedStatement {
+        private final PooledConnection pooled;
+        private final String sql;
+        private final PreparedStatement statement;
+        private Checkout current;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PooledConnection pooled, String sql, PreparedStatement statement) {
+            this.pooled = pooled;
+            this.sql = sql;
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkout(Connection owner) {
+            // Every checkout gets its own handler, so a stale proxy cannot close a later borrower's statement
+            current = new Checkout(this, owner);
+            inUse = true;
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    current
+            );
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void revoke() {
+            if (current != null) {
+                current.closed = true;
+                current = null;
+            }
+            inUse = false;
+        }
+
+        private void checkin() throws SQLException {
+            revoke();
+            if (evicted) {
+                closeQuietly();
+                return;
+            }
+            ResultSet rs = statement.getResultSet();
+            if (rs != null) {
+                rs.close();
+            }
+            statement.clearParameters();
+            statement.setFetchSize(0);
+            statement.setMaxRows(0);
+            statement.setQueryTimeout(0);
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // Closing the connection releases it anyway
+            }
+        }
+    }
+
+    private static final class Checkout implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection owner;
+        private boolean closed;
+
+        private Checkout(CachedStatement cached, Connection owner) {
+            this.cached = cached;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        cached.checkin();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.sql + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(cached.statement, args);
+            } catch (InvocationTargetException e) {
+                // A failing statement may hold a stale plan, so do not hand it out again
+                if (e.getCause() instanceof SQLException) {
+                    cached.pooled.statements.remove(cached.sql, cached);
+                    cached.evicted = true;
+                }
+                throw e.getCause();
+            }
+        }
+    }
+}
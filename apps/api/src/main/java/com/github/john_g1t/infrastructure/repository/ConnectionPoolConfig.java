@@ -0,0 +1,78 @@
+package com.github.john_g1t.infrastructure.repository;
+
+import java.time.Duration;
+
+public record ConnectionPoolConfig(
+    int minSize,
+    int maxSize,
+    Duration borrowTimeout,
+    Duration validationIdleThreshold,
+    Duration validationTimeout,
+    Duration idleTimeout,
+    Duration leakDetectionThreshold,
+    Duration housekeepingInterval,
+    int statementCacheSize
+) {
+    public ConnectionPoolConfig {
+        if (minSize < 0) {
+            throw new IllegalArgumentException("Minimum pool size cannot be negative");
+        }
+        if (maxSize <= 0 || maxSize < minSize) {
+            throw new IllegalArgumentException("Maximum pool size must be positive and not less than minimum size");
+        }
+        if (borrowTimeout == null || borrowTimeout.isNegative()) {
+            throw new IllegalArgumentException("Borrow timeout cannot be negative");
+        }
+        if (validationTimeout == null || validationTimeout.toSeconds() < 1) {
+            throw new IllegalArgumentException("Validation timeout must be at least one second");
+        }
+        if (housekeepingInterval == null || housekeepingInterval.isZero() || housekeepingInterval.isNegative()) {
+            throw new IllegalArgumentException("Housekeeping interval must be positive");
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size cannot be negative");
+        }
+    }
+
+    public static ConnectionPoolConfig defaults() {
+        return new ConnectionPoolConfig(
+            2,
+            10,
+            Duration.ofSeconds(30),
+            Duration.ofMillis(500),
+            Duration.ofSeconds(5),
+            Duration.ofMinutes(10),
+            Duration.ofSeconds(60),
+            Duration.ofSeconds(30),
+            64
+        );
+    }
+
+    // Pool sizing can be tuned per deployment without a rebuild
+    public static ConnectionPoolConfig fromEnvironment() {
+        ConnectionPoolConfig defaults = defaults();
+        return new ConnectionPoolConfig(
+            intEnv("DB_POOL_MIN_SIZE", defaults.minSize()),
+            intEnv("DB_POOL_MAX_SIZE", defaults.maxSize()),
+            Duration.ofMillis(intEnv("DB_POOL_BORROW_TIMEOUT_MS", (int) defaults.borrowTimeout().toMillis())),
+            defaults.validationIdleThreshold(),
+            defaults.validationTimeout(),
+            defaults.idleTimeout(),
+            Duration.ofMillis(intEnv("DB_POOL_LEAK_THRESHOLD_MS", (int) defaults.leakDetectionThreshold().toMillis())),
+            defaults.housekeepingInterval(),
+            intEnv("DB_STATEMENT_CACHE_SIZE", defaults.statementCacheSize())
+        );
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " environment variable must be an integer", e);
+        }
+    }
+}
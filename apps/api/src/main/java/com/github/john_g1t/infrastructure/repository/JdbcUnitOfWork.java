@@ -0,0 +1,176 @@
+package com.github.john_g1t.infrastructure.repository;
+
+import com.github.john_g1t.domain.repository.UnitOfWork;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Binds one connection to the current thread for the duration of a unit of work, leased
+ * when a repository first asks for it. Repositories built on this factory transparently
+ * join the open transaction.
+ *
+ * Async work outside a unit of work runs on virtual threads, each leasing its own pooled
+ * connection, so a blocked query parks cheaply instead of holding a platform thread.
+ * Inside a unit of work it runs inline on the bound connection instead.
+ *
+ * The delegate hears about a commit only when the work may have written: anything but a
+ * plain SELECT counts as a write. The same goes for autocommit connections leased outside
+ * a unit of work, which report when they are closed.
+ */
+public class JdbcUnitOfWork implements UnitOfWork, ConnectionFactory {
+    private final ConnectionFactory delegate;
+    private final ThreadLocal<Transaction> current = new ThreadLocal<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // The connection is leased on first use, so work that never touches this database costs it nothing
+    private static final class Transaction {
+        private Connection connection;
+        private boolean wrote;
+    }
+
+    public JdbcUnitOfWork(ConnectionFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Connection getConnection() {
+        Transaction transaction = current.get();
+        if (transaction == null) {
+            Transaction autocommit = new Transaction();
+            autocommit.connection = delegate.getConnection();
+            return tracked(autocommit, true);
+        }
+        if (transaction.connection == null) {
+            Connection connection = delegate.getConnection();
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                closeQuietly(connection, e);
+                throw new RuntimeException("Error starting transaction", e);
+            }
+            transaction.connection = connection;
+        }
+        return tracked(transaction, false);
+    }
+
+    @Override
+    public void closeConnection() {
+        executor.close();
+        delegate.closeConnection();
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+
+        Transaction transaction = new Transaction();
+        current.set(transaction);
+        try {
+            T result = work.get();
+            if (transaction.connection != null) {
+                transaction.connection.commit();
+                if (transaction.wrote) {
+                    delegate.afterCommit(transaction.connection);
+                }
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            if (transaction.connection != null) {
+                rollback(transaction.connection, e);
+            }
+            throw e;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error committing transaction", e);
+        } finally {
+            current.remove();
+            if (transaction.connection != null) {
+                closeQuietly(transaction.connection, null);
+            }
+        }
+    }
+
+    @Override
+    public <T> T readOnly(Supplier<T> work) {
+        if (current.get() != null) {
+            return work.get();
+        }
+        return delegate.readOnly(work);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> async(Supplier<T> work) {
+        if (current.get() != null) {
+            // A virtual thread would lease a second connection while this one waits on it
+            try {
+                return CompletableFuture.completedFuture(work.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    private static void closeQuietly(Connection connection, Throwable cause) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            if (cause != null) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+
+    private void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Repositories close what they lease; a bound connection must survive until commit
+    private Connection tracked(Transaction transaction, boolean autocommit) {
+        Connection connection = transaction.connection;
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!autocommit) {
+                                return null;
+                            }
+                            if (transaction.wrote && !connection.isClosed()) {
+                                transaction.wrote = false;
+                                delegate.afterCommit(connection);
+                            }
+                        }
+                        case "prepareStatement", "prepareCall" -> transaction.wrote |= mayWrite((String) args[0]);
+                        case "createStatement" -> transaction.wrote = true;
+                        default -> {
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+        );
+    }
+
+    // A SELECT that calls a writing function slips through; the ones here only draw sequence
+    // values, which no read depends on
+    private static boolean mayWrite(String sql) {
+        return !sql.stripLeading().regionMatches(true, 0, "SELECT", 0, 6);
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.john_g1t.infrastructure.repository;
+
+/**
+ * Position in a result ordered by rank, then id, both descending. The rank is kept as
+ * a float so it survives the round trip through the cursor string unchanged.
+ */
+public record RankedCursor(float rank, int id) {
+    public static RankedCursor parse(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            return new RankedCursor(
+                Float.parseFloat(cursor.substring(0, separator)),
+                Integer.parseInt(cursor.substring(separator + 1))
+            );
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return rank + ":" + id;
+    }
+}
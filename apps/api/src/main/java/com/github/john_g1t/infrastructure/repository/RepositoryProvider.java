@@ -1,10 +1,13 @@
 package com.github.john_g1t.infrastructure.repository;
 
 import com.github.john_g1t.domain.repository.*;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
 import com.github.john_g1t.infrastructure.repository.inmemory.*;
 import com.github.john_g1t.infrastructure.repository.postgres.*;
+import com.github.john_g1t.infrastructure.repository.shard.*;
 
 import java.sql.SQLException;
+import java.util.List;
 
 public interface RepositoryProvider {
     UserRepository userRepository();
@@ -13,50 +16,175 @@ public interface RepositoryProvider {
     AnswerOptionRepository answerOptionRepository();
     TestAttemptRepository attemptRepository();
     UserAnswerRepository userAnswerRepository();
+    UnitOfWork unitOfWork();
+    QuestionBankImporter questionBankImporter();
+    GradebookExporter gradebookExporter();
+    TestStatsRepository testStatsRepository();
+    ScoreCalculator scoreCalculator();
+    TestAggregateRepository testAggregateRepository();
+    AnswerDetailRepository answerDetailRepository();
+    // Releases the connection pools and executors behind the repositories
+    void close();
 
     static RepositoryProvider inMemory() {
+        // Importers and exporters work on the same maps the repositories read from
+        InMemoryUserRepository users = new InMemoryUserRepository();
+        InMemoryTestRepository tests = new InMemoryTestRepository();
+        InMemoryQuestionRepository questions = new InMemoryQuestionRepository();
+        InMemoryAnswerOptionRepository answerOptions = new InMemoryAnswerOptionRepository();
+        InMemoryTestAttemptRepository attempts = new InMemoryTestAttemptRepository();
+        InMemoryUserAnswerRepository userAnswers = new InMemoryUserAnswerRepository();
+        InMemoryTestStatsRepository testStats = new InMemoryTestStatsRepository(tests, questions, attempts);
         return new RepositoryProvider() {
             public UserRepository userRepository() {
-                return new InMemoryUserRepository();
+                return users;
             }
             public TestRepository testRepository() {
-                return new InMemoryTestRepository();
+                return tests;
             }
             public QuestionRepository questionRepository() {
-                return new InMemoryQuestionRepository();
+                return questions;
             }
             public AnswerOptionRepository answerOptionRepository() {
-                return new InMemoryAnswerOptionRepository();
+                return answerOptions;
             }
             public TestAttemptRepository attemptRepository() {
-                return new InMemoryTestAttemptRepository();
+                return attempts;
             }
             public UserAnswerRepository userAnswerRepository() {
-                return new InMemoryUserAnswerRepository();
+                return userAnswers;
+            }
+            public UnitOfWork unitOfWork() {
+                return new InMemoryUnitOfWork();
+            }
+            public QuestionBankImporter questionBankImporter() {
+                return new InMemoryQuestionBankImporter(tests, questions, answerOptions, testStats);
+            }
+            public GradebookExporter gradebookExporter() {
+                return new InMemoryGradebookExporter(attempts, users, userAnswers);
+            }
+            public TestStatsRepository testStatsRepository() {
+                return testStats;
+            }
+            public ScoreCalculator scoreCalculator() {
+                return new InMemoryScoreCalculator(attempts, userAnswers, answerOptions);
+            }
+            public TestAggregateRepository testAggregateRepository() {
+                return new InMemoryTestAggregateRepository(tests, questions, answerOptions);
+            }
+            public AnswerDetailRepository answerDetailRepository() {
+                return new InMemoryAnswerDetailRepository(userAnswers, questions, answerOptions);
+            }
+            public void close() {
+            }
+        };
+    }
+
+    static RepositoryProvider postgres(ConnectionFactory cf) {
+        JdbcUnitOfWork unitOfWork = new JdbcUnitOfWork(cf);
+        SegmentStore segmentStore = SegmentStore.fromEnvironment();
+        return new RepositoryProvider() {
+            public UserRepository userRepository() {
+                return new PostgresUserRepository(unitOfWork);
+            }
+            public TestRepository testRepository() {
+                return new PostgresTestRepository(unitOfWork);
+            }
+            public QuestionRepository questionRepository() {
+                return new PostgresQuestionRepository(unitOfWork);
+            }
+            public AnswerOptionRepository answerOptionRepository() {
+                return new PostgresAnswerOptionRepository(unitOfWork);
+            }
+            public TestAttemptRepository attemptRepository() {
+                return new PostgresTestAttemptRepository(unitOfWork);
+            }
+            public UserAnswerRepository userAnswerRepository() {
+                return new PostgresUserAnswerRepository(unitOfWork, segmentStore);
+            }
+            public UnitOfWork unitOfWork() {
+                return unitOfWork;
+            }
+            public QuestionBankImporter questionBankImporter() {
+                return new PostgresQuestionBankImporter(unitOfWork, unitOfWork);
+            }
+            public GradebookExporter gradebookExporter() {
+                return new PostgresGradebookExporter(unitOfWork, unitOfWork, segmentStore);
+            }
+            public TestStatsRepository testStatsRepository() {
+                return new PostgresTestStatsRepository(unitOfWork, unitOfWork);
+            }
+            public ScoreCalculator scoreCalculator() {
+                return new PostgresScoreCalculator(unitOfWork);
+            }
+            public TestAggregateRepository testAggregateRepository() {
+                return new PostgresTestAggregateRepository(unitOfWork);
+            }
+            public AnswerDetailRepository answerDetailRepository() {
+                return new PostgresAnswerDetailRepository(unitOfWork, segmentStore);
+            }
+            public void close() {
+                unitOfWork.closeConnection();
             }
         };
     }
 
-    static RepositoryProvider postgres(PostgresConnectionFactory cf) {
+    // Attempts and answers on the shards, by user id; everything else in the reference database
+    static RepositoryProvider sharded(ConnectionFactory reference, List<? extends ConnectionFactory> shards) {
+        JdbcUnitOfWork referenceUnitOfWork = new JdbcUnitOfWork(reference);
+        ShardRouter router = new ShardRouter(shards);
+        List<JdbcUnitOfWork> shardUnitsOfWork = router.shardIds().stream().map(router::shard).toList();
+        UnitOfWork unitOfWork = new ShardedUnitOfWork(referenceUnitOfWork, shardUnitsOfWork);
+        TestAttemptRepository attempts = new ShardedTestAttemptRepository(router);
+        SegmentStore segmentStore = SegmentStore.fromEnvironment();
+        UserAnswerRepository userAnswers = new ShardedUserAnswerRepository(router, segmentStore);
         return new RepositoryProvider() {
             public UserRepository userRepository() {
-                return new PostgresUserRepository(cf.getConnection());
+                return new PostgresUserRepository(referenceUnitOfWork);
             }
             public TestRepository testRepository() {
-                return new PostgresTestRepository(cf.getConnection());
+                return new PostgresTestRepository(referenceUnitOfWork);
             }
             public QuestionRepository questionRepository() {
-                return new PostgresQuestionRepository(cf.getConnection());
+                return new PostgresQuestionRepository(referenceUnitOfWork);
             }
             public AnswerOptionRepository answerOptionRepository() {
-                return new PostgresAnswerOptionRepository(cf.getConnection());
+                return new PostgresAnswerOptionRepository(referenceUnitOfWork);
             }
             public TestAttemptRepository attemptRepository() {
-                return new PostgresTestAttemptRepository(cf.getConnection());
+                return attempts;
             }
             public UserAnswerRepository userAnswerRepository() {
-                return new PostgresUserAnswerRepository(cf.getConnection());
+                return userAnswers;
+            }
+            public UnitOfWork unitOfWork() {
+                return unitOfWork;
+            }
+            public QuestionBankImporter questionBankImporter() {
+                return new PostgresQuestionBankImporter(referenceUnitOfWork, referenceUnitOfWork);
+            }
+            public GradebookExporter gradebookExporter() {
+                return new ShardedGradebookExporter(router, referenceUnitOfWork, segmentStore);
+            }
+            public TestStatsRepository testStatsRepository() {
+                return new ShardedTestStatsRepository(referenceUnitOfWork, referenceUnitOfWork, router);
+            }
+            public ScoreCalculator scoreCalculator() {
+                return new ShardedScoreCalculator(router, referenceUnitOfWork);
+            }
+            public TestAggregateRepository testAggregateRepository() {
+                return new PostgresTestAggregateRepository(referenceUnitOfWork);
+            }
+            public AnswerDetailRepository answerDetailRepository() {
+                return new ShardedAnswerDetailRepository(router, referenceUnitOfWork, segmentStore);
+            }
+            public void close() {
+                try {
+                    router.close();
+                } finally {
+                    referenceUnitOfWork.closeConnection();
+                }
             }
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,100 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+import com.github.john_g1t.domain.model.AnswerOption;
+import com.github.john_g1t.domain.model.Question;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.AnswerDetailRepository;
+import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.UserAnswerRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+public class InMemoryAnswerDetailRepository implements AnswerDetailRepository {
+    private final UserAnswerRepository userAnswerRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerOptionRepository answerOptionRepository;
+
+    public InMemoryAnswerDetailRepository(
+        UserAnswerRepository userAnswerRepository,
+        QuestionRepository questionRepository,
+        AnswerOptionRepository answerOptionRepository
+    ) {
+        this.userAnswerRepository = userAnswerRepository;
+        this.questionRepository = questionRepository;
+        this.answerOptionRepository = answerOptionRepository;
+    }
+
+    @Override
+    public Page<AnswerDetail> findByAttemptId(Integer attemptId, String cursor, int questionLimit) {
+        int after = parseCursor(cursor);
+        List<UserAnswer> answers = userAnswerRepository.findByAttemptId(attemptId).stream()
+                .filter(a -> a.getQuestionId() > after)
+                .sorted(Comparator.comparing(UserAnswer::getQuestionId).thenComparing(UserAnswer::getId))
+                .toList();
+
+        List<AnswerDetail> details = new ArrayList<>();
+        int questions = 0;
+        Integer lastQuestionId = null;
+        Optional<Question> question = Optional.empty();
+        List<AnswerOption> options = List.of();
+        for (UserAnswer answer : answers) {
+            if (!answer.getQuestionId().equals(lastQuestionId)) {
+                if (questions == questionLimit) {
+                    return new Page<>(details, lastQuestionId.toString());
+                }
+                questions++;
+                lastQuestionId = answer.getQuestionId();
+                question = questionRepository.findById(lastQuestionId);
+                options = answerOptionRepository.findByQuestionId(lastQuestionId);
+            }
+            details.add(toDetail(answer, question, options));
+        }
+        return new Page<>(details, null);
+    }
+
+    private AnswerDetail toDetail(UserAnswer answer, Optional<Question> question, List<AnswerOption> options) {
+        int scoreEarned = 0;
+        String correctAnswerText = null;
+        if (answer.getAnswerId() != null) {
+            AnswerOption best = null;
+            for (AnswerOption option : options) {
+                int score = option.getScore() != null ? option.getScore() : 0;
+                if (option.getId().equals(answer.getAnswerId())) {
+                    scoreEarned = score;
+                }
+                int bestScore = best != null && best.getScore() != null ? best.getScore() : 0;
+                if (best == null || score > bestScore || (score == bestScore && option.getId() < best.getId())) {
+                    best = option;
+                }
+            }
+            correctAnswerText = best != null ? best.getOptionText() : null;
+        }
+        return new AnswerDetail(
+            answer.getId(),
+            answer.getQuestionId(),
+            question.map(Question::getText).orElse(null),
+            question.map(Question::getMaxPoints).orElse(null),
+            answer.getAnswerId(),
+            answer.getAnswerText(),
+            scoreEarned,
+            correctAnswerText
+        );
+    }
+
+    private int parseCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
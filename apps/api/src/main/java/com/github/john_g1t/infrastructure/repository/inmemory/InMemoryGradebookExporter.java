@@ -0,0 +1,104 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.GradebookExporter;
+import com.github.john_g1t.domain.repository.TestAttemptRepository;
+import com.github.john_g1t.domain.repository.UserAnswerRepository;
+import com.github.john_g1t.domain.repository.UserRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+public class InMemoryGradebookExporter implements GradebookExporter {
+    private static final String HEADER = "attempt_id,user_id,email,first_name,last_name," +
+            "attempt_number,start_time,end_time,score,question_id,answer_id,answer_text";
+
+    private final TestAttemptRepository attemptRepository;
+    private final UserRepository userRepository;
+    private final UserAnswerRepository userAnswerRepository;
+
+    public InMemoryGradebookExporter(
+        TestAttemptRepository attemptRepository,
+        UserRepository userRepository,
+        UserAnswerRepository userAnswerRepository
+    ) {
+        this.attemptRepository = attemptRepository;
+        this.userRepository = userRepository;
+        this.userAnswerRepository = userAnswerRepository;
+    }
+
+    @Override
+    public void exportTestResults(Integer testId, OutputStream out) {
+        if (testId == null) {
+            throw new IllegalArgumentException("Test ID cannot be null");
+        }
+
+        try {
+            // Not closed: the caller owns the stream
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(HEADER);
+            writer.write('\n');
+
+            List<TestAttempt> attempts = attemptRepository.findByTestId(testId).stream()
+                    .sorted(Comparator.comparing(TestAttempt::getId))
+                    .toList();
+            for (TestAttempt attempt : attempts) {
+                writeAttempt(writer, attempt);
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Error exporting results for test " + testId, e);
+        }
+    }
+
+    private void writeAttempt(Writer writer, TestAttempt attempt) throws IOException {
+        User user = userRepository.findById(attempt.getUserId()).orElse(null);
+        List<UserAnswer> answers = userAnswerRepository.findByAttemptId(attempt.getId()).stream()
+                .sorted(Comparator.comparing(UserAnswer::getQuestionId))
+                .toList();
+        if (answers.isEmpty()) {
+            writeRow(writer, attempt, user, null);
+        }
+        for (UserAnswer answer : answers) {
+            writeRow(writer, attempt, user, answer);
+        }
+    }
+
+    private void writeRow(Writer writer, TestAttempt attempt, User user, UserAnswer answer) throws IOException {
+        writer.write(String.join(",",
+                field(attempt.getId()),
+                field(attempt.getUserId()),
+                field(user != null ? user.getEmail() : null),
+                field(user != null ? user.getFirstName() : null),
+                field(user != null ? user.getLastName() : null),
+                field(attempt.getAttemptNumber()),
+                field(attempt.getStartTime() != null ? attempt.getStartTime().toOffsetDateTime() : null),
+                field(attempt.getEndTime() != null ? attempt.getEndTime().toOffsetDateTime() : null),
+                field(attempt.getScore()),
+                field(answer != null ? answer.getQuestionId() : null),
+                field(answer != null ? answer.getAnswerId() : null),
+                field(answer != null ? answer.getAnswerText() : null)
+        ));
+        writer.write('\n');
+    }
+
+    // Quotes only when needed, the same way COPY ... WITH (FORMAT csv) does
+    private String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.isEmpty() || text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
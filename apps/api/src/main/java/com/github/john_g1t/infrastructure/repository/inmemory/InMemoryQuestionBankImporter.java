@@ -0,0 +1,68 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.AnswerOption;
+import com.github.john_g1t.domain.model.Question;
+import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.QuestionBankImporter;
+import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class InMemoryQuestionBankImporter implements QuestionBankImporter {
+    private final TestRepository testRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerOptionRepository answerOptionRepository;
+    private final TestStatsRepository testStatsRepository;
+
+    public InMemoryQuestionBankImporter(
+        TestRepository testRepository,
+        QuestionRepository questionRepository,
+        AnswerOptionRepository answerOptionRepository,
+        TestStatsRepository testStatsRepository
+    ) {
+        this.testRepository = testRepository;
+        this.questionRepository = questionRepository;
+        this.answerOptionRepository = answerOptionRepository;
+        this.testStatsRepository = testStatsRepository;
+    }
+
+    @Override
+    public ImportResult importRows(Integer creatorId, Iterator<Row> rows) {
+        Map<String, Integer> testIds = new HashMap<>();
+        Map<List<String>, Integer> questionIds = new HashMap<>();
+        int options = 0;
+
+        while (rows.hasNext()) {
+            Row row = rows.next();
+            Integer testId = testIds.computeIfAbsent(row.testKey(), key -> testRepository.save(new Test(
+                creatorId, row.testTitle(), row.testDescription(), row.timeLimit(),
+                row.maxAttempts(), true, row.startTime(), row.endTime()
+            )));
+            if (row.questionKey() == null) {
+                continue;
+            }
+
+            Integer questionId = questionIds.computeIfAbsent(List.of(row.testKey(), row.questionKey()),
+                key -> questionRepository.save(new Question(
+                    testId, row.questionText(),
+                    row.answerType() != null ? row.answerType() : "single_choice",
+                    row.maxPoints() != null ? row.maxPoints() : 1
+                )));
+            if (row.optionText() != null) {
+                answerOptionRepository.save(new AnswerOption(
+                    questionId, row.optionText(), row.optionScore() != null ? row.optionScore() : 0
+                ));
+                options++;
+            }
+        }
+
+        testIds.values().forEach(testStatsRepository::refreshMaxPossibleScore);
+        return new ImportResult(testIds.size(), questionIds.size(), options);
+    }
+}
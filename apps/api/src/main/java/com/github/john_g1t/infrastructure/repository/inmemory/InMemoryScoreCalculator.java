@@ -0,0 +1,52 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.AnswerOption;
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.ScoreCalculator;
+import com.github.john_g1t.domain.repository.TestAttemptRepository;
+import com.github.john_g1t.domain.repository.UserAnswerRepository;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+public class InMemoryScoreCalculator implements ScoreCalculator {
+    private final TestAttemptRepository attemptRepository;
+    private final UserAnswerRepository userAnswerRepository;
+    private final AnswerOptionRepository answerOptionRepository;
+
+    public InMemoryScoreCalculator(
+        TestAttemptRepository attemptRepository,
+        UserAnswerRepository userAnswerRepository,
+        AnswerOptionRepository answerOptionRepository
+    ) {
+        this.attemptRepository = attemptRepository;
+        this.userAnswerRepository = userAnswerRepository;
+        this.answerOptionRepository = answerOptionRepository;
+    }
+
+    @Override
+    public Optional<Integer> finishAttempt(Integer attemptId, ZonedDateTime attemptStart, ZonedDateTime endTime) {
+        Optional<TestAttempt> attempt = attemptRepository.findById(attemptId);
+        if (attempt.isEmpty() || attempt.get().getEndTime() != null) {
+            return Optional.empty();
+        }
+
+        int score = 0;
+        for (UserAnswer answer : userAnswerRepository.findByAttemptId(attemptId)) {
+            if (answer.getAnswerId() == null) {
+                continue;
+            }
+            score += answerOptionRepository.findById(answer.getAnswerId())
+                    .map(AnswerOption::getScore)
+                    .orElse(0);
+        }
+
+        TestAttempt a = attempt.get();
+        a.setEndTime(endTime);
+        a.setScore(score);
+        attemptRepository.save(a);
+        return Optional.of(score);
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.Question;
+import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.model.TestAggregate;
+import com.github.john_g1t.domain.model.TestAggregate.OptionNode;
+import com.github.john_g1t.domain.model.TestAggregate.QuestionNode;
+import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.TestAggregateRepository;
+import com.github.john_g1t.domain.repository.TestRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+public class InMemoryTestAggregateRepository implements TestAggregateRepository {
+    private final TestRepository testRepository;
+    private final QuestionRepository questionRepository;
+    private final AnswerOptionRepository answerOptionRepository;
+
+    public InMemoryTestAggregateRepository(
+        TestRepository testRepository,
+        QuestionRepository questionRepository,
+        AnswerOptionRepository answerOptionRepository
+    ) {
+        this.testRepository = testRepository;
+        this.questionRepository = questionRepository;
+        this.answerOptionRepository = answerOptionRepository;
+    }
+
+    @Override
+    public Optional<TestAggregate> loadFull(Integer testId) {
+        Optional<Test> test = testRepository.findById(testId);
+        if (test.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<QuestionNode> questions = questionRepository.findByTestId(testId).stream()
+                .sorted(Comparator.comparing(Question::getId))
+                .map(this::toQuestionNode)
+                .toList();
+
+        Test t = test.get();
+        return Optional.of(new TestAggregate(
+            t.getId(), t.getCreatedBy(), t.getTitle(), t.getDescription(), t.getTimeLimit(),
+            t.getMaxAttempts(), t.isActive(), t.getStartTime(), t.getEndTime(), questions
+        ));
+    }
+
+    private QuestionNode toQuestionNode(Question question) {
+        List<OptionNode> options = answerOptionRepository.findByQuestionId(question.getId()).stream()
+                .map(o -> new OptionNode(o.getId(), o.getOptionText(), o.getScore()))
+                .sorted(Comparator.comparing(OptionNode::id))
+                .toList();
+        return new QuestionNode(question.getId(), question.getText(), question.getAnswerType(),
+                question.getMaxPoints(), options);
+    }
+}
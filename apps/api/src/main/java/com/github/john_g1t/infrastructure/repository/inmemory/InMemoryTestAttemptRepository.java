@@ -1,27 +1,63 @@
 package com.github.john_g1t.infrastructure.repository.inmemory;
 
 import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
 import com.github.john_g1t.domain.repository.TestAttemptRepository;
 
-import java.util.HashMap;
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class InMemoryTestAttemptRepository implements TestAttemptRepository {
-    private final Map<Integer, TestAttempt> attempts = new HashMap<>();
-    private int currentId = 1;
+    private final Map<Integer, TestAttempt> attempts = new ConcurrentHashMap<>();
+    private final AtomicInteger currentId = new AtomicInteger(1);
+    // Highest attempt number handed out per (user id, test id)
+    private final Map<List<Integer>, AtomicInteger> attemptNumbers = new ConcurrentHashMap<>();
 
     @Override
     public Integer save(TestAttempt attempt) {
         if (attempt.getId() == null) {
-            attempt.setId(currentId++);
+            attempt.setId(currentId.getAndIncrement());
+            if (attempt.getAttemptNumber() != null) {
+                attemptNumber(attempt.getUserId(), attempt.getTestId())
+                        .accumulateAndGet(attempt.getAttemptNumber(), Math::max);
+            }
         }
         attempts.put(attempt.getId(), attempt);
         return attempt.getId();
     }
 
+    @Override
+    public Optional<Integer> insertNextAttempt(TestAttempt attempt, Integer maxAttempts) {
+        AtomicInteger counter = attemptNumber(attempt.getUserId(), attempt.getTestId());
+        int current;
+        do {
+            current = counter.get();
+            if (maxAttempts != null && current >= maxAttempts) {
+                return Optional.empty();
+            }
+        } while (!counter.compareAndSet(current, current + 1));
+
+        attempt.setId(currentId.getAndIncrement());
+        attempt.setAttemptNumber(current + 1);
+        attempts.put(attempt.getId(), attempt);
+        return Optional.of(attempt.getId());
+    }
+
+    private AtomicInteger attemptNumber(Integer userId, Integer testId) {
+        return attemptNumbers.computeIfAbsent(List.of(userId, testId), key -> new AtomicInteger(
+                attempts.values().stream()
+                        .filter(a -> a.getUserId().equals(userId) && a.getTestId().equals(testId))
+                        .map(TestAttempt::getAttemptNumber)
+                        .filter(number -> number != null)
+                        .max(Integer::compare)
+                        .orElse(0)));
+    }
+
     @Override
     public Optional<TestAttempt> findById(Integer id) {
         return Optional.ofNullable(attempts.get(id));
@@ -41,6 +77,7 @@ public class InMemoryTestAttemptRepository implements TestAttemptRepository {
                 .collect(Collectors.toList());
     }
 
+
     @Override
     public List<TestAttempt> findByUserAndTest(Integer userId, Integer testId) {
         return attempts.values().stream()
@@ -48,6 +85,68 @@ public class InMemoryTestAttemptRepository implements TestAttemptRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public TestAttemptStats aggregateForTest(Integer testId, int passThreshold) {
+        long total = 0;
+        long completed = 0;
+        long scored = 0;
+        long scoreSum = 0;
+        long scoreSumSquares = 0;
+        long passed = 0;
+        Integer max = null;
+        Integer min = null;
+        for (TestAttempt attempt : attempts.values()) {
+            if (!attempt.getTestId().equals(testId)) {
+                continue;
+            }
+            total++;
+            if (attempt.getEndTime() == null) {
+                continue;
+            }
+            completed++;
+            Integer score = attempt.getScore();
+            if (score == null) {
+                continue;
+            }
+            scored++;
+            scoreSum += score;
+            scoreSumSquares += (long) score * score;
+            max = max == null ? score : Math.max(max, score);
+            min = min == null ? score : Math.min(min, score);
+            if (score >= passThreshold) {
+                passed++;
+            }
+        }
+        double average = scored > 0 ? (double) scoreSum / scored : 0.0;
+        double stdDev = scored > 0 ? Math.sqrt(Math.max(0.0, (double) scoreSumSquares / scored - average * average)) : 0.0;
+        return new TestAttemptStats(total, completed, scored, average, stdDev, max, min, passed);
+    }
+
+    @Override
+    public long count() {
+        return attempts.size();
+    }
+
+    @Override
+    public long countInProgress() {
+        return attempts.values().stream()
+                .filter(a -> a.getEndTime() == null)
+                .count();
+    }
+
+    @Override
+    public long countFinishedBetween(ZonedDateTime from, ZonedDateTime to) {
+        return attempts.values().stream()
+                .filter(a -> a.getEndTime() != null)
+                .filter(a -> !a.getEndTime().isBefore(from) && a.getEndTime().isBefore(to))
+                .count();
+    }
+
+    @Override
+    public long estimateCount() {
+        return count();
+    }
+
     @Override
     public void delete(Integer id) {
         attempts.remove(id);
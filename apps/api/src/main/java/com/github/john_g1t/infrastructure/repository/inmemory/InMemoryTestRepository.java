@@ -1,9 +1,15 @@
 package com.github.john_g1t.infrastructure.repository.inmemory;
 
 import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.TestQuery;
 import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.infrastructure.repository.RankedCursor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,6 +39,16 @@ public class InMemoryTestRepository implements TestRepository {
         return new ArrayList<>(tests.values());
     }
 
+    @Override
+    public List<Test> findByIds(Collection<Integer> ids) {
+        return ids.stream()
+                .distinct()
+                .map(tests::get)
+                .filter(test -> test != null)
+                .sorted(Comparator.comparing(Test::getId))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<Test> findByCreator(Integer creatorId) {
         return tests.values().stream()
@@ -47,6 +63,104 @@ public class InMemoryTestRepository implements TestRepository {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long count() {
+        return tests.size();
+    }
+
+    @Override
+    public long countActive() {
+        return tests.values().stream().filter(Test::isActive).count();
+    }
+
+    @Override
+    public long estimateCount() {
+        return count();
+    }
+
+    @Override
+    public Page<Test> findPage(TestQuery query) {
+        Integer afterId = parseIdCursor(query.cursor());
+        List<Test> matches = tests.values().stream()
+                .filter(test -> matchesFilters(test, query))
+                .filter(test -> afterId == null || test.getId() > afterId)
+                .sorted(Comparator.comparing(Test::getId))
+                .limit(query.limit() + 1L)
+                .collect(Collectors.toList());
+
+        if (matches.size() > query.limit()) {
+            List<Test> page = new ArrayList<>(matches.subList(0, query.limit()));
+            return new Page<>(page, page.get(page.size() - 1).getId().toString());
+        }
+        return new Page<>(matches, null);
+    }
+
+    // Every word has to appear; words in the title weigh more than words in the description
+    @Override
+    public Page<Test> search(String text, TestQuery page) {
+        List<String> words = Arrays.stream(text.toLowerCase().split("\\W+"))
+                .filter(word -> !word.isEmpty())
+                .toList();
+        RankedCursor after = RankedCursor.parse(page.cursor());
+
+        List<RankedTest> matches = tests.values().stream()
+                .filter(test -> matchesFilters(test, page))
+                .map(test -> new RankedTest(test, rank(test, words)))
+                .filter(ranked -> ranked.rank() > 0)
+                .filter(ranked -> after == null || ranked.rank() < after.rank() ||
+                        (ranked.rank() == after.rank() && ranked.test().getId() < after.id()))
+                .sorted(Comparator.comparing(RankedTest::rank)
+                        .thenComparing(ranked -> ranked.test().getId())
+                        .reversed())
+                .limit(page.limit() + 1L)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (matches.size() > page.limit()) {
+            matches = matches.subList(0, page.limit());
+            RankedTest last = matches.get(matches.size() - 1);
+            nextCursor = new RankedCursor(last.rank(), last.test().getId()).toString();
+        }
+        return new Page<>(matches.stream().map(RankedTest::test).collect(Collectors.toList()), nextCursor);
+    }
+
+    private boolean matchesFilters(Test test, TestQuery query) {
+        return (query.active() == null || test.isActive() == query.active()) &&
+                (query.creatorId() == null || test.getCreatedBy().equals(query.creatorId()));
+    }
+
+    private float rank(Test test, List<String> words) {
+        if (words.isEmpty()) {
+            return 0;
+        }
+        String title = test.getTitle().toLowerCase();
+        String description = test.getDescription() != null ? test.getDescription().toLowerCase() : "";
+        float rank = 0;
+        for (String word : words) {
+            if (title.contains(word)) {
+                rank += 1.0f;
+            } else if (description.contains(word)) {
+                rank += 0.4f;
+            } else {
+                return 0;
+            }
+        }
+        return rank / words.size();
+    }
+
+    private Integer parseIdCursor(String cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private record RankedTest(Test test, float rank) {}
+
     @Override
     public void delete(Integer id) {
         tests.remove(id);
@@ -0,0 +1,120 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.model.Question;
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestStats;
+import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.domain.repository.TestAttemptRepository;
+import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public class InMemoryTestStatsRepository implements TestStatsRepository {
+    private final Map<Integer, TestStats> stats = new HashMap<>();
+    private final TestRepository testRepository;
+    private final QuestionRepository questionRepository;
+    private final TestAttemptRepository attemptRepository;
+    private ZonedDateTime rebuiltAt;
+
+    public InMemoryTestStatsRepository(
+        TestRepository testRepository,
+        QuestionRepository questionRepository,
+        TestAttemptRepository attemptRepository
+    ) {
+        this.testRepository = testRepository;
+        this.questionRepository = questionRepository;
+        this.attemptRepository = attemptRepository;
+    }
+
+    @Override
+    public Optional<TestStats> findByTestId(Integer testId) {
+        return Optional.ofNullable(stats.get(testId));
+    }
+
+    @Override
+    public void recordAttemptFinished(Integer testId, ZonedDateTime startTime, int score, boolean passed) {
+        TestStats s = stats.getOrDefault(testId, TestStats.empty(testId));
+        boolean counted = rebuiltAt != null && !startTime.isAfter(rebuiltAt);
+        stats.put(testId, new TestStats(
+            testId, s.attemptCount() + (counted ? 0 : 1), s.completedCount() + 1, s.scoredCount() + 1,
+            s.scoreSum() + score, s.scoreSumSquares() + (long) score * score,
+            s.minScore() == null ? score : Math.min(s.minScore(), score),
+            s.maxScore() == null ? score : Math.max(s.maxScore(), score),
+            s.passCount() + (passed ? 1 : 0), s.maxPossibleScore()
+        ));
+    }
+
+    @Override
+    public void refreshMaxPossibleScore(Integer testId) {
+        TestStats s = stats.getOrDefault(testId, TestStats.empty(testId));
+        stats.put(testId, new TestStats(
+            testId, s.attemptCount(), s.completedCount(), s.scoredCount(), s.scoreSum(),
+            s.scoreSumSquares(), s.minScore(), s.maxScore(), s.passCount(), maxPossibleScore(testId)
+        ));
+    }
+
+    @Override
+    public int rebuild() {
+        stats.clear();
+        rebuiltAt = ZonedDateTime.now();
+        testRepository.findAll().forEach(test -> stats.put(test.getId(), compute(test.getId())));
+        return stats.size();
+    }
+
+    private TestStats compute(Integer testId) {
+        int maxPossibleScore = maxPossibleScore(testId);
+        Accumulator totals = new Accumulator(TestStats.passThreshold(maxPossibleScore));
+        attemptRepository.findByTestId(testId).forEach(totals);
+        return new TestStats(testId, totals.attempts, totals.completed, totals.scored, totals.scoreSum,
+                totals.scoreSumSquares, totals.min, totals.max, totals.passed, maxPossibleScore);
+    }
+
+    private int maxPossibleScore(Integer testId) {
+        return questionRepository.findByTestId(testId).stream()
+                .map(Question::getMaxPoints)
+                .mapToInt(points -> points != null ? points : 0)
+                .sum();
+    }
+
+    private static final class Accumulator implements Consumer<TestAttempt> {
+        private final int passThreshold;
+        private long attempts;
+        private long completed;
+        private long scored;
+        private long scoreSum;
+        private long scoreSumSquares;
+        private long passed;
+        private Integer min;
+        private Integer max;
+
+        Accumulator(int passThreshold) {
+            this.passThreshold = passThreshold;
+        }
+
+        @Override
+        public void accept(TestAttempt attempt) {
+            attempts++;
+            if (attempt.getEndTime() == null) {
+                return;
+            }
+            completed++;
+            Integer score = attempt.getScore();
+            if (score == null) {
+                return;
+            }
+            scored++;
+            scoreSum += score;
+            scoreSumSquares += (long) score * score;
+            min = min == null ? score : Math.min(min, score);
+            max = max == null ? score : Math.max(max, score);
+            if (score >= passThreshold) {
+                passed++;
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.john_g1t.infrastructure.repository.inmemory;
+
+import com.github.john_g1t.domain.repository.UnitOfWork;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+public class InMemoryUnitOfWork implements UnitOfWork {
+    // The in-memory maps have no transactions, so units of work simply run one at a time
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        lock.lock();
+        try {
+            return work.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T readOnly(Supplier<T> work) {
+        return work.get();
+    }
+
+    // Map lookups do no I/O, so there is nothing to overlap
+    @Override
+    public <T> CompletableFuture<T> async(Supplier<T> work) {
+        try {
+            return CompletableFuture.completedFuture(work.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.github.john_g1t.infrastructure.repository.inmemory;
 import com.github.john_g1t.domain.model.UserAnswer;
 import com.github.john_g1t.domain.repository.UserAnswerRepository;
 
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,6 +14,8 @@ import java.util.stream.Collectors;
 public class InMemoryUserAnswerRepository implements UserAnswerRepository {
     private final Map<Integer, UserAnswer> answers = new HashMap<>();
     private int currentId = 1;
+    // Id of the answer stored for each (attempt id, question id)
+    private final Map<List<Integer>, Integer> idsByQuestion = new HashMap<>();
 
     @Override
     public Integer save(UserAnswer answer) {
@@ -19,9 +23,28 @@ public class InMemoryUserAnswerRepository implements UserAnswerRepository {
             answer.setId(currentId++);
         }
         answers.put(answer.getId(), answer);
+        idsByQuestion.put(List.of(answer.getAttemptId(), answer.getQuestionId()), answer.getId());
         return answer.getId();
     }
 
+    @Override
+    public Integer upsert(UserAnswer answer, ZonedDateTime attemptStart) {
+        Integer existing = idsByQuestion.get(List.of(answer.getAttemptId(), answer.getQuestionId()));
+        if (existing != null) {
+            answer.setId(existing);
+        }
+        return save(answer);
+    }
+
+    @Override
+    public List<Integer> upsertAll(List<UserAnswer> answers, ZonedDateTime attemptStart) {
+        List<Integer> ids = new ArrayList<>(answers.size());
+        for (UserAnswer answer : answers) {
+            ids.add(upsert(answer, attemptStart));
+        }
+        return ids;
+    }
+
     @Override
     public Optional<UserAnswer> findById(Integer id) {
         return Optional.ofNullable(answers.get(id));
@@ -36,6 +59,9 @@ public class InMemoryUserAnswerRepository implements UserAnswerRepository {
 
     @Override
     public void delete(Integer id) {
-        answers.remove(id);
+        UserAnswer removed = answers.remove(id);
+        if (removed != null) {
+            idsByQuestion.remove(List.of(removed.getAttemptId(), removed.getQuestionId()), id);
+        }
     }
 }
@@ -1,12 +1,16 @@
 package com.github.john_g1t.infrastructure.repository.inmemory;
 
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.repository.UserRepository;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class InMemoryUserRepository implements UserRepository {
     private final Map<Integer, User> usersById = new HashMap<>();
@@ -40,6 +44,48 @@ public class InMemoryUserRepository implements UserRepository {
         return new ArrayList<>(usersById.values());
     }
 
+
+    @Override
+    public Page<UserSummary> search(String term, String cursor, int limit) {
+        String needle = term != null ? term.toLowerCase() : null;
+        Integer afterId;
+        try {
+            afterId = cursor != null ? Integer.valueOf(cursor) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        List<UserSummary> matches = usersById.values().stream()
+                .filter(user -> afterId == null || user.getId() > afterId)
+                .filter(user -> needle == null || contains(user.getEmail(), needle) ||
+                        contains(user.getFirstName(), needle) || contains(user.getLastName(), needle))
+                .sorted(Comparator.comparing(User::getId))
+                .limit(limit + 1L)
+                .map(user -> new UserSummary(user.getId(), user.getEmail(), user.getFirstName(), user.getLastName()))
+                .collect(Collectors.toList());
+
+        if (matches.size() > limit) {
+            List<UserSummary> page = new ArrayList<>(matches.subList(0, limit));
+            return new Page<>(page, page.get(page.size() - 1).id().toString());
+        }
+        return new Page<>(matches, null);
+    }
+
+    private boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase().contains(needle);
+    }
+
+    @Override
+    public long count() {
+        return usersById.size();
+    }
+
+    // Nothing to estimate from; the exact size is already free
+    @Override
+    public long estimateCount() {
+        return count();
+    }
+
     @Override
     public boolean existsByEmail(String email) {
         return usersByEmail.containsKey(email);
@@ -0,0 +1,152 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Builds answer detail pages from answer rows read apart from the questions, either on
+ * another database or out of an archive segment. Question texts and option scores for
+ * the page come from one batched lookup each.
+ */
+public final class AnswerDetailAssembler {
+    private static final String FIND_ARCHIVE_SEGMENT = "SELECT segment FROM archived_attempts WHERE id = ?";
+    private static final String FIND_QUESTIONS = "SELECT q.id, q.text, q.max_points, best.option_text " +
+            "FROM questions q " +
+            "LEFT JOIN LATERAL (SELECT o.option_text FROM answer_options o WHERE o.question_id = q.id " +
+            "ORDER BY COALESCE(o.score, 0) DESC, o.id LIMIT 1) best ON true " +
+            "WHERE q.id = ANY(?)";
+    private static final String FIND_OPTION_SCORES = "SELECT id, COALESCE(score, 0) AS score FROM answer_options WHERE id = ANY(?)";
+
+    public record Row(int id, int questionId, Integer answerId, String answerText) {
+    }
+
+    private record Question(String text, Integer maxPoints, String bestOption) {
+    }
+
+    private AnswerDetailAssembler() {
+    }
+
+    /**
+     * Rows of an archived attempt for the questions after afterQuestionId, at most
+     * questionLimit questions of them. Empty when the attempt is not archived.
+     */
+    public static Optional<List<Row>> findArchived(Connection connection, SegmentStore segmentStore, int attemptId,
+                                                   int afterQuestionId, int questionLimit) throws SQLException {
+        long segment;
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_ARCHIVE_SEGMENT)) {
+            stmt.setInt(1, attemptId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+            segment = rs.getLong(1);
+        }
+
+        List<ArchivedAttempt.Answer> answers = segmentStore.read(segment, attemptId)
+                .map(ArchivedAttempt::answers)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Archived attempt " + attemptId + " is missing from segment " + segment));
+        List<Row> rows = new ArrayList<>();
+        Set<Integer> questions = new LinkedHashSet<>();
+        answers.stream()
+                .filter(answer -> answer.questionId() > afterQuestionId)
+                .sorted(Comparator.comparingInt(ArchivedAttempt.Answer::questionId)
+                        .thenComparingInt(ArchivedAttempt.Answer::id))
+                .forEach(answer -> {
+                    if (questions.contains(answer.questionId()) || questions.size() < questionLimit) {
+                        questions.add(answer.questionId());
+                        rows.add(new Row(answer.id(), answer.questionId(), answer.answerId(), answer.answerText()));
+                    }
+                });
+        return Optional.of(rows);
+    }
+
+    /**
+     * Pages rows ordered by question, looking their questions and options up through the
+     * given connection. Rows beyond questionLimit questions only mark that a page follows.
+     */
+    public static Page<AnswerDetail> assemble(Connection connection, List<Row> rows, int questionLimit) throws SQLException {
+        Set<Integer> questionIds = new LinkedHashSet<>();
+        Set<Integer> optionIds = new LinkedHashSet<>();
+        for (Row row : rows) {
+            questionIds.add(row.questionId());
+            if (row.answerId() != null) {
+                optionIds.add(row.answerId());
+            }
+        }
+        Map<Integer, Question> questions = new HashMap<>();
+        Map<Integer, Integer> scores = new HashMap<>();
+        if (!rows.isEmpty()) {
+            findQuestions(connection, questionIds, questions);
+            findOptionScores(connection, optionIds, scores);
+        }
+
+        List<AnswerDetail> answers = new ArrayList<>();
+        int pageQuestions = 0;
+        Integer lastQuestionId = null;
+        for (Row row : rows) {
+            if (!Integer.valueOf(row.questionId()).equals(lastQuestionId)) {
+                if (pageQuestions == questionLimit) {
+                    return new Page<>(answers, lastQuestionId.toString());
+                }
+                pageQuestions++;
+                lastQuestionId = row.questionId();
+            }
+            Question question = questions.get(row.questionId());
+            answers.add(new AnswerDetail(
+                    row.id(),
+                    row.questionId(),
+                    question != null ? question.text() : null,
+                    question != null ? question.maxPoints() : null,
+                    row.answerId(),
+                    row.answerText(),
+                    row.answerId() != null ? scores.getOrDefault(row.answerId(), 0) : 0,
+                    question != null && row.answerId() != null ? question.bestOption() : null
+            ));
+        }
+        return new Page<>(answers, null);
+    }
+
+    private static void findQuestions(Connection connection, Set<Integer> ids, Map<Integer, Question> questions)
+            throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_QUESTIONS)) {
+            stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                questions.put(rs.getInt("id"), new Question(
+                        rs.getString("text"),
+                        rs.getObject("max_points", Integer.class),
+                        rs.getString("option_text")));
+            }
+        }
+    }
+
+    private static void findOptionScores(Connection connection, Set<Integer> ids, Map<Integer, Integer> scores)
+            throws SQLException {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_OPTION_SCORES)) {
+            stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                scores.put(rs.getInt("id"), rs.getInt("score"));
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished attempts older than the retention window out of test_attempts and
+ * user_answers, BATCH_SIZE at a time. Each batch becomes one segment file; the attempts
+ * are then replaced by archived_attempts summary rows in the same transaction. The
+ * segment is written before that transaction commits, so a failed batch leaves at most
+ * an unreferenced segment behind, never a summary without its data.
+ */
+public class AttemptArchiver implements AutoCloseable {
+    private static final int BATCH_SIZE = 1000;
+    private static final String LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+    // SKIP LOCKED lets several instances archive side by side without waiting on each other
+    private static final String SELECT_BATCH = "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number " +
+            "FROM test_attempts WHERE end_time < ? AND start_time < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+    private static final String SELECT_ANSWERS = "SELECT id, attempt_id, question_id, answer_id, answer_text " +
+            "FROM user_answers WHERE attempt_id = ANY(?) AND attempt_start < ? ORDER BY attempt_id, id";
+    private static final String NEXT_SEGMENT = "SELECT nextval('archive_segment_seq')";
+    // Deleting the attempts cascades to their answers
+    private static final String MOVE_TO_SUMMARIES = "WITH moved AS (" +
+            "DELETE FROM test_attempts WHERE id = ANY(?) AND start_time < ? " +
+            "RETURNING id, user_id, test_id, start_time, end_time, score, attempt_number) " +
+            "INSERT INTO archived_attempts (id, user_id, test_id, start_time, end_time, score, attempt_number, segment) " +
+            "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number, ? FROM moved";
+
+    private final ConnectionFactory connectionFactory;
+    private final SegmentStore segmentStore;
+    private final Duration retention;
+    private ScheduledExecutorService scheduler;
+
+    public AttemptArchiver(ConnectionFactory connectionFactory, SegmentStore segmentStore, Duration retention) {
+        this.connectionFactory = connectionFactory;
+        this.segmentStore = segmentStore;
+        this.retention = retention;
+    }
+
+    // Returns the number of attempts archived
+    public int archive() {
+        ZonedDateTime cutoff = ZonedDateTime.now().minus(retention);
+        int total = 0;
+        int archived;
+        do {
+            archived = archiveBatch(cutoff.toOffsetDateTime());
+            total += archived;
+        } while (archived == BATCH_SIZE);
+        return total;
+    }
+
+    private int archiveBatch(OffsetDateTime cutoff) {
+        try (Connection connection = connectionFactory.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(LOCK_TIMEOUT);
+                }
+                Map<Integer, ArchivedAttempt> attempts = selectBatch(connection, cutoff);
+                if (attempts.isEmpty()) {
+                    connection.commit();
+                    return 0;
+                }
+                Array ids = connection.createArrayOf("integer", attempts.keySet().toArray());
+                Map<Integer, List<ArchivedAttempt.Answer>> answers = selectAnswers(connection, ids, cutoff);
+
+                List<ArchivedAttempt> records = new ArrayList<>(attempts.size());
+                for (ArchivedAttempt attempt : attempts.values()) {
+                    records.add(new ArchivedAttempt(attempt.id(), attempt.userId(), attempt.testId(),
+                            attempt.startTime(), attempt.endTime(), attempt.score(), attempt.attemptNumber(),
+                            answers.getOrDefault(attempt.id(), List.of())));
+                }
+                long segment = nextSegment(connection);
+                segmentStore.write(segment, records);
+
+                try (PreparedStatement stmt = connection.prepareStatement(MOVE_TO_SUMMARIES)) {
+                    stmt.setArray(1, ids);
+                    stmt.setObject(2, cutoff);
+                    stmt.setLong(3, segment);
+                    stmt.executeUpdate();
+                }
+                connection.commit();
+                return records.size();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error archiving finished test attempts", e);
+        }
+    }
+
+    private Map<Integer, ArchivedAttempt> selectBatch(Connection connection, OffsetDateTime cutoff) throws SQLException {
+        Map<Integer, ArchivedAttempt> attempts = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_BATCH)) {
+            stmt.setObject(1, cutoff);
+            stmt.setObject(2, cutoff);
+            stmt.setInt(3, BATCH_SIZE);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                int id = rs.getInt("id");
+                attempts.put(id, new ArchivedAttempt(
+                        id,
+                        rs.getInt("user_id"),
+                        rs.getInt("test_id"),
+                        rs.getObject("start_time", OffsetDateTime.class),
+                        rs.getObject("end_time", OffsetDateTime.class),
+                        rs.getObject("score", Integer.class),
+                        rs.getObject("attempt_number", Integer.class),
+                        List.of()));
+            }
+        }
+        return attempts;
+    }
+
+    private Map<Integer, List<ArchivedAttempt.Answer>> selectAnswers(Connection connection, Array ids,
+                                                                     OffsetDateTime cutoff) throws SQLException {
+        Map<Integer, List<ArchivedAttempt.Answer>> answers = new LinkedHashMap<>();
+        try (PreparedStatement stmt = connection.prepareStatement(SELECT_ANSWERS)) {
+            stmt.setArray(1, ids);
+            stmt.setObject(2, cutoff);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                answers.computeIfAbsent(rs.getInt("attempt_id"), id -> new ArrayList<>())
+                        .add(new ArchivedAttempt.Answer(
+                                rs.getInt("id"),
+                                rs.getInt("question_id"),
+                                rs.getObject("answer_id", Integer.class),
+                                rs.getString("answer_text")));
+            }
+        }
+        return answers;
+    }
+
+    private long nextSegment(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(NEXT_SEGMENT)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Runs now and then once a day on a background thread
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attempt-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, 1, TimeUnit.DAYS);
+    }
+
+    private void runQuietly() {
+        try {
+            int archived = archive();
+            if (archived > 0) {
+                System.out.println("Archived " + archived + " finished test attempts");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Attempt archiving failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
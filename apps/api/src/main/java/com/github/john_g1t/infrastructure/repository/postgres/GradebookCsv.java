@@ -0,0 +1,101 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes gradebook rows that cannot come out of one COPY, such as answers read back from
+ * archive segments or rows joined across databases, in the same format COPY produces.
+ * Timestamps are taken as the text Postgres prints for them, so they match too.
+ */
+public final class GradebookCsv {
+    private static final String HEADER = "attempt_id,user_id,email,first_name,last_name," +
+            "attempt_number,start_time,end_time,score,question_id,answer_id,answer_text";
+
+    public record Attempt(int id, int userId, Integer attemptNumber, String startTime, String endTime,
+                          Integer score) {
+    }
+
+    public record User(int id, String email, String firstName, String lastName) {
+    }
+
+    private final Writer writer;
+
+    // Not closed: the caller owns the stream
+    public GradebookCsv(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    public void writeHeader() {
+        write(HEADER);
+        write("\n");
+    }
+
+    public void writeRow(Attempt attempt, User user, Integer questionId, Integer answerId, String answerText) {
+        write(String.join(",",
+                field(attempt.id()),
+                field(user.id()),
+                field(user.email()),
+                field(user.firstName()),
+                field(user.lastName()),
+                field(attempt.attemptNumber()),
+                field(attempt.startTime()),
+                field(attempt.endTime()),
+                field(attempt.score()),
+                field(questionId),
+                field(answerId),
+                field(answerText)
+        ));
+        write("\n");
+    }
+
+    // One row per answer in question order, or a single row without one, as the LEFT JOIN gives
+    public void writeArchived(Attempt attempt, User user, List<ArchivedAttempt.Answer> answers) {
+        if (answers.isEmpty()) {
+            writeRow(attempt, user, null, null, null);
+            return;
+        }
+        answers.stream()
+                .sorted(Comparator.comparingInt(ArchivedAttempt.Answer::questionId)
+                        .thenComparingInt(ArchivedAttempt.Answer::id))
+                .forEach(answer -> writeRow(attempt, user, answer.questionId(), answer.answerId(),
+                        answer.answerText()));
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(String text) {
+        try {
+            writer.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quotes only when needed, the same way COPY ... WITH (FORMAT csv) does
+    private static String field(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.isEmpty() || text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
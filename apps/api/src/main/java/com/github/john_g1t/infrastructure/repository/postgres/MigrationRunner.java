@@ -0,0 +1,266 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned scripts under db/migration in order, once each, and records a
+ * checksum so an edited script that already ran is caught at startup instead of drifting.
+ *
+ * A script whose first line is "-- no-transaction" runs statement by statement in
+ * autocommit mode, which CREATE INDEX CONCURRENTLY requires. Everything else runs in a
+ * single transaction together with its schema_migrations row.
+ */
+public class MigrationRunner {
+    private static final String LOCATION = "db/migration/";
+    private static final List<String> SCRIPTS = List.of(
+            "V1__repository_indexes.sql",
+            "V2__catalog_keyset_index.sql",
+            "V3__tests_search_vector.sql",
+            "V4__tests_search_index.sql",
+            "V5__users_trigram_indexes.sql",
+            "V6__attempt_count_indexes.sql",
+            "V7__test_stats_rollup.sql",
+            "V8__user_answers_question_keyset.sql",
+            "V9__renumber_duplicate_attempts.sql",
+            "V10__attempt_number_unique.sql",
+            "V11__user_answers_one_per_question.sql",
+            "V12__partition_attempts_by_month.sql",
+            "V13__archived_attempts.sql",
+            "V14__test_stats_rebuilt_at.sql"
+    );
+    // Applied after SCRIPTS on attempt shards only, numbered apart from the shared scripts
+    private static final List<String> SHARD_SCRIPTS = List.of(
+            "V1000__shard_reference_keys.sql"
+    );
+    private static final String NO_TRANSACTION = "-- no-transaction";
+    // Arbitrary key shared by every instance, so only one of them migrates at a time
+    private static final long LOCK_KEY = 7_311_002_417L;
+    private static final Pattern SCRIPT_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CONCURRENT_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+CONCURRENTLY\\s+IF\\s+NOT\\s+EXISTS\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final String CREATE_HISTORY = "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version integer PRIMARY KEY, description text NOT NULL, checksum text NOT NULL, " +
+            "applied_at timestamptz NOT NULL DEFAULT now(), execution_ms bigint NOT NULL)";
+    private static final String FIND_APPLIED = "SELECT version, checksum FROM schema_migrations";
+    private static final String INSERT_APPLIED = "INSERT INTO schema_migrations (version, description, checksum, execution_ms) " +
+            "VALUES (?, ?, ?, ?)";
+    private static final String LOCK = "SELECT pg_advisory_lock(?)";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(?)";
+    private static final String IS_INVALID_INDEX = "SELECT NOT i.indisvalid FROM pg_index i " +
+            "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?";
+
+    private final ConnectionFactory connectionFactory;
+    private final List<String> scripts;
+
+    public MigrationRunner(ConnectionFactory connectionFactory) {
+        this(connectionFactory, SCRIPTS);
+    }
+
+    private MigrationRunner(ConnectionFactory connectionFactory, List<String> scripts) {
+        this.connectionFactory = connectionFactory;
+        this.scripts = scripts;
+    }
+
+    public static MigrationRunner forShard(ConnectionFactory connectionFactory) {
+        List<String> scripts = new ArrayList<>(SCRIPTS);
+        scripts.addAll(SHARD_SCRIPTS);
+        return new MigrationRunner(connectionFactory, scripts);
+    }
+
+    public void migrate() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            advisoryLock(connection, LOCK);
+            try {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(CREATE_HISTORY);
+                }
+                Map<Integer, String> applied = findApplied(connection);
+                for (String script : scripts) {
+                    apply(connection, script, applied);
+                }
+            } finally {
+                advisoryLock(connection, UNLOCK);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error migrating database schema", e);
+        }
+    }
+
+    private void apply(Connection connection, String script, Map<Integer, String> applied) throws SQLException {
+        Matcher name = SCRIPT_NAME.matcher(script);
+        if (!name.matches()) {
+            throw new IllegalStateException("Migration script name must look like V1__description.sql: " + script);
+        }
+        int version = Integer.parseInt(name.group(1));
+        String description = name.group(2).replace('_', ' ');
+        String sql = load(script);
+        String checksum = checksum(sql);
+
+        String appliedChecksum = applied.get(version);
+        if (appliedChecksum != null) {
+            if (!appliedChecksum.equals(checksum)) {
+                throw new IllegalStateException("Migration " + script + " was modified after it was applied");
+            }
+            return;
+        }
+
+        System.out.println("Applying migration " + script);
+        long started = System.currentTimeMillis();
+        if (sql.startsWith(NO_TRANSACTION)) {
+            dropInvalidIndexes(connection, sql);
+            for (String statement : splitStatements(sql)) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(statement);
+                }
+            }
+            record(connection, version, description, checksum, System.currentTimeMillis() - started);
+        } else {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(sql);
+                }
+                record(connection, version, description, checksum, System.currentTimeMillis() - started);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    // A failed concurrent build leaves an invalid index behind, which IF NOT EXISTS would then skip
+    private void dropInvalidIndexes(Connection connection, String sql) throws SQLException {
+        Matcher index = CONCURRENT_INDEX.matcher(sql);
+        while (index.find()) {
+            String indexName = index.group(1);
+            try (PreparedStatement stmt = connection.prepareStatement(IS_INVALID_INDEX)) {
+                stmt.setString(1, indexName);
+                ResultSet rs = stmt.executeQuery();
+                if (!rs.next() || !rs.getBoolean(1)) {
+                    continue;
+                }
+            }
+            System.out.println("Dropping invalid index " + indexName + " left by an interrupted migration");
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("DROP INDEX CONCURRENTLY IF EXISTS " + indexName);
+            }
+        }
+    }
+
+    private Map<Integer, String> findApplied(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(FIND_APPLIED)) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection connection, int version, String description, String checksum,
+                        long executionMs) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(INSERT_APPLIED)) {
+            stmt.setInt(1, version);
+            stmt.setString(2, description);
+            stmt.setString(3, checksum);
+            stmt.setLong(4, executionMs);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void advisoryLock(Connection connection, String lockSql) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(lockSql)) {
+            stmt.setLong(1, LOCK_KEY);
+            stmt.executeQuery().close();
+        }
+    }
+
+    private String load(String script) {
+        try (InputStream in = MigrationRunner.class.getClassLoader().getResourceAsStream(LOCATION + script)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found on classpath: " + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading migration script " + script, e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // Splits on semicolons outside quotes, comments and dollar-quoted bodies
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean hasCode = false;
+        int i = 0;
+        while (i < sql.length()) {
+            char c = sql.charAt(i);
+            int end = i + 1;
+            if (c == '-' && sql.startsWith("--", i)) {
+                int newline = sql.indexOf('\n', i);
+                end = newline == -1 ? sql.length() : newline;
+            } else if (c == '/' && sql.startsWith("/*", i)) {
+                int close = sql.indexOf("*/", i + 2);
+                end = close == -1 ? sql.length() : close + 2;
+            } else if (c == '\'' || c == '"') {
+                int close = sql.indexOf(c, i + 1);
+                end = close == -1 ? sql.length() : close + 1;
+                hasCode = true;
+            } else if (c == '$' && sql.indexOf('$', i + 1) != -1
+                    && sql.substring(i + 1, sql.indexOf('$', i + 1)).matches("\\w*")) {
+                String tag = sql.substring(i, sql.indexOf('$', i + 1) + 1);
+                int close = sql.indexOf(tag, i + tag.length());
+                end = close == -1 ? sql.length() : close + tag.length();
+                hasCode = true;
+            } else if (c == ';') {
+                if (hasCode) {
+                    statements.add(current.toString().trim());
+                }
+                current.setLength(0);
+                hasCode = false;
+                i++;
+                continue;
+            } else if (!Character.isWhitespace(c)) {
+                hasCode = true;
+            }
+            current.append(sql, i, end);
+            i = end;
+        }
+        if (hasCode) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps monthly partitions of test_attempts and user_answers created ahead of time, so new
+ * rows never fall into the default partition. Partition creation briefly locks the parent
+ * table, hence the lock timeout; a month that could not be created is retried next run.
+ */
+public class PartitionMaintainer implements AutoCloseable {
+    private static final int MONTHS_AHEAD = 3;
+    private static final String LOCK_TIMEOUT = "SET LOCAL lock_timeout = '5s'";
+    private static final String ENSURE_PARTITIONS = "SELECT public.ensure_attempt_partitions(?)";
+
+    private final ConnectionFactory connectionFactory;
+    private ScheduledExecutorService scheduler;
+
+    public PartitionMaintainer(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    // Returns the number of partitions created
+    public int ensurePartitions() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(LOCK_TIMEOUT);
+                }
+                int created;
+                try (PreparedStatement stmt = connection.prepareStatement(ENSURE_PARTITIONS)) {
+                    stmt.setInt(1, MONTHS_AHEAD);
+                    ResultSet rs = stmt.executeQuery();
+                    created = rs.next() ? rs.getInt(1) : 0;
+                }
+                connection.commit();
+                return created;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error creating upcoming partitions", e);
+        }
+    }
+
+    // Runs now and then once a day on a background thread
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "partition-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runQuietly, 0, 1, TimeUnit.DAYS);
+    }
+
+    private void runQuietly() {
+        try {
+            int created = ensurePartitions();
+            if (created > 0) {
+                System.out.println("Created " + created + " upcoming partitions");
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Partition maintenance failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+import com.github.john_g1t.domain.repository.AnswerDetailRepository;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class PostgresAnswerDetailRepository implements AnswerDetailRepository {
+    // The page is chosen by question first, so every answer to a question lands on the same page.
+    // The start time from the attempt's key confines the answers to its partition.
+    private static final String FIND_BY_ATTEMPT_ID = "WITH attempt AS (SELECT start_time FROM test_attempt_keys WHERE id = ?), " +
+            "page AS (SELECT DISTINCT question_id FROM user_answers " +
+            "WHERE attempt_id = ? AND attempt_start = (SELECT start_time FROM attempt) " +
+            "AND question_id > ? ORDER BY question_id LIMIT ?) " +
+            "SELECT ua.id, ua.question_id, q.text AS question_text, q.max_points, ua.answer_id, ua.answer_text, " +
+            "COALESCE(chosen.score, 0) AS score_earned, best.option_text AS correct_answer_text " +
+            "FROM page p " +
+            "JOIN user_answers ua ON ua.attempt_id = ? AND ua.attempt_start = (SELECT start_time FROM attempt) " +
+            "AND ua.question_id = p.question_id " +
+            "LEFT JOIN questions q ON q.id = ua.question_id " +
+            "LEFT JOIN answer_options chosen ON chosen.id = ua.answer_id " +
+            "LEFT JOIN LATERAL (SELECT o.option_text FROM answer_options o WHERE o.question_id = ua.question_id " +
+            "ORDER BY COALESCE(o.score, 0) DESC, o.id LIMIT 1) best ON ua.answer_id IS NOT NULL " +
+            "ORDER BY ua.question_id, ua.id";
+
+    private final ConnectionFactory connectionFactory;
+    private final SegmentStore segmentStore;
+
+    public PostgresAnswerDetailRepository(ConnectionFactory connectionFactory, SegmentStore segmentStore) {
+        this.connectionFactory = connectionFactory;
+        this.segmentStore = segmentStore;
+    }
+
+    @Override
+    public Page<AnswerDetail> findByAttemptId(Integer attemptId, String cursor, int questionLimit) {
+        List<AnswerDetail> answers = new ArrayList<>();
+        int afterQuestionId = parseCursor(cursor);
+        try (Connection connection = connectionFactory.getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ATTEMPT_ID)) {
+                stmt.setInt(1, attemptId);
+                stmt.setInt(2, attemptId);
+                stmt.setInt(3, afterQuestionId);
+                // One extra question tells whether another page follows
+                stmt.setInt(4, questionLimit + 1);
+                stmt.setInt(5, attemptId);
+
+                ResultSet rs = stmt.executeQuery();
+                int questions = 0;
+                Integer lastQuestionId = null;
+                while (rs.next()) {
+                    AnswerDetail answer = mapResultSetToAnswerDetail(rs);
+                    if (!answer.questionId().equals(lastQuestionId)) {
+                        if (questions == questionLimit) {
+                            return new Page<>(answers, lastQuestionId.toString());
+                        }
+                        questions++;
+                        lastQuestionId = answer.questionId();
+                    }
+                    answers.add(answer);
+                }
+            }
+            if (!answers.isEmpty()) {
+                return new Page<>(answers, null);
+            }
+            // The answers of an archived attempt only exist in its segment file
+            Optional<List<AnswerDetailAssembler.Row>> archived = AnswerDetailAssembler.findArchived(
+                    connection, segmentStore, attemptId, afterQuestionId, questionLimit + 1);
+            if (archived.isEmpty()) {
+                return new Page<>(answers, null);
+            }
+            return AnswerDetailAssembler.assemble(connection, archived.get(), questionLimit);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding answer details by attempt id", e);
+        }
+    }
+
+    private int parseCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private AnswerDetail mapResultSetToAnswerDetail(ResultSet rs) throws SQLException {
+        return new AnswerDetail(
+                rs.getInt("id"),
+                rs.getInt("question_id"),
+                rs.getString("question_text"),
+                rs.getObject("max_points", Integer.class),
+                rs.getObject("answer_id", Integer.class),
+                rs.getString("answer_text"),
+                rs.getInt("score_earned"),
+                rs.getString("correct_answer_text")
+        );
+    }
+}
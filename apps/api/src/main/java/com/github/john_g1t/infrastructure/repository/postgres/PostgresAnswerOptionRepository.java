@@ -2,6 +2,7 @@ package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.AnswerOption;
 import com.github.john_g1t.domain.repository.AnswerOptionRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -18,10 +19,10 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
     private static final String FIND_BY_ID = "SELECT id, question_id, option_text, score FROM answer_options WHERE id = ?";
     private static final String FIND_BY_QUESTION_ID = "SELECT id, question_id, option_text, score FROM answer_options WHERE question_id = ?";
     private static final String DELETE = "DELETE FROM answer_options WHERE id = ?";
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
 
-    public PostgresAnswerOptionRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresAnswerOptionRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
     @Override
@@ -35,7 +36,8 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
     }
 
     private Integer insert(AnswerOption answerOption) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
             stmt.setInt(1, answerOption.getQuestionId());
             stmt.setString(2, answerOption.getOptionText());
             stmt.setInt(3, answerOption.getScore());
@@ -53,7 +55,8 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
     }
 
     private void update(AnswerOption answerOption) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
             stmt.setInt(1, answerOption.getQuestionId());
             stmt.setString(2, answerOption.getOptionText());
             stmt.setInt(3, answerOption.getScore());
@@ -66,7 +69,8 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
 
     @Override
     public Optional<AnswerOption> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -81,7 +85,8 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
     @Override
     public List<AnswerOption> findByQuestionId(Integer questionId) {
         List<AnswerOption> options = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_QUESTION_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_QUESTION_ID)) {
             stmt.setInt(1, questionId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -95,7 +100,8 @@ public class PostgresAnswerOptionRepository implements AnswerOptionRepository {
 
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
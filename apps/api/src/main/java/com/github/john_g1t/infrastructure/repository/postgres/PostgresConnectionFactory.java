@@ -1,56 +1,60 @@
 package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
-import com.github.john_g1t.infrastructure.repository.DatabaseConnectionException;
+import com.github.john_g1t.infrastructure.repository.ConnectionPool;
+import com.github.john_g1t.infrastructure.repository.ConnectionPoolConfig;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.SQLException;
 
 public class PostgresConnectionFactory implements ConnectionFactory {
     private final String url;
     private final String username;
     private final String password;
-    private Connection connection;
+    private final ConnectionPool pool;
 
     public PostgresConnectionFactory(String host, String port, String name, String user, String password) {
-        this.url = String.format("jdbc:postgresql://%s:%s/%s", host, port, name);
-        this.username = user;
-        this.password = password;
+        this(String.format("jdbc:postgresql://%s:%s/%s", host, port, name), user, password);
         System.out.println("JDBC URL = " + this.url);
         System.out.println("User = " + username);
     }
 
     public PostgresConnectionFactory(String jdbcUrl, String username, String password) {
+        this(jdbcUrl, username, password, ConnectionPoolConfig.fromEnvironment());
+    }
+
+    public PostgresConnectionFactory(String jdbcUrl, String username, String password, ConnectionPoolConfig poolConfig) {
         this.url = jdbcUrl;
         this.username = username;
         this.password = password;
+        loadDriver();
+        this.pool = new ConnectionPool(
+                () -> DriverManager.getConnection(this.url, this.username, this.password),
+                poolConfig
+        );
     }
 
-    public Connection getConnection() {
+    private static void loadDriver() {
         try {
             Class.forName("org.postgresql.Driver");
             System.out.println("PostgreSQL driver found");
         } catch (ClassNotFoundException e) {
             System.err.println("PostgreSQL driver NOT found");
         }
-        try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(url, username, password);
-            }
-            return connection;
-        } catch (SQLException e) {
-            throw new DatabaseConnectionException("Failed to obtain PostgreSQL connection", e);
-        }
+    }
+
+    /**
+     * Leases a pooled connection. Callers must close it to hand it back.
+     */
+    public Connection getConnection() {
+        return pool.borrow();
     }
 
     public void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                throw new RuntimeException("Error closing database connection", e);
-            }
-        }
+        pool.close();
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
     }
 }
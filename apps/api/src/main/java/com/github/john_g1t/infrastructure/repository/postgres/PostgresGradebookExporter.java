@@ -0,0 +1,113 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.repository.GradebookExporter;
+import com.github.john_g1t.domain.repository.UnitOfWork;
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Live attempts come straight out of COPY. Archived ones follow, streamed through a cursor
+ * with their answers read back from the segment files one attempt at a time. Both parts
+ * read one snapshot, so an attempt archived meanwhile is exported exactly once.
+ */
+public class PostgresGradebookExporter implements GradebookExporter {
+    private static final String SNAPSHOT = "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ";
+    // COPY takes no bind parameters, so the test id is formatted in as an integer
+    private static final String EXPORT_TEST_RESULTS = "COPY (" +
+            "SELECT a.id AS attempt_id, u.id AS user_id, u.email, u.first_name, u.last_name, " +
+            "a.attempt_number, a.start_time, a.end_time, a.score, " +
+            "ua.question_id, ua.answer_id, ua.answer_text " +
+            "FROM test_attempts a " +
+            "JOIN users u ON u.id = a.user_id " +
+            "LEFT JOIN user_answers ua ON ua.attempt_id = a.id AND ua.attempt_start = a.start_time " +
+            "WHERE a.test_id = %d " +
+            "ORDER BY a.id, ua.question_id" +
+            ") TO STDOUT WITH (FORMAT csv, HEADER)";
+    // In segment order, so each segment index is loaded once
+    private static final String FIND_ARCHIVED = "SELECT a.id, a.user_id, u.email, u.first_name, u.last_name, " +
+            "a.attempt_number, a.start_time::text AS start_time, a.end_time::text AS end_time, a.score, a.segment " +
+            "FROM archived_attempts a JOIN users u ON u.id = a.user_id " +
+            "WHERE a.test_id = ? ORDER BY a.segment, a.id";
+
+    private record Archived(GradebookCsv.Attempt attempt, GradebookCsv.User user, long segment) {
+    }
+
+    private final ConnectionFactory connectionFactory;
+    private final UnitOfWork unitOfWork;
+    private final SegmentStore segmentStore;
+
+    public PostgresGradebookExporter(ConnectionFactory connectionFactory, UnitOfWork unitOfWork,
+                                     SegmentStore segmentStore) {
+        this.connectionFactory = connectionFactory;
+        this.unitOfWork = unitOfWork;
+        this.segmentStore = segmentStore;
+    }
+
+    @Override
+    public void exportTestResults(Integer testId, OutputStream out) {
+        if (testId == null) {
+            throw new IllegalArgumentException("Test ID cannot be null");
+        }
+
+        try {
+            unitOfWork.execute(() -> {
+                try (Connection connection = connectionFactory.getConnection()) {
+                    try (Statement stmt = connection.createStatement()) {
+                        stmt.execute(SNAPSHOT);
+                    }
+                    connection.unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyOut(String.format(EXPORT_TEST_RESULTS, testId), out);
+                    GradebookCsv csv = new GradebookCsv(out);
+                    RowCursor.forEach(connection, FIND_ARCHIVED, stmt -> stmt.setInt(1, testId),
+                            PostgresGradebookExporter::mapArchived,
+                            archived -> csv.writeArchived(archived.attempt(), archived.user(), answers(archived)));
+                    csv.flush();
+                    return null;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error exporting results for test " + testId, e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw new RuntimeException("Error exporting results for test " + testId, e);
+        }
+    }
+
+    private List<ArchivedAttempt.Answer> answers(Archived archived) {
+        int attemptId = archived.attempt().id();
+        return segmentStore.read(archived.segment(), attemptId)
+                .map(ArchivedAttempt::answers)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Archived attempt " + attemptId + " is missing from segment " + archived.segment()));
+    }
+
+    private static Archived mapArchived(ResultSet rs) throws SQLException {
+        return new Archived(
+                new GradebookCsv.Attempt(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getObject("attempt_number", Integer.class),
+                        rs.getString("start_time"),
+                        rs.getString("end_time"),
+                        rs.getObject("score", Integer.class)),
+                new GradebookCsv.User(
+                        rs.getInt("user_id"),
+                        rs.getString("email"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name")),
+                rs.getLong("segment"));
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.repository.QuestionBankImporter;
+import com.github.john_g1t.domain.repository.UnitOfWork;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+
+/**
+ * Streams rows into a temporary staging table with COPY, then fans them out into
+ * tests, questions and answer_options with set-based inserts. Ids are drawn from the
+ * table sequences, so imported rows never collide with concurrent inserts.
+ */
+public class PostgresQuestionBankImporter implements QuestionBankImporter {
+    private static final String CREATE_STAGING = "CREATE TEMP TABLE import_rows (" +
+            "row_no bigint, test_key text, test_title text, test_description text, time_limit integer, " +
+            "max_attempts integer, start_time timestamptz, end_time timestamptz, question_key text, " +
+            "question_text text, answer_type text, max_points integer, option_text text, option_score integer" +
+            ") ON COMMIT DROP";
+    private static final String COPY_ROWS = "COPY import_rows FROM STDIN WITH (FORMAT csv)";
+    private static final String ANALYZE_STAGING = "ANALYZE import_rows";
+    private static final String MAP_TEST_IDS = "CREATE TEMP TABLE import_test_ids ON COMMIT DROP AS " +
+            "SELECT test_key, nextval('tests_id_seq')::integer AS id " +
+            "FROM (SELECT DISTINCT test_key FROM import_rows) keys";
+    private static final String MAP_QUESTION_IDS = "CREATE TEMP TABLE import_question_ids ON COMMIT DROP AS " +
+            "SELECT test_key, question_key, nextval('questions_id_seq')::integer AS id " +
+            "FROM (SELECT DISTINCT test_key, question_key FROM import_rows WHERE question_key IS NOT NULL) keys";
+    private static final String INSERT_TESTS = "INSERT INTO tests (id, created_by, title, description, time_limit, " +
+            "max_attempts, is_active, start_time, end_time) " +
+            "SELECT DISTINCT ON (r.test_key) t.id, ?, r.test_title, r.test_description, r.time_limit, " +
+            "r.max_attempts, true, r.start_time, r.end_time " +
+            "FROM import_rows r JOIN import_test_ids t USING (test_key) " +
+            "ORDER BY r.test_key, r.row_no";
+    private static final String INSERT_QUESTIONS = "INSERT INTO questions (id, test_id, text, answer_type, max_points) " +
+            "SELECT DISTINCT ON (r.test_key, r.question_key) q.id, t.id, r.question_text, " +
+            "COALESCE(r.answer_type, 'single_choice')::answer_type, COALESCE(r.max_points, 1) " +
+            "FROM import_rows r " +
+            "JOIN import_question_ids q USING (test_key, question_key) " +
+            "JOIN import_test_ids t USING (test_key) " +
+            "ORDER BY r.test_key, r.question_key, r.row_no";
+    private static final String INSERT_OPTIONS = "INSERT INTO answer_options (question_id, option_text, score) " +
+            "SELECT q.id, r.option_text, COALESCE(r.option_score, 0) " +
+            "FROM import_rows r JOIN import_question_ids q USING (test_key, question_key) " +
+            "WHERE r.option_text IS NOT NULL " +
+            "ORDER BY r.row_no";
+    private static final String INSERT_STATS = "INSERT INTO test_stats (test_id, max_possible_score) " +
+            "SELECT t.id, COALESCE(SUM(q.max_points), 0) FROM import_test_ids t " +
+            "LEFT JOIN questions q ON q.test_id = t.id GROUP BY t.id";
+
+    private final ConnectionFactory connectionFactory;
+    private final UnitOfWork unitOfWork;
+
+    public PostgresQuestionBankImporter(ConnectionFactory connectionFactory, UnitOfWork unitOfWork) {
+        this.connectionFactory = connectionFactory;
+        this.unitOfWork = unitOfWork;
+    }
+
+    @Override
+    public ImportResult importRows(Integer creatorId, Iterator<Row> rows) {
+        // The staging tables live until commit, so the whole import must share one transaction
+        return unitOfWork.execute(() -> {
+            try (Connection connection = connectionFactory.getConnection()) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(CREATE_STAGING);
+                }
+                copyRows(connection, rows);
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(ANALYZE_STAGING);
+                    stmt.execute(MAP_TEST_IDS);
+                    stmt.execute(MAP_QUESTION_IDS);
+                }
+
+                int tests;
+                try (PreparedStatement stmt = connection.prepareStatement(INSERT_TESTS)) {
+                    stmt.setInt(1, creatorId);
+                    tests = stmt.executeUpdate();
+                }
+                try (Statement stmt = connection.createStatement()) {
+                    int questions = stmt.executeUpdate(INSERT_QUESTIONS);
+                    int options = stmt.executeUpdate(INSERT_OPTIONS);
+                    stmt.executeUpdate(INSERT_STATS);
+                    return new ImportResult(tests, questions, options);
+                }
+            } catch (SQLException | IOException e) {
+                throw new RuntimeException("Error importing question bank", e);
+            }
+        });
+    }
+
+    private void copyRows(Connection connection, Iterator<Row> rows) throws SQLException, IOException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(pgConnection, COPY_ROWS), StandardCharsets.UTF_8), 1 << 16)) {
+            long rowNo = 0;
+            while (rows.hasNext()) {
+                writeRow(writer, ++rowNo, rows.next());
+            }
+        }
+    }
+
+    private void writeRow(Writer writer, long rowNo, Row row) throws IOException {
+        writer.write(Long.toString(rowNo));
+        writeText(writer, row.testKey());
+        writeText(writer, row.testTitle());
+        writeText(writer, row.testDescription());
+        writeNumber(writer, row.timeLimit());
+        writeNumber(writer, row.maxAttempts());
+        writeTime(writer, row.startTime());
+        writeTime(writer, row.endTime());
+        writeText(writer, row.questionKey());
+        writeText(writer, row.questionText());
+        writeText(writer, row.answerType());
+        writeNumber(writer, row.maxPoints());
+        writeText(writer, row.optionText());
+        writeNumber(writer, row.optionScore());
+        writer.write('\n');
+    }
+
+    // In COPY csv an unquoted empty field is NULL, while a quoted one is an empty string
+    private void writeText(Writer writer, String value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void writeNumber(Writer writer, Integer value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void writeTime(Writer writer, ZonedDateTime value) throws IOException {
+        writer.write(',');
+        if (value != null) {
+            writer.write(value.toOffsetDateTime().toString());
+        }
+    }
+}
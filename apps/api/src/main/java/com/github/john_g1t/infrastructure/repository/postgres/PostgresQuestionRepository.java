@@ -2,6 +2,7 @@ package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.Question;
 import com.github.john_g1t.domain.repository.QuestionRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -18,10 +19,10 @@ public class PostgresQuestionRepository implements QuestionRepository {
     private static final String FIND_BY_ID = "SELECT id, test_id, text, answer_type, max_points FROM questions WHERE id = ?";
     private static final String FIND_BY_TEST_ID = "SELECT id, test_id, text, answer_type, max_points FROM questions WHERE test_id = ?";
     private static final String DELETE = "DELETE FROM questions WHERE id = ?";
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
 
-    public PostgresQuestionRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresQuestionRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
     @Override
@@ -35,7 +36,8 @@ public class PostgresQuestionRepository implements QuestionRepository {
     }
 
     private Integer insert(Question question) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
             stmt.setInt(1, question.getTestId());
             stmt.setString(2, question.getText());
             stmt.setString(3, question.getAnswerType());
@@ -54,7 +56,8 @@ public class PostgresQuestionRepository implements QuestionRepository {
     }
 
     private void update(Question question) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
             stmt.setInt(1, question.getTestId());
             stmt.setString(2, question.getText());
             stmt.setString(3, question.getAnswerType());
@@ -68,7 +71,8 @@ public class PostgresQuestionRepository implements QuestionRepository {
 
     @Override
     public Optional<Question> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -83,7 +87,8 @@ public class PostgresQuestionRepository implements QuestionRepository {
     @Override
     public List<Question> findByTestId(Integer testId) {
         List<Question> questions = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_TEST_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_TEST_ID)) {
             stmt.setInt(1, testId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -97,7 +102,8 @@ public class PostgresQuestionRepository implements QuestionRepository {
 
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
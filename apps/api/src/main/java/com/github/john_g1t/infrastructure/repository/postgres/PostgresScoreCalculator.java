@@ -0,0 +1,47 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.repository.ScoreCalculator;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+public class PostgresScoreCalculator implements ScoreCalculator {
+    // The aggregate always yields one row, so an attempt without answers is scored 0. The
+    // start time confines both tables to the attempt's partition.
+    private static final String FINISH_ATTEMPT = "UPDATE test_attempts a SET end_time = ?, score = s.total " +
+            "FROM (SELECT COALESCE(SUM(o.score), 0)::integer AS total " +
+            "FROM user_answers ua JOIN answer_options o ON o.id = ua.answer_id " +
+            "WHERE ua.attempt_id = ? AND ua.attempt_start = ?) s " +
+            "WHERE a.id = ? AND a.start_time = ? AND a.end_time IS NULL " +
+            "RETURNING a.score";
+
+    private final ConnectionFactory connectionFactory;
+
+    public PostgresScoreCalculator(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Optional<Integer> finishAttempt(Integer attemptId, ZonedDateTime attemptStart, ZonedDateTime endTime) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FINISH_ATTEMPT)) {
+            stmt.setObject(1, endTime.toOffsetDateTime());
+            stmt.setInt(2, attemptId);
+            stmt.setObject(3, attemptStart.toOffsetDateTime());
+            stmt.setInt(4, attemptId);
+            stmt.setObject(5, attemptStart.toOffsetDateTime());
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(rs.getInt(1));
+            }
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error scoring test attempt", e);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.TestAggregate;
+import com.github.john_g1t.domain.model.TestAggregate.OptionNode;
+import com.github.john_g1t.domain.model.TestAggregate.QuestionNode;
+import com.github.john_g1t.domain.repository.TestAggregateRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Loads the tree with one sorted join and folds it row by row: consecutive rows share a
+ * question until question_id changes, so no map of questions is needed.
+ */
+public class PostgresTestAggregateRepository implements TestAggregateRepository {
+    private static final String LOAD_FULL = "SELECT t.id, t.created_by, t.title, t.description, t.time_limit, " +
+            "t.max_attempts, t.is_active, t.start_time, t.end_time, " +
+            "q.id AS question_id, q.text AS question_text, q.answer_type, q.max_points, " +
+            "o.id AS option_id, o.option_text, o.score AS option_score " +
+            "FROM tests t " +
+            "LEFT JOIN questions q ON q.test_id = t.id " +
+            "LEFT JOIN answer_options o ON o.question_id = q.id " +
+            "WHERE t.id = ? " +
+            "ORDER BY q.id, o.id";
+
+    private final ConnectionFactory connectionFactory;
+
+    public PostgresTestAggregateRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    @Override
+    public Optional<TestAggregate> loadFull(Integer testId) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(LOAD_FULL)) {
+            stmt.setInt(1, testId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return Optional.empty();
+            }
+
+            TestAggregate test = mapResultSetToTestAggregate(rs, new ArrayList<>());
+            List<QuestionNode> questions = new ArrayList<>();
+            Integer questionId = null;
+            QuestionNode question = null;
+            List<OptionNode> options = null;
+            do {
+                Integer rowQuestionId = rs.getObject("question_id", Integer.class);
+                if (rowQuestionId == null) {
+                    continue;
+                }
+                if (!rowQuestionId.equals(questionId)) {
+                    if (question != null) {
+                        questions.add(withOptions(question, options));
+                    }
+                    questionId = rowQuestionId;
+                    question = mapResultSetToQuestionNode(rs);
+                    options = new ArrayList<>();
+                }
+                Integer optionId = rs.getObject("option_id", Integer.class);
+                if (optionId != null) {
+                    options.add(new OptionNode(optionId, rs.getString("option_text"),
+                            rs.getObject("option_score", Integer.class)));
+                }
+            } while (rs.next());
+            if (question != null) {
+                questions.add(withOptions(question, options));
+            }
+
+            return Optional.of(new TestAggregate(
+                    test.id(), test.createdBy(), test.title(), test.description(), test.timeLimit(),
+                    test.maxAttempts(), test.active(), test.startTime(), test.endTime(), questions
+            ));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error loading full test", e);
+        }
+    }
+
+    private QuestionNode withOptions(QuestionNode question, List<OptionNode> options) {
+        return new QuestionNode(question.id(), question.text(), question.answerType(), question.maxPoints(), options);
+    }
+
+    private TestAggregate mapResultSetToTestAggregate(ResultSet rs, List<QuestionNode> questions) throws SQLException {
+        return new TestAggregate(
+                rs.getInt("id"),
+                rs.getInt("created_by"),
+                rs.getString("title"),
+                rs.getString("description"),
+                rs.getObject("time_limit", Integer.class),
+                rs.getObject("max_attempts", Integer.class),
+                rs.getBoolean("is_active"),
+                toZonedDateTime(rs.getObject("start_time", OffsetDateTime.class)),
+                toZonedDateTime(rs.getObject("end_time", OffsetDateTime.class)),
+                questions
+        );
+    }
+
+    private QuestionNode mapResultSetToQuestionNode(ResultSet rs) throws SQLException {
+        return new QuestionNode(
+                rs.getInt("question_id"),
+                rs.getString("question_text"),
+                rs.getString("answer_type"),
+                rs.getObject("max_points", Integer.class),
+                List.of()
+        );
+    }
+
+    private ZonedDateTime toZonedDateTime(OffsetDateTime value) {
+        return value != null ? value.toZonedDateTime() : null;
+    }
+}
@@ -1,12 +1,15 @@
 package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
 import com.github.john_g1t.domain.repository.TestAttemptRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -15,21 +18,73 @@ import java.util.List;
 import java.util.Optional;
 
 public class PostgresTestAttemptRepository implements TestAttemptRepository {
-    private final static String INSERT = "INSERT INTO test_attempts (user_id, test_id, start_time, end_time, score, attempt_number) " +
-            "VALUES (?, ?, ?, ?, ?, ?) RETURNING id";
-    private final static String UPDATE = "UPDATE test_attempts SET user_id = ?, test_id = ?, start_time = ?, end_time = ?, " +
-            "score = ?, attempt_number = ? WHERE id = ?";
-    private final static String FIND_BY_ID = "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number FROM test_attempts WHERE id = ?";
-    private final static String FIND_BY_USER_ID = "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number FROM test_attempts WHERE user_id = ?";
-    private final static String FIND_BY_TEST_ID = "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number FROM test_attempts WHERE test_id = ?";
-    private final static String FIND_BY_USER_AND_TEST = "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number " +
-            "FROM test_attempts WHERE user_id = ? AND test_id = ?";
-    private final static String DELETE = "DELETE FROM test_attempts WHERE id = ?";
+    // Every attempt has a row in test_attempt_keys, which keeps ids and attempt numbers
+    // unique across partitions and outlives archiving; it is written first, as the
+    // attempt's foreign key points at it
+    private final static String INSERT = "WITH key AS (" +
+            "INSERT INTO test_attempt_keys (user_id, test_id, start_time, attempt_number, id) " +
+            "VALUES (?, ?, ?, ?, nextval('test_attempts_id_seq')) " +
+            "RETURNING id, user_id, test_id, start_time, attempt_number) " +
+            "INSERT INTO test_attempts (user_id, test_id, start_time, end_time, score, attempt_number, id) " +
+            "SELECT user_id, test_id, start_time, ?, ?, attempt_number, id FROM key RETURNING id";
+    // The join reads the key as it was before the statement, which names the partition the
+    // attempt is in now
+    private final static String UPDATE = "WITH key AS (" +
+            "UPDATE test_attempt_keys SET user_id = ?, test_id = ?, start_time = ?, attempt_number = ? " +
+            "WHERE id = ? RETURNING id, user_id, test_id, start_time, attempt_number) " +
+            "UPDATE test_attempts a SET user_id = key.user_id, test_id = key.test_id, start_time = key.start_time, " +
+            "end_time = ?, score = ?, attempt_number = key.attempt_number " +
+            "FROM key JOIN test_attempt_keys old ON old.id = key.id " +
+            "WHERE a.id = key.id AND a.start_time = old.start_time";
+    // Archived attempts keep a summary row with every attempt column, so reads see them
+    // alongside the live ones; an attempt is in exactly one of the two tables
+    private final static String ALL_ATTEMPTS = "(SELECT id, user_id, test_id, start_time, end_time, score, attempt_number " +
+            "FROM test_attempts UNION ALL " +
+            "SELECT id, user_id, test_id, start_time, end_time, score, attempt_number FROM archived_attempts) a ";
+    // The start time from the key prunes every partition but the attempt's own
+    private final static String FIND_BY_ID = "SELECT * FROM " + ALL_ATTEMPTS +
+            "WHERE id = ? AND start_time = (SELECT start_time FROM test_attempt_keys WHERE id = ?)";
+    private final static String FIND_BY_USER_ID = "SELECT * FROM " + ALL_ATTEMPTS + "WHERE user_id = ?";
+    private final static String FIND_BY_TEST_ID = "SELECT * FROM " + ALL_ATTEMPTS + "WHERE test_id = ?";
+    // The next number is one past the highest key, archived attempts included. A concurrent
+    // start that takes the same number makes this insert a no-op, and the caller retries; no
+    // attempt comes back once maxAttempts is reached. The id is drawn only for a row that
+    // passes the limit.
+    private final static String INSERT_NEXT = "WITH next AS (" +
+            "SELECT COALESCE(MAX(attempt_number), 0) + 1 AS attempt_number FROM test_attempt_keys " +
+            "WHERE user_id = ? AND test_id = ?), " +
+            "key AS (INSERT INTO test_attempt_keys (id, user_id, test_id, start_time, attempt_number) " +
+            "SELECT nextval('test_attempts_id_seq'), ?, ?, ?, n.attempt_number FROM next n " +
+            "WHERE ?::integer IS NULL OR n.attempt_number <= ?::integer " +
+            "ON CONFLICT (user_id, test_id, attempt_number) DO NOTHING " +
+            "RETURNING id, user_id, test_id, start_time, attempt_number), " +
+            "inserted AS (INSERT INTO test_attempts (id, user_id, test_id, start_time, end_time, score, attempt_number) " +
+            "SELECT id, user_id, test_id, start_time, NULL, ?, attempt_number FROM key " +
+            "RETURNING id) " +
+            "SELECT n.attempt_number, i.id FROM next n LEFT JOIN inserted i ON true";
+    private final static int INSERT_NEXT_RETRIES = 5;
+    private final static String FIND_BY_USER_AND_TEST = "SELECT * FROM " + ALL_ATTEMPTS + "WHERE user_id = ? AND test_id = ?";
+    private final static String AGGREGATE_FOR_TEST = "SELECT COUNT(*) AS total_attempts, " +
+            "COUNT(end_time) AS completed_attempts, " +
+            "COUNT(score) FILTER (WHERE end_time IS NOT NULL) AS scored_attempts, " +
+            "AVG(score) FILTER (WHERE end_time IS NOT NULL) AS average_score, " +
+            "STDDEV_POP(score) FILTER (WHERE end_time IS NOT NULL) AS score_stddev, " +
+            "MAX(score) FILTER (WHERE end_time IS NOT NULL) AS max_score, " +
+            "MIN(score) FILTER (WHERE end_time IS NOT NULL) AS min_score, " +
+            "COUNT(*) FILTER (WHERE end_time IS NOT NULL AND score >= ?) AS passed_attempts " +
+            "FROM " + ALL_ATTEMPTS + "WHERE test_id = ?";
+    private final static String COUNT = "SELECT (SELECT COUNT(*) FROM test_attempts) + (SELECT COUNT(*) FROM archived_attempts)";
+    private final static String COUNT_IN_PROGRESS = "SELECT COUNT(*) FROM test_attempts WHERE end_time IS NULL";
+    // An attempt that ended before "to" also started before it, which prunes later partitions
+    private final static String COUNT_FINISHED_BETWEEN = "SELECT COUNT(*) FROM " + ALL_ATTEMPTS +
+            "WHERE end_time >= ? AND end_time < ? AND start_time < ?";
+    // Cascades to the attempt, live or archived, and to its answers
+    private final static String DELETE = "DELETE FROM test_attempt_keys WHERE id = ?";
 
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
 
-    public PostgresTestAttemptRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresTestAttemptRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
     @Override
@@ -43,26 +98,10 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
     }
 
     private Integer insert(TestAttempt attempt) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
-            stmt.setInt(1, attempt.getUserId());
-            stmt.setInt(2, attempt.getTestId());
-            stmt.setObject(3, attempt.getStartTime().toOffsetDateTime());
-
-            // Handle null end_time (test in progress)
-            if (attempt.getEndTime() != null) {
-                stmt.setObject(4, attempt.getEndTime().toOffsetDateTime());
-            } else {
-                stmt.setObject(4, null);
-            }
-
-            // Handle null score (not calculated yet)
-            if (attempt.getScore() != null) {
-                stmt.setInt(5, attempt.getScore());
-            } else {
-                stmt.setObject(5, null);
-            }
-
-            stmt.setInt(6, attempt.getAttemptNumber());
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+            bindKey(stmt, attempt);
+            bindResult(stmt, attempt, 5);
 
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -76,38 +115,81 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
         }
     }
 
-    private void update(TestAttempt attempt) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+    @Override
+    public Optional<Integer> insertNextAttempt(TestAttempt attempt, Integer maxAttempts) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT_NEXT)) {
             stmt.setInt(1, attempt.getUserId());
             stmt.setInt(2, attempt.getTestId());
-            stmt.setObject(3, attempt.getStartTime().toOffsetDateTime());
-
-            // Handle null end_time (test in progress)
-            if (attempt.getEndTime() != null) {
-                stmt.setObject(4, attempt.getEndTime().toOffsetDateTime());
-            } else {
-                stmt.setObject(4, null);
-            }
+            stmt.setInt(3, attempt.getUserId());
+            stmt.setInt(4, attempt.getTestId());
+            stmt.setObject(5, attempt.getStartTime().toOffsetDateTime());
+            stmt.setObject(6, maxAttempts, Types.INTEGER);
+            stmt.setObject(7, maxAttempts, Types.INTEGER);
+            stmt.setInt(8, attempt.getScore() != null ? attempt.getScore() : 0);
 
-            // Handle null score (not calculated yet)
-            if (attempt.getScore() != null) {
-                stmt.setInt(5, attempt.getScore());
-            } else {
-                stmt.setObject(5, null);
+            for (int i = 0; i < INSERT_NEXT_RETRIES; i++) {
+                ResultSet rs = stmt.executeQuery();
+                rs.next();
+                int attemptNumber = rs.getInt("attempt_number");
+                int id = rs.getInt("id");
+                if (!rs.wasNull()) {
+                    attempt.setId(id);
+                    attempt.setAttemptNumber(attemptNumber);
+                    return Optional.of(id);
+                }
+                if (maxAttempts != null && attemptNumber > maxAttempts) {
+                    return Optional.empty();
+                }
             }
+            throw new IllegalStateException("Too many concurrent attempts to start this test, try again");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error inserting test attempt", e);
+        }
+    }
 
-            stmt.setInt(6, attempt.getAttemptNumber());
-            stmt.setInt(7, attempt.getId());
+    private void update(TestAttempt attempt) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+            bindKey(stmt, attempt);
+            stmt.setInt(5, attempt.getId());
+            bindResult(stmt, attempt, 6);
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating test attempt", e);
         }
     }
 
+    private void bindKey(PreparedStatement stmt, TestAttempt attempt) throws SQLException {
+        stmt.setInt(1, attempt.getUserId());
+        stmt.setInt(2, attempt.getTestId());
+        stmt.setObject(3, attempt.getStartTime().toOffsetDateTime());
+        stmt.setInt(4, attempt.getAttemptNumber());
+    }
+
+    // end_time and score, starting at the given parameter
+    private void bindResult(PreparedStatement stmt, TestAttempt attempt, int index) throws SQLException {
+        // Handle null end_time (test in progress)
+        if (attempt.getEndTime() != null) {
+            stmt.setObject(index, attempt.getEndTime().toOffsetDateTime());
+        } else {
+            stmt.setObject(index, null);
+        }
+
+        // Handle null score (not calculated yet)
+        if (attempt.getScore() != null) {
+            stmt.setInt(index + 1, attempt.getScore());
+        } else {
+            stmt.setObject(index + 1, null);
+        }
+    }
+
     @Override
     public Optional<TestAttempt> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
+            stmt.setInt(2, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
                 return Optional.of(mapResultSetToTestAttempt(rs));
@@ -121,7 +203,8 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
     @Override
     public List<TestAttempt> findByUserId(Integer userId) {
         List<TestAttempt> attempts = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_USER_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_USER_ID)) {
             stmt.setInt(1, userId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -136,7 +219,8 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
     @Override
     public List<TestAttempt> findByTestId(Integer testId) {
         List<TestAttempt> attempts = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_TEST_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_TEST_ID)) {
             stmt.setInt(1, testId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -148,10 +232,12 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
         }
     }
 
+
     @Override
     public List<TestAttempt> findByUserAndTest(Integer userId, Integer testId) {
         List<TestAttempt> attempts = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_USER_AND_TEST)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_USER_AND_TEST)) {
             stmt.setInt(1, userId);
             stmt.setInt(2, testId);
             ResultSet rs = stmt.executeQuery();
@@ -166,7 +252,8 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
 
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -174,6 +261,72 @@ public class PostgresTestAttemptRepository implements TestAttemptRepository {
         }
     }
 
+    @Override
+    public TestAttemptStats aggregateForTest(Integer testId, int passThreshold) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(AGGREGATE_FOR_TEST)) {
+            stmt.setInt(1, passThreshold);
+            stmt.setInt(2, testId);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return new TestAttemptStats(
+                rs.getLong("total_attempts"),
+                rs.getLong("completed_attempts"),
+                rs.getLong("scored_attempts"),
+                rs.getDouble("average_score"),
+                rs.getDouble("score_stddev"),
+                rs.getObject("max_score", Integer.class),
+                rs.getObject("min_score", Integer.class),
+                rs.getLong("passed_attempts")
+            );
+        } catch (SQLException e) {
+            throw new RuntimeException("Error aggregating test attempts", e);
+        }
+    }
+
+    @Override
+    public long count() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            return TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting test attempts", e);
+        }
+    }
+
+    @Override
+    public long countInProgress() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            return TableEstimates.count(connection, COUNT_IN_PROGRESS);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting test attempts in progress", e);
+        }
+    }
+
+    @Override
+    public long countFinishedBetween(ZonedDateTime from, ZonedDateTime to) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(COUNT_FINISHED_BETWEEN)) {
+            stmt.setObject(1, from.toOffsetDateTime());
+            stmt.setObject(2, to.toOffsetDateTime());
+            stmt.setObject(3, to.toOffsetDateTime());
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting finished test attempts", e);
+        }
+    }
+
+    @Override
+    public long estimateCount() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            long live = TableEstimates.estimateRows(connection, "public.test_attempts");
+            long archived = TableEstimates.estimateRows(connection, "public.archived_attempts");
+            return live >= 0 && archived >= 0 ? live + archived : TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error estimating test attempt count", e);
+        }
+    }
+
     private TestAttempt mapResultSetToTestAttempt(ResultSet rs) throws SQLException {
         OffsetDateTime startTimeOdt = rs.getObject("start_time", OffsetDateTime.class);
         ZonedDateTime startTimeZdt = startTimeOdt.atZoneSameInstant(ZoneId.systemDefault());
@@ -1,7 +1,11 @@
 package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.Test;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.TestQuery;
 import com.github.john_g1t.domain.repository.TestRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.RankedCursor;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -12,6 +16,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,16 +28,26 @@ public class PostgresTestRepository implements TestRepository {
     private final static String FIND_BY_ID = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time " +
             "FROM tests WHERE id = ?";
     private final static String FIND_ALL = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time FROM tests";
+    private final static String FIND_BY_IDS = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time " +
+            "FROM tests WHERE id = ANY(?) ORDER BY id";
     private final static String FIND_BY_CREATOR = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time " +
             "FROM tests WHERE created_by = ?";
     private final static String FIND_ACTIVE = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time" +
             " FROM tests WHERE is_active = true";
+    private final static String FIND_PAGE = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time " +
+            "FROM tests WHERE true";
+    // 'simple' rather than a language config: titles mix Russian and English, so no stemming
+    private final static String SEARCH = "SELECT id, title, description, created_by, time_limit, max_attempts, is_active, start_time, end_time, " +
+            "ts_rank(search_vector, query) AS rank " +
+            "FROM tests, websearch_to_tsquery('simple', ?) query WHERE search_vector @@ query";
+    private final static String COUNT = "SELECT COUNT(*) FROM tests";
+    private final static String COUNT_ACTIVE = "SELECT COUNT(*) FROM tests WHERE is_active = true";
     private final static String DELETE = "DELETE FROM tests WHERE id = ?";
 
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
 
-    public PostgresTestRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresTestRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
     @Override
@@ -46,7 +61,8 @@ public class PostgresTestRepository implements TestRepository {
     }
 
     private Integer insert(Test test) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
             stmt.setString(1, test.getTitle());
             stmt.setString(2, test.getDescription());
             stmt.setInt(3, test.getCreatedBy());
@@ -81,7 +97,8 @@ public class PostgresTestRepository implements TestRepository {
     }
 
     private void update(Test test) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
             stmt.setString(1, test.getTitle());
             stmt.setString(2, test.getDescription());
             stmt.setInt(3, test.getCreatedBy());
@@ -112,7 +129,8 @@ public class PostgresTestRepository implements TestRepository {
 
     @Override
     public Optional<Test> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -127,7 +145,8 @@ public class PostgresTestRepository implements TestRepository {
     @Override
     public List<Test> findAll() {
         List<Test> tests = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(FIND_ALL)) {
             while (rs.next()) {
                 tests.add(mapResultSetToTest(rs));
@@ -138,10 +157,30 @@ public class PostgresTestRepository implements TestRepository {
         }
     }
 
+    @Override
+    public List<Test> findByIds(Collection<Integer> ids) {
+        List<Test> tests = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return tests;
+        }
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_IDS)) {
+            stmt.setArray(1, connection.createArrayOf("integer", ids.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tests.add(mapResultSetToTest(rs));
+            }
+            return tests;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding tests by ids", e);
+        }
+    }
+
     @Override
     public List<Test> findByCreator(Integer creatorId) {
         List<Test> tests = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_CREATOR)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_CREATOR)) {
             stmt.setInt(1, creatorId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
@@ -156,7 +195,8 @@ public class PostgresTestRepository implements TestRepository {
     @Override
     public List<Test> findActiveTests() {
         List<Test> tests = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(FIND_ACTIVE)) {
             while (rs.next()) {
                 tests.add(mapResultSetToTest(rs));
@@ -167,9 +207,134 @@ public class PostgresTestRepository implements TestRepository {
         }
     }
 
+    @Override
+    public long count() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            return TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting tests", e);
+        }
+    }
+
+    @Override
+    public long countActive() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            return TableEstimates.count(connection, COUNT_ACTIVE);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting active tests", e);
+        }
+    }
+
+    @Override
+    public long estimateCount() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            long estimate = TableEstimates.estimateRows(connection, "public.tests");
+            return estimate >= 0 ? estimate : TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error estimating test count", e);
+        }
+    }
+
+    // Ordered by id so the cursor is a plain range condition the primary key can seek to
+    @Override
+    public Page<Test> findPage(TestQuery query) {
+        StringBuilder sql = new StringBuilder(FIND_PAGE);
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+        if (query.cursor() != null) {
+            sql.append(" AND id > ?");
+            params.add(parseIdCursor(query.cursor()));
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        // One extra row tells whether another page follows
+        params.add(query.limit() + 1);
+
+        List<Test> tests = new ArrayList<>();
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tests.add(mapResultSetToTest(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding page of tests", e);
+        }
+
+        if (tests.size() > query.limit()) {
+            tests.remove(tests.size() - 1);
+            return new Page<>(tests, tests.get(tests.size() - 1).getId().toString());
+        }
+        return new Page<>(tests, null);
+    }
+
+    // Matches come from the GIN index on search_vector; only they are ranked and sorted
+    @Override
+    public Page<Test> search(String text, TestQuery page) {
+        StringBuilder sql = new StringBuilder(SEARCH);
+        List<Object> params = new ArrayList<>();
+        params.add(text);
+        appendFilters(sql, params, page);
+        RankedCursor after = RankedCursor.parse(page.cursor());
+        if (after != null) {
+            sql.append(" AND (ts_rank(search_vector, query), id) < (?, ?)");
+            params.add(after.rank());
+            params.add(after.id());
+        }
+        sql.append(" ORDER BY rank DESC, id DESC LIMIT ?");
+        params.add(page.limit() + 1);
+
+        List<Test> tests = new ArrayList<>();
+        List<Float> ranks = new ArrayList<>();
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql.toString())) {
+            bind(stmt, params);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                tests.add(mapResultSetToTest(rs));
+                ranks.add(rs.getFloat("rank"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching tests", e);
+        }
+
+        if (tests.size() > page.limit()) {
+            tests.remove(tests.size() - 1);
+            int last = tests.size() - 1;
+            return new Page<>(tests, new RankedCursor(ranks.get(last), tests.get(last).getId()).toString());
+        }
+        return new Page<>(tests, null);
+    }
+
+    private void appendFilters(StringBuilder sql, List<Object> params, TestQuery query) {
+        if (query.active() != null) {
+            sql.append(" AND is_active = ?");
+            params.add(query.active());
+        }
+        if (query.creatorId() != null) {
+            sql.append(" AND created_by = ?");
+            params.add(query.creatorId());
+        }
+    }
+
+    private void bind(PreparedStatement stmt, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            stmt.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private Integer parseIdCursor(String cursor) {
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -0,0 +1,150 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.TestStats;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+import com.github.john_g1t.domain.repository.UnitOfWork;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+
+/**
+ * Every update is a single upsert, so a test without a row yet gets one on first use and
+ * concurrent finishes on the same test serialize on its row lock instead of losing counts.
+ */
+public class PostgresTestStatsRepository implements TestStatsRepository {
+    private static final String FIND_BY_TEST_ID = "SELECT test_id, attempt_count, completed_count, scored_count, " +
+            "score_sum, score_sum_squares, min_score, max_score, pass_count, max_possible_score " +
+            "FROM test_stats WHERE test_id = ?";
+    private static final String RECORD_FINISHED = "INSERT INTO test_stats (test_id, attempt_count, completed_count, " +
+            "scored_count, score_sum, score_sum_squares, min_score, max_score, pass_count) " +
+            "VALUES (?, 1, 1, 1, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (test_id) DO UPDATE SET " +
+            // The last rebuild already counted attempts started before it
+            "attempt_count = test_stats.attempt_count + CASE WHEN ? > test_stats.rebuilt_at THEN 1 ELSE 0 END, " +
+            "completed_count = test_stats.completed_count + 1, " +
+            "scored_count = test_stats.scored_count + 1, " +
+            "score_sum = test_stats.score_sum + EXCLUDED.score_sum, " +
+            "score_sum_squares = test_stats.score_sum_squares + EXCLUDED.score_sum_squares, " +
+            "min_score = LEAST(test_stats.min_score, EXCLUDED.min_score), " +
+            "max_score = GREATEST(test_stats.max_score, EXCLUDED.max_score), " +
+            "pass_count = test_stats.pass_count + EXCLUDED.pass_count, " +
+            "updated_at = now()";
+    private static final String REFRESH_MAX_POSSIBLE = "INSERT INTO test_stats (test_id, max_possible_score) " +
+            "SELECT ?, COALESCE(SUM(max_points), 0) FROM questions WHERE test_id = ? " +
+            "ON CONFLICT (test_id) DO UPDATE SET max_possible_score = EXCLUDED.max_possible_score, updated_at = now()";
+    // Writers block on the lock until the rebuild commits, so their increments land on the new rows
+    private static final String LOCK = "LOCK TABLE test_stats IN EXCLUSIVE MODE";
+    private static final String DELETE_ALL = "DELETE FROM test_stats";
+    private static final String REBUILD = "INSERT INTO test_stats (test_id, attempt_count, completed_count, " +
+            "scored_count, score_sum, score_sum_squares, min_score, max_score, pass_count, max_possible_score) " +
+            "WITH q AS (SELECT test_id, SUM(COALESCE(max_points, 0))::integer AS max_possible_score " +
+            "FROM questions GROUP BY test_id), " +
+            "a AS (SELECT a.test_id, COUNT(*) AS attempt_count, COUNT(a.end_time) AS completed_count, " +
+            "COUNT(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS scored_count, " +
+            "SUM(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS score_sum, " +
+            "SUM(a.score::bigint * a.score) FILTER (WHERE a.end_time IS NOT NULL) AS score_sum_squares, " +
+            "MIN(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS min_score, " +
+            "MAX(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS max_score, " +
+            "COUNT(*) FILTER (WHERE a.end_time IS NOT NULL AND a.score >= " +
+            "floor(CASE WHEN COALESCE(q.max_possible_score, 0) > 0 THEN q.max_possible_score ELSE ? END * ?)) AS pass_count " +
+            "FROM (SELECT test_id, end_time, score FROM test_attempts " +
+            "UNION ALL SELECT test_id, end_time, score FROM archived_attempts) a " +
+            "LEFT JOIN q ON q.test_id = a.test_id " +
+            "GROUP BY a.test_id, q.max_possible_score) " +
+            "SELECT t.id, COALESCE(a.attempt_count, 0), COALESCE(a.completed_count, 0), COALESCE(a.scored_count, 0), " +
+            "COALESCE(a.score_sum, 0), COALESCE(a.score_sum_squares, 0), a.min_score, a.max_score, " +
+            "COALESCE(a.pass_count, 0), COALESCE(q.max_possible_score, 0) " +
+            "FROM tests t LEFT JOIN a ON a.test_id = t.id LEFT JOIN q ON q.test_id = t.id";
+
+    private final ConnectionFactory connectionFactory;
+    private final UnitOfWork unitOfWork;
+
+    public PostgresTestStatsRepository(ConnectionFactory connectionFactory, UnitOfWork unitOfWork) {
+        this.connectionFactory = connectionFactory;
+        this.unitOfWork = unitOfWork;
+    }
+
+    @Override
+    public Optional<TestStats> findByTestId(Integer testId) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_TEST_ID)) {
+            stmt.setInt(1, testId);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return Optional.of(mapResultSetToTestStats(rs));
+            }
+            return Optional.empty();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding test stats by test id", e);
+        }
+    }
+
+    @Override
+    public void recordAttemptFinished(Integer testId, ZonedDateTime startTime, int score, boolean passed) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(RECORD_FINISHED)) {
+            stmt.setInt(1, testId);
+            stmt.setLong(2, score);
+            stmt.setLong(3, (long) score * score);
+            stmt.setInt(4, score);
+            stmt.setInt(5, score);
+            stmt.setLong(6, passed ? 1 : 0);
+            stmt.setObject(7, startTime.toOffsetDateTime());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error recording finished attempt in test stats", e);
+        }
+    }
+
+    @Override
+    public void refreshMaxPossibleScore(Integer testId) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(REFRESH_MAX_POSSIBLE)) {
+            stmt.setInt(1, testId);
+            stmt.setInt(2, testId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error refreshing max possible score in test stats", e);
+        }
+    }
+
+    @Override
+    public int rebuild() {
+        return unitOfWork.execute(() -> {
+            try (Connection connection = connectionFactory.getConnection()) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(LOCK);
+                    stmt.executeUpdate(DELETE_ALL);
+                }
+                try (PreparedStatement stmt = connection.prepareStatement(REBUILD)) {
+                    stmt.setInt(1, TestStats.DEFAULT_MAX_SCORE);
+                    stmt.setDouble(2, TestStats.PASS_RATIO);
+                    return stmt.executeUpdate();
+                }
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rebuilding test stats", e);
+            }
+        });
+    }
+
+    private TestStats mapResultSetToTestStats(ResultSet rs) throws SQLException {
+        return new TestStats(
+            rs.getInt("test_id"),
+            rs.getLong("attempt_count"),
+            rs.getLong("completed_count"),
+            rs.getLong("scored_count"),
+            rs.getLong("score_sum"),
+            rs.getLong("score_sum_squares"),
+            rs.getObject("min_score", Integer.class),
+            rs.getObject("max_score", Integer.class),
+            rs.getLong("pass_count"),
+            rs.getInt("max_possible_score")
+        );
+    }
+}
@@ -2,30 +2,47 @@ package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.UserAnswer;
 import com.github.john_g1t.domain.repository.UserAnswerRepository;
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class PostgresUserAnswerRepository implements UserAnswerRepository {
-    private static final String INSERT = "INSERT INTO user_answers (attempt_id, question_id, answer_id, answer_text) " +
-            "VALUES (?, ?, ?, ?) RETURNING id";
+    // attempt_start is the partition key, copied from the attempt's key so the answer lands in its month
+    private static final String INSERT = "INSERT INTO user_answers (attempt_id, question_id, answer_id, answer_text, attempt_start) " +
+            "VALUES (?, ?, ?, ?, (SELECT start_time FROM test_attempt_keys WHERE id = ?)) RETURNING id";
+    // Backed by the unique (attempt_id, question_id, attempt_start) index; a re-submission keeps
+    // its row and id, so the id is left to the column default and read back. The caller holds
+    // the attempt, so it passes the start time in.
+    private static final String UPSERT = "INSERT INTO user_answers (attempt_id, question_id, answer_id, answer_text, attempt_start) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (attempt_id, question_id, attempt_start) " +
+            "DO UPDATE SET answer_id = EXCLUDED.answer_id, answer_text = EXCLUDED.answer_text";
     private static final String UPDATE = "UPDATE user_answers SET attempt_id = ?, question_id = ?, answer_id = ?, " +
-            "answer_text = ?, WHERE id = ?";
+            "answer_text = ?, attempt_start = (SELECT start_time FROM test_attempt_keys WHERE id = ?) WHERE id = ?";
     private static final String FIND_BY_ID = "SELECT id, attempt_id, question_id, answer_id, answer_text " +
             "FROM user_answers WHERE id = ?";
+    // The start time from the key prunes every partition but the attempt's own
     private static final String FIND_BY_ATTEMPT_ID = "SELECT id, attempt_id, question_id, answer_id, answer_text " +
-            "FROM user_answers WHERE attempt_id = ?";
+            "FROM user_answers WHERE attempt_id = ? AND attempt_start = (SELECT start_time FROM test_attempt_keys WHERE id = ?)";
+    private static final String FIND_ARCHIVE_SEGMENT = "SELECT segment FROM archived_attempts WHERE id = ?";
     private static final String DELETE = "DELETE FROM user_answers WHERE id = ?";
 
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
+    private final SegmentStore segmentStore;
 
-    public PostgresUserAnswerRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresUserAnswerRepository(ConnectionFactory connectionFactory, SegmentStore segmentStore) {
+        this.connectionFactory = connectionFactory;
+        this.segmentStore = segmentStore;
     }
 
     @Override
@@ -39,11 +56,10 @@ public class PostgresUserAnswerRepository implements UserAnswerRepository {
     }
 
     private Integer insert(UserAnswer answer) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
-            stmt.setInt(1, answer.getAttemptId());
-            stmt.setInt(2, answer.getQuestionId());
-            stmt.setInt(3, answer.getAnswerId());
-            stmt.setString(4, answer.getAnswerText());
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+            bindAnswer(stmt, answer);
+            stmt.setInt(5, answer.getAttemptId());
 
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -58,21 +74,81 @@ public class PostgresUserAnswerRepository implements UserAnswerRepository {
     }
 
     private void update(UserAnswer answer) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
-            stmt.setInt(1, answer.getAttemptId());
-            stmt.setInt(2, answer.getQuestionId());
-            stmt.setInt(3, answer.getAnswerId());
-            stmt.setString(4, answer.getAnswerText());
-            stmt.setInt(5, answer.getId());
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+            bindAnswer(stmt, answer);
+            stmt.setInt(5, answer.getAttemptId());
+            stmt.setInt(6, answer.getId());
             stmt.executeUpdate();
         } catch (SQLException e) {
             throw new RuntimeException("Error updating user answer", e);
         }
     }
 
+    @Override
+    public Integer upsert(UserAnswer answer, ZonedDateTime attemptStart) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPSERT + " RETURNING id")) {
+            bindAnswer(stmt, answer);
+            stmt.setObject(5, attemptStart.toOffsetDateTime());
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                int id = rs.getInt(1);
+                answer.setId(id);
+                return id;
+            }
+            throw new RuntimeException("Failed to upsert user answer");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error upserting user answer", e);
+        }
+    }
+
+    @Override
+    public List<Integer> upsertAll(List<UserAnswer> answers, ZonedDateTime attemptStart) {
+        // Each batch entry is its own statement, so a repeated question simply updates the row again
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPSERT, new String[]{"id"})) {
+            for (UserAnswer answer : answers) {
+                bindAnswer(stmt, answer);
+                stmt.setObject(5, attemptStart.toOffsetDateTime());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            List<Integer> ids = new ArrayList<>(answers.size());
+            ResultSet keys = stmt.getGeneratedKeys();
+            for (UserAnswer answer : answers) {
+                if (!keys.next()) {
+                    throw new RuntimeException("Failed to upsert user answers");
+                }
+                answer.setId(keys.getInt(1));
+                ids.add(answer.getId());
+            }
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error upserting user answers", e);
+        }
+    }
+
+    private void bindAnswer(PreparedStatement stmt, UserAnswer answer) throws SQLException {
+        stmt.setInt(1, answer.getAttemptId());
+        stmt.setInt(2, answer.getQuestionId());
+
+        // Handle null answer_id (free-text answers)
+        if (answer.getAnswerId() != null) {
+            stmt.setInt(3, answer.getAnswerId());
+        } else {
+            stmt.setNull(3, Types.INTEGER);
+        }
+
+        stmt.setString(4, answer.getAnswerText());
+    }
+
     @Override
     public Optional<UserAnswer> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -87,21 +163,48 @@ public class PostgresUserAnswerRepository implements UserAnswerRepository {
     @Override
     public List<UserAnswer> findByAttemptId(Integer attemptId) {
         List<UserAnswer> answers = new ArrayList<>();
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ATTEMPT_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ATTEMPT_ID)) {
             stmt.setInt(1, attemptId);
+            stmt.setInt(2, attemptId);
             ResultSet rs = stmt.executeQuery();
             while (rs.next()) {
                 answers.add(mapResultSetToUserAnswer(rs));
             }
+            if (answers.isEmpty()) {
+                return findArchived(connection, attemptId);
+            }
             return answers;
         } catch (SQLException e) {
             throw new RuntimeException("Error finding user answers by attempt id", e);
         }
     }
 
+    // The answers of an archived attempt only exist in its segment file
+    private List<UserAnswer> findArchived(Connection connection, Integer attemptId) throws SQLException {
+        long segment;
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_ARCHIVE_SEGMENT)) {
+            stmt.setInt(1, attemptId);
+            ResultSet rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return new ArrayList<>();
+            }
+            segment = rs.getLong(1);
+        }
+        List<UserAnswer> answers = new ArrayList<>();
+        segmentStore.read(segment, attemptId).ifPresent(attempt -> {
+            for (ArchivedAttempt.Answer answer : attempt.answers()) {
+                answers.add(new UserAnswer(answer.id(), attemptId, answer.questionId(),
+                        answer.answerId() != null ? answer.answerId() : 0, answer.answerText()));
+            }
+        });
+        return answers;
+    }
+
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
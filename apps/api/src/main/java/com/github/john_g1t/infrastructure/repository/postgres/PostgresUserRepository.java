@@ -1,7 +1,10 @@
 package com.github.john_g1t.infrastructure.repository.postgres;
 
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.repository.UserRepository;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -23,6 +26,15 @@ public class PostgresUserRepository implements UserRepository {
             "SELECT id, email, password, first_name, last_name FROM users WHERE email = ?";
     private static final String FIND_ALL =
             "SELECT id, email, password, first_name, last_name FROM users";
+    // The password column is never read for listings
+    private static final String SEARCH =
+            "SELECT id, email, first_name, last_name FROM users WHERE id > ?";
+    private static final String SEARCH_TERM =
+            " AND (email ILIKE ? OR first_name ILIKE ? OR last_name ILIKE ?)";
+    private static final String SEARCH_ORDER =
+            " ORDER BY id LIMIT ?";
+    private static final String COUNT =
+            "SELECT COUNT(*) FROM users";
     private static final String EXISTS_BY_EMAIL =
             "SELECT COUNT(*) FROM users WHERE email = ?";
     private static final String EXISTS_BY_ID =
@@ -30,10 +42,10 @@ public class PostgresUserRepository implements UserRepository {
     private static final String DELETE_BY_ID =
             "DELETE FROM users WHERE id = ?";
 
-    private final Connection connection;
+    private final ConnectionFactory connectionFactory;
 
-    public PostgresUserRepository(Connection connection) {
-        this.connection = connection;
+    public PostgresUserRepository(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
     }
 
     @Override
@@ -47,7 +59,8 @@ public class PostgresUserRepository implements UserRepository {
     }
 
     private Integer insert(User user) {
-        try (PreparedStatement stmt = connection.prepareStatement(INSERT)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(INSERT)) {
             stmt.setString(1, user.getEmail());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getFirstName());
@@ -66,7 +79,8 @@ public class PostgresUserRepository implements UserRepository {
     }
 
     private void update(User user) {
-        try (PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(UPDATE)) {
             stmt.setString(1, user.getEmail());
             stmt.setString(2, user.getPassword());
             stmt.setString(3, user.getFirstName());
@@ -80,7 +94,8 @@ public class PostgresUserRepository implements UserRepository {
 
     @Override
     public Optional<User> findById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -94,7 +109,8 @@ public class PostgresUserRepository implements UserRepository {
 
     @Override
     public Optional<User> findByEmail(String email) {
-        try (PreparedStatement stmt = connection.prepareStatement(FIND_BY_EMAIL)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(FIND_BY_EMAIL)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -109,7 +125,8 @@ public class PostgresUserRepository implements UserRepository {
     @Override
     public List<User> findAll() {
         List<User> users = new ArrayList<>();
-        try (Statement stmt = connection.createStatement();
+        try (Connection connection = connectionFactory.getConnection();
+             Statement stmt = connection.createStatement();
              ResultSet rs = stmt.executeQuery(FIND_ALL)) {
             while (rs.next()) {
                 users.add(mapResultSetToUser(rs));
@@ -120,9 +137,78 @@ public class PostgresUserRepository implements UserRepository {
         }
     }
 
+
+    // The ILIKE filters are served by the pg_trgm GIN indexes, the keyset by the primary key
+    @Override
+    public Page<UserSummary> search(String term, String cursor, int limit) {
+        String sql = term != null ? SEARCH + SEARCH_TERM + SEARCH_ORDER : SEARCH + SEARCH_ORDER;
+        List<UserSummary> users = new ArrayList<>();
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setInt(index++, parseCursor(cursor));
+            if (term != null) {
+                String pattern = "%" + escapeLike(term) + "%";
+                stmt.setString(index++, pattern);
+                stmt.setString(index++, pattern);
+                stmt.setString(index++, pattern);
+            }
+            // One extra row tells whether another page follows
+            stmt.setInt(index, limit + 1);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                users.add(mapResultSetToUserSummary(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching users", e);
+        }
+
+        if (users.size() > limit) {
+            users.remove(users.size() - 1);
+            return new Page<>(users, users.get(users.size() - 1).id().toString());
+        }
+        return new Page<>(users, null);
+    }
+
+    private int parseCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    @Override
+    public long count() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            return TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting users", e);
+        }
+    }
+
+    @Override
+    public long estimateCount() {
+        try (Connection connection = connectionFactory.getConnection()) {
+            long estimate = TableEstimates.estimateRows(connection, "public.users");
+            return estimate >= 0 ? estimate : TableEstimates.count(connection, COUNT);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error estimating user count", e);
+        }
+    }
+
     @Override
     public boolean existsByEmail(String email) {
-        try (PreparedStatement stmt = connection.prepareStatement(EXISTS_BY_EMAIL)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(EXISTS_BY_EMAIL)) {
             stmt.setString(1, email);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -136,7 +222,8 @@ public class PostgresUserRepository implements UserRepository {
 
     @Override
     public boolean existsById(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(EXISTS_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(EXISTS_BY_ID)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -150,7 +237,8 @@ public class PostgresUserRepository implements UserRepository {
 
     @Override
     public void delete(Integer id) {
-        try (PreparedStatement stmt = connection.prepareStatement(DELETE_BY_ID)) {
+        try (Connection connection = connectionFactory.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(DELETE_BY_ID)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
         } catch (SQLException e) {
@@ -167,4 +255,13 @@ public class PostgresUserRepository implements UserRepository {
             rs.getString("last_name")
         );
     }
+
+    private UserSummary mapResultSetToUserSummary(ResultSet rs) throws SQLException {
+        return new UserSummary(
+            rs.getInt("id"),
+            rs.getString("email"),
+            rs.getString("first_name"),
+            rs.getString("last_name")
+        );
+    }
 }
@@ -0,0 +1,124 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends reads marked with {@link #readOnly} to a streaming replica and everything else to
+ * the primary.
+ *
+ * After each commit that may have written, the primary's WAL position is remembered. A
+ * read-only lease checks that the replica has replayed at least that far and otherwise
+ * falls back to the primary, so a client never reads back less than it has just written.
+ * The check is skipped once the replica has been seen to catch up with the latest write.
+ *
+ * JdbcUnitOfWork reports commits of units of work and autocommit writes alike. The
+ * archiver and the partition maintainer write through the primary factory directly and
+ * go untracked, since nothing reads their rows back right away.
+ */
+public class RoutingConnectionFactory implements ConnectionFactory {
+    private static final String CURRENT_LSN = "SELECT pg_current_wal_lsn()::text";
+    // NULL on a server that is not a standby, which then counts as always caught up
+    private static final String REPLAYED_LSN = "SELECT pg_last_wal_replay_lsn()::text";
+
+    private final ConnectionFactory primary;
+    private final ConnectionFactory replica;
+    private final ThreadLocal<Boolean> readOnly = ThreadLocal.withInitial(() -> false);
+    private final AtomicLong lastWriteLsn = new AtomicLong();
+    private final AtomicLong replicaCaughtUpTo = new AtomicLong();
+
+    public RoutingConnectionFactory(ConnectionFactory primary, ConnectionFactory replica) {
+        this.primary = primary;
+        this.replica = replica;
+    }
+
+    @Override
+    public Connection getConnection() {
+        if (!readOnly.get()) {
+            return primary.getConnection();
+        }
+        Connection connection;
+        try {
+            connection = replica.getConnection();
+        } catch (RuntimeException e) {
+            System.err.println("Replica unavailable, reading from primary: " + e.getMessage());
+            return primary.getConnection();
+        }
+        if (isCaughtUp(connection)) {
+            return connection;
+        }
+        close(connection);
+        return primary.getConnection();
+    }
+
+    @Override
+    public void closeConnection() {
+        try {
+            replica.closeConnection();
+        } finally {
+            primary.closeConnection();
+        }
+    }
+
+    @Override
+    public <T> T readOnly(Supplier<T> work) {
+        boolean outer = readOnly.get();
+        readOnly.set(true);
+        try {
+            return work.get();
+        } finally {
+            readOnly.set(outer);
+        }
+    }
+
+    @Override
+    public void afterCommit(Connection connection) {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(CURRENT_LSN)) {
+            if (rs.next()) {
+                long lsn = parseLsn(rs.getString(1));
+                lastWriteLsn.accumulateAndGet(lsn, Math::max);
+            }
+        } catch (SQLException e) {
+            // The commit already happened; at worst the next reads go to a lagging replica
+            System.err.println("Could not read primary WAL position: " + e.getMessage());
+        }
+    }
+
+    private boolean isCaughtUp(Connection connection) {
+        long required = lastWriteLsn.get();
+        if (replicaCaughtUpTo.get() >= required) {
+            return true;
+        }
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(REPLAYED_LSN)) {
+            rs.next();
+            String replayed = rs.getString(1);
+            long lsn = replayed == null ? Long.MAX_VALUE : parseLsn(replayed);
+            replicaCaughtUpTo.accumulateAndGet(lsn, Math::max);
+            return lsn >= required;
+        } catch (SQLException e) {
+            System.err.println("Could not read replica lag, reading from primary: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // An LSN prints as two hex halves, "16/B374D848"
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return Long.parseLong(lsn.substring(0, slash), 16) << 32 | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    private static void close(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Hands query rows to a consumer one at a time. The driver only fetches rows through a
+ * server-side cursor, FETCH_SIZE at a time, while autocommit is off, so a connection
+ * outside a unit of work gets a transaction of its own for the duration of the read.
+ */
+public final class RowCursor {
+    // Rows held in memory per round trip; DB_FETCH_SIZE overrides it per deployment
+    public static final int FETCH_SIZE = fetchSizeFromEnvironment();
+
+    @FunctionalInterface
+    public interface Binder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private RowCursor() {
+    }
+
+    public static <T> void forEach(Connection connection, String sql, Binder binder, RowMapper<T> mapper,
+                                   Consumer<? super T> action) throws SQLException {
+        boolean ownTransaction = connection.getAutoCommit();
+        if (ownTransaction) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                stmt.setFetchSize(FETCH_SIZE);
+                binder.bind(stmt);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(mapper.map(rs));
+                    }
+                }
+            }
+            if (ownTransaction) {
+                connection.commit();
+            }
+        } catch (SQLException | RuntimeException e) {
+            if (ownTransaction) {
+                connection.rollback();
+            }
+            throw e;
+        } finally {
+            if (ownTransaction) {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static int fetchSizeFromEnvironment() {
+        String value = System.getenv("DB_FETCH_SIZE");
+        if (value == null || value.isBlank()) {
+            return 500;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("DB_FETCH_SIZE environment variable must be an integer", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Hashes nodes and keys onto the same ring; a key belongs to the first node point at or
+ * after its own. Each node owns VIRTUAL_NODES points so the keys spread evenly, and a
+ * node added later only takes over the keys that now land just before its points.
+ */
+public class ConsistentHashRing<T> {
+    private static final int VIRTUAL_NODES = 128;
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+
+    public ConsistentHashRing(Map<String, T> nodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        nodes.forEach((name, node) -> {
+            for (int i = 0; i < VIRTUAL_NODES; i++) {
+                ring.put(hash(name + "#" + i), node);
+            }
+        });
+    }
+
+    public T nodeFor(String key) {
+        Map.Entry<Long, T> entry = ring.ceilingEntry(hash(key));
+        return (entry != null ? entry : ring.firstEntry()).getValue();
+    }
+
+    // The first eight bytes of an MD5 digest, which spreads short keys like ids well
+    static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.repository.UnitOfWork;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.JdbcUnitOfWork;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Knows which shard holds what. A user's attempts and answers live on the shard the hash
+ * ring picks for the user id. Attempt and answer ids are handed out in steps of
+ * ID_STRIDE, offset by the shard id (see {@link ShardSequences}), so an id alone tells
+ * which shard holds the row.
+ *
+ * Shard ids are positions in the configured list: new shards go at the end, and the
+ * users the ring moves onto them have to be moved along with their rows.
+ */
+public class ShardRouter {
+    public static final int ID_STRIDE = 64;
+
+    private final List<JdbcUnitOfWork> shards = new ArrayList<>();
+    private final ConsistentHashRing<Integer> ring;
+
+    public ShardRouter(List<? extends ConnectionFactory> connectionFactories) {
+        if (connectionFactories.isEmpty() || connectionFactories.size() > ID_STRIDE) {
+            throw new IllegalArgumentException("Between 1 and " + ID_STRIDE + " shards are supported");
+        }
+        Map<String, Integer> nodes = new LinkedHashMap<>();
+        for (ConnectionFactory connectionFactory : connectionFactories) {
+            nodes.put("shard-" + shards.size(), shards.size());
+            shards.add(new JdbcUnitOfWork(connectionFactory));
+        }
+        this.ring = new ConsistentHashRing<>(nodes);
+    }
+
+    public List<Integer> shardIds() {
+        return IntStream.range(0, shards.size()).boxed().toList();
+    }
+
+    // Repositories of a shard take this as their connection factory, so they join its unit of work
+    public JdbcUnitOfWork shard(int shardId) {
+        return shards.get(shardId);
+    }
+
+    public int shardForUser(Integer userId) {
+        return ring.nodeFor(userId.toString());
+    }
+
+    public boolean ownsId(Integer id) {
+        return id != null && Math.floorMod(id, ID_STRIDE) < shards.size();
+    }
+
+    public int shardForId(Integer id) {
+        if (!ownsId(id)) {
+            throw new IllegalArgumentException("No shard holds id " + id);
+        }
+        return Math.floorMod(id, ID_STRIDE);
+    }
+
+    /**
+     * Runs the query on every shard and returns the results in shard order. Outside a unit
+     * of work the shards are queried at once; inside one they are queried in turn on its
+     * transaction.
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (int shardId = 0; shardId < shards.size(); shardId++) {
+            int id = shardId;
+            futures.add(shards.get(shardId).async(() -> query.apply(id)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(UnitOfWork.join(future));
+        }
+        return results;
+    }
+
+    public void close() {
+        for (JdbcUnitOfWork shard : shards) {
+            shard.closeConnection();
+        }
+    }
+}
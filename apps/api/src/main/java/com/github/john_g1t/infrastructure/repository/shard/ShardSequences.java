@@ -0,0 +1,59 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Makes a shard hand out attempt and answer ids congruent to its shard id modulo
+ * {@link ShardRouter#ID_STRIDE}. Runs at startup; a sequence that already steps by the
+ * stride is left alone.
+ */
+public final class ShardSequences {
+    // Attempt keys outlive archiving, so they hold every attempt id ever handed out
+    private static final String[][] SEQUENCES = {
+            {"test_attempts_id_seq", "test_attempt_keys"},
+            {"user_answers_id_seq", "user_answers"}
+    };
+    private static final String FIND_INCREMENT = "SELECT increment_by FROM pg_sequences " +
+            "WHERE schemaname = 'public' AND sequencename = ?";
+
+    private ShardSequences() {
+    }
+
+    public static void configure(ConnectionFactory connectionFactory, int shardId) {
+        try (Connection connection = connectionFactory.getConnection()) {
+            for (String[] sequence : SEQUENCES) {
+                configure(connection, sequence[0], sequence[1], shardId);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error configuring id sequences of shard " + shardId, e);
+        }
+    }
+
+    private static void configure(Connection connection, String sequence, String table, int shardId) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(FIND_INCREMENT)) {
+            stmt.setString(1, sequence);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next() && rs.getLong(1) == ShardRouter.ID_STRIDE) {
+                return;
+            }
+        }
+        long maxId;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) FROM public." + table)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+        // The first id of this shard past every id already in the table
+        long start = (maxId / ShardRouter.ID_STRIDE + 1) * ShardRouter.ID_STRIDE + shardId;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER SEQUENCE public." + sequence + " INCREMENT BY " + ShardRouter.ID_STRIDE +
+                    " RESTART WITH " + start);
+        }
+    }
+}
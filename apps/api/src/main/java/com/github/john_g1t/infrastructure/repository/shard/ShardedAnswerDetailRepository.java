@@ -0,0 +1,100 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+import com.github.john_g1t.domain.repository.AnswerDetailRepository;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.AnswerDetailAssembler;
+import com.github.john_g1t.infrastructure.repository.postgres.AnswerDetailAssembler.Row;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pages the answers on the attempt's shard the same way PostgresAnswerDetailRepository
+ * does, falling back to the shard's archive, then looks up question texts and option
+ * scores for the page in the reference database.
+ */
+public class ShardedAnswerDetailRepository implements AnswerDetailRepository {
+    private static final String FIND_PAGE = "WITH attempt AS (SELECT start_time FROM test_attempt_keys WHERE id = ?), " +
+            "page AS (SELECT DISTINCT question_id FROM user_answers " +
+            "WHERE attempt_id = ? AND attempt_start = (SELECT start_time FROM attempt) " +
+            "AND question_id > ? ORDER BY question_id LIMIT ?) " +
+            "SELECT ua.id, ua.question_id, ua.answer_id, ua.answer_text " +
+            "FROM page p " +
+            "JOIN user_answers ua ON ua.attempt_id = ? AND ua.attempt_start = (SELECT start_time FROM attempt) " +
+            "AND ua.question_id = p.question_id " +
+            "ORDER BY ua.question_id, ua.id";
+
+    private final ShardRouter router;
+    private final ConnectionFactory reference;
+    private final SegmentStore segmentStore;
+
+    public ShardedAnswerDetailRepository(ShardRouter router, ConnectionFactory reference, SegmentStore segmentStore) {
+        this.router = router;
+        this.reference = reference;
+        this.segmentStore = segmentStore;
+    }
+
+    @Override
+    public Page<AnswerDetail> findByAttemptId(Integer attemptId, String cursor, int questionLimit) {
+        if (!router.ownsId(attemptId)) {
+            return new Page<>(new ArrayList<>(), null);
+        }
+        try {
+            List<Row> rows = findPage(attemptId, parseCursor(cursor), questionLimit + 1);
+            if (rows.isEmpty()) {
+                return new Page<>(new ArrayList<>(), null);
+            }
+            try (Connection connection = reference.getConnection()) {
+                return AnswerDetailAssembler.assemble(connection, rows, questionLimit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding answer details by attempt id", e);
+        }
+    }
+
+    private List<Row> findPage(Integer attemptId, int afterQuestionId, int questionLimit) throws SQLException {
+        List<Row> rows = new ArrayList<>();
+        int shardId = router.shardForId(attemptId);
+        try (Connection connection = router.shard(shardId).getConnection()) {
+            try (PreparedStatement stmt = connection.prepareStatement(FIND_PAGE)) {
+                stmt.setInt(1, attemptId);
+                stmt.setInt(2, attemptId);
+                stmt.setInt(3, afterQuestionId);
+                stmt.setInt(4, questionLimit);
+                stmt.setInt(5, attemptId);
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    rows.add(new Row(
+                            rs.getInt("id"),
+                            rs.getInt("question_id"),
+                            rs.getObject("answer_id", Integer.class),
+                            rs.getString("answer_text")));
+                }
+            }
+            if (rows.isEmpty()) {
+                // Each shard archives into a directory of its own
+                return AnswerDetailAssembler.findArchived(connection, segmentStore.forShard(shardId), attemptId,
+                        afterQuestionId, questionLimit).orElse(rows);
+            }
+        }
+        return rows;
+    }
+
+    private int parseCursor(String cursor) {
+        if (cursor == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.repository.GradebookExporter;
+import com.github.john_g1t.infrastructure.archive.ArchivedAttempt;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.JdbcUnitOfWork;
+import com.github.john_g1t.infrastructure.repository.postgres.GradebookCsv;
+import com.github.john_g1t.infrastructure.repository.postgres.RowCursor;
+
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Exports like PostgresGradebookExporter, one shard after another: live attempts, then
+ * archived ones with their answers from the shard's segment files. User names live in the
+ * reference database, so rows are streamed off each shard and held back only until the
+ * users of a chunk of them have been read there, which keeps memory bounded by the chunk
+ * rather than by how many users attempted the test.
+ */
+public class ShardedGradebookExporter implements GradebookExporter {
+    private static final String SNAPSHOT = "SET TRANSACTION ISOLATION LEVEL REPEATABLE READ";
+    // Timestamps as text, so they print the way COPY prints them
+    private static final String FIND_LIVE = "SELECT a.id, a.user_id, a.attempt_number, " +
+            "a.start_time::text AS start_time, a.end_time::text AS end_time, a.score, " +
+            "ua.question_id, ua.answer_id, ua.answer_text " +
+            "FROM test_attempts a " +
+            "LEFT JOIN user_answers ua ON ua.attempt_id = a.id AND ua.attempt_start = a.start_time " +
+            "WHERE a.test_id = ? " +
+            "ORDER BY a.id, ua.question_id";
+    // In segment order, so each segment index is loaded once
+    private static final String FIND_ARCHIVED = "SELECT id, user_id, attempt_number, " +
+            "start_time::text AS start_time, end_time::text AS end_time, score, segment " +
+            "FROM archived_attempts WHERE test_id = ? ORDER BY segment, id";
+    private static final String FIND_USERS = "SELECT id, email, first_name, last_name FROM users WHERE id = ANY(?)";
+
+    private record Live(GradebookCsv.Attempt attempt, Integer questionId, Integer answerId, String answerText) {
+    }
+
+    private record Archived(GradebookCsv.Attempt attempt, long segment) {
+    }
+
+    private final ShardRouter router;
+    private final ConnectionFactory reference;
+    private final SegmentStore segmentStore;
+
+    public ShardedGradebookExporter(ShardRouter router, ConnectionFactory reference, SegmentStore segmentStore) {
+        this.router = router;
+        this.reference = reference;
+        this.segmentStore = segmentStore;
+    }
+
+    // Shard by shard: live attempts in id order, then the archived ones
+    @Override
+    public void exportTestResults(Integer testId, OutputStream out) {
+        if (testId == null) {
+            throw new IllegalArgumentException("Test ID cannot be null");
+        }
+
+        try (Connection users = reference.getConnection()) {
+            GradebookCsv csv = new GradebookCsv(out);
+            csv.writeHeader();
+            for (int shardId : router.shardIds()) {
+                exportShard(shardId, testId, users, csv);
+            }
+            csv.flush();
+        } catch (SQLException | UncheckedIOException e) {
+            throw new RuntimeException("Error exporting results for test " + testId, e);
+        }
+    }
+
+    // One snapshot per shard, so an attempt archived meanwhile is exported exactly once
+    private void exportShard(int shardId, Integer testId, Connection users, GradebookCsv csv) {
+        JdbcUnitOfWork shard = router.shard(shardId);
+        SegmentStore shardSegments = segmentStore.forShard(shardId);
+        shard.execute(() -> {
+            try (Connection connection = shard.getConnection()) {
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(SNAPSHOT);
+                }
+                Chunk<Live> live = new Chunk<>(users, Live::attempt, (row, user) ->
+                        csv.writeRow(row.attempt(), user, row.questionId(), row.answerId(), row.answerText()));
+                RowCursor.forEach(connection, FIND_LIVE, stmt -> stmt.setInt(1, testId),
+                        ShardedGradebookExporter::mapLive, live::add);
+                live.flush();
+
+                Chunk<Archived> archived = new Chunk<>(users, Archived::attempt, (row, user) ->
+                        csv.writeArchived(row.attempt(), user, answers(shardSegments, row)));
+                RowCursor.forEach(connection, FIND_ARCHIVED, stmt -> stmt.setInt(1, testId),
+                        ShardedGradebookExporter::mapArchived, archived::add);
+                archived.flush();
+                return null;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error exporting results for test " + testId + " on shard " + shardId, e);
+            }
+        });
+    }
+
+    private static List<ArchivedAttempt.Answer> answers(SegmentStore segments, Archived archived) {
+        int attemptId = archived.attempt().id();
+        return segments.read(archived.segment(), attemptId)
+                .map(ArchivedAttempt::answers)
+                .orElseThrow(() -> new IllegalStateException(
+                        "Archived attempt " + attemptId + " is missing from segment " + archived.segment()));
+    }
+
+    private static GradebookCsv.Attempt mapAttempt(ResultSet rs) throws SQLException {
+        return new GradebookCsv.Attempt(
+                rs.getInt("id"),
+                rs.getInt("user_id"),
+                rs.getObject("attempt_number", Integer.class),
+                rs.getString("start_time"),
+                rs.getString("end_time"),
+                rs.getObject("score", Integer.class));
+    }
+
+    private static Live mapLive(ResultSet rs) throws SQLException {
+        return new Live(
+                mapAttempt(rs),
+                rs.getObject("question_id", Integer.class),
+                rs.getObject("answer_id", Integer.class),
+                rs.getString("answer_text"));
+    }
+
+    private static Archived mapArchived(ResultSet rs) throws SQLException {
+        return new Archived(mapAttempt(rs), rs.getLong("segment"));
+    }
+
+    /**
+     * Holds up to a fetch's worth of rows, then reads their users from the reference
+     * database in one query and writes them out in order. Rows of users who no longer
+     * exist are dropped, as the join on a single database would drop them.
+     */
+    private static final class Chunk<T> {
+        private final Connection users;
+        private final Function<T, GradebookCsv.Attempt> attempt;
+        private final BiConsumer<T, GradebookCsv.User> writer;
+        private final List<T> rows = new ArrayList<>();
+
+        Chunk(Connection users, Function<T, GradebookCsv.Attempt> attempt, BiConsumer<T, GradebookCsv.User> writer) {
+            this.users = users;
+            this.attempt = attempt;
+            this.writer = writer;
+        }
+
+        void add(T row) {
+            rows.add(row);
+            if (rows.size() >= RowCursor.FETCH_SIZE) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            Set<Integer> userIds = new LinkedHashSet<>();
+            for (T row : rows) {
+                userIds.add(attempt.apply(row).userId());
+            }
+            Map<Integer, GradebookCsv.User> found = findUsers(userIds);
+            for (T row : rows) {
+                GradebookCsv.User user = found.get(attempt.apply(row).userId());
+                if (user != null) {
+                    writer.accept(row, user);
+                }
+            }
+            rows.clear();
+        }
+
+        private Map<Integer, GradebookCsv.User> findUsers(Set<Integer> ids) {
+            Map<Integer, GradebookCsv.User> found = new HashMap<>();
+            try (PreparedStatement stmt = users.prepareStatement(FIND_USERS)) {
+                stmt.setArray(1, users.createArrayOf("integer", ids.toArray()));
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    found.put(rs.getInt("id"), new GradebookCsv.User(
+                            rs.getInt("id"),
+                            rs.getString("email"),
+                            rs.getString("first_name"),
+                            rs.getString("last_name")));
+                }
+                return found;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error finding users in the reference database", e);
+            }
+        }
+    }
+}
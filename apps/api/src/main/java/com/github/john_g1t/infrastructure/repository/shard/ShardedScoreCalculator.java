@@ -0,0 +1,89 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.repository.ScoreCalculator;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The chosen options are on the attempt's shard and their scores in the reference
+ * database, so the sum takes a round trip to each. Locking the attempt row first keeps two
+ * concurrent finishes from both scoring it while a unit of work holds the lock.
+ */
+public class ShardedScoreCalculator implements ScoreCalculator {
+    private static final String LOCK_UNFINISHED = "SELECT id FROM test_attempts " +
+            "WHERE id = ? AND start_time = ? AND end_time IS NULL FOR UPDATE";
+    private static final String FIND_CHOSEN = "SELECT answer_id FROM user_answers " +
+            "WHERE attempt_id = ? AND attempt_start = ? AND answer_id IS NOT NULL";
+    // unnest keeps duplicates, the same way the join in PostgresScoreCalculator counts them
+    private static final String SUM_SCORES = "SELECT COALESCE(SUM(o.score), 0)::integer " +
+            "FROM unnest(?::integer[]) AS chosen (id) JOIN answer_options o ON o.id = chosen.id";
+    private static final String FINISH = "UPDATE test_attempts SET end_time = ?, score = ? " +
+            "WHERE id = ? AND start_time = ? AND end_time IS NULL RETURNING score";
+
+    private final ShardRouter router;
+    private final ConnectionFactory reference;
+
+    public ShardedScoreCalculator(ShardRouter router, ConnectionFactory reference) {
+        this.router = router;
+        this.reference = reference;
+    }
+
+    @Override
+    public Optional<Integer> finishAttempt(Integer attemptId, ZonedDateTime attemptStart, ZonedDateTime endTime) {
+        if (!router.ownsId(attemptId)) {
+            return Optional.empty();
+        }
+        try (Connection shard = router.shard(router.shardForId(attemptId)).getConnection()) {
+            try (PreparedStatement stmt = shard.prepareStatement(LOCK_UNFINISHED)) {
+                stmt.setInt(1, attemptId);
+                stmt.setObject(2, attemptStart.toOffsetDateTime());
+                if (!stmt.executeQuery().next()) {
+                    return Optional.empty();
+                }
+            }
+            List<Integer> chosen = new ArrayList<>();
+            try (PreparedStatement stmt = shard.prepareStatement(FIND_CHOSEN)) {
+                stmt.setInt(1, attemptId);
+                stmt.setObject(2, attemptStart.toOffsetDateTime());
+                ResultSet rs = stmt.executeQuery();
+                while (rs.next()) {
+                    chosen.add(rs.getInt(1));
+                }
+            }
+            int score = sumScores(chosen);
+            try (PreparedStatement stmt = shard.prepareStatement(FINISH)) {
+                stmt.setObject(1, endTime.toOffsetDateTime());
+                stmt.setInt(2, score);
+                stmt.setInt(3, attemptId);
+                stmt.setObject(4, attemptStart.toOffsetDateTime());
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    return Optional.of(rs.getInt(1));
+                }
+                return Optional.empty();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error scoring test attempt", e);
+        }
+    }
+
+    private int sumScores(List<Integer> optionIds) throws SQLException {
+        if (optionIds.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = reference.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(SUM_SCORES)) {
+            stmt.setArray(1, connection.createArrayOf("integer", optionIds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAttemptStats;
+import com.github.john_g1t.domain.repository.TestAttemptRepository;
+import com.github.john_g1t.infrastructure.repository.postgres.PostgresTestAttemptRepository;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Sends each call to the shard of the user or of the attempt id, and scatters the per-test
+ * queries and counts to every shard, merging what comes back.
+ */
+public class ShardedTestAttemptRepository implements TestAttemptRepository {
+    private final ShardRouter router;
+    private final List<TestAttemptRepository> shards = new ArrayList<>();
+
+    public ShardedTestAttemptRepository(ShardRouter router) {
+        this.router = router;
+        for (int shardId : router.shardIds()) {
+            shards.add(new PostgresTestAttemptRepository(router.shard(shardId)));
+        }
+    }
+
+    @Override
+    public Integer save(TestAttempt attempt) {
+        if (attempt.getId() == null) {
+            return forUser(attempt.getUserId()).save(attempt);
+        }
+        return forId(attempt.getId()).save(attempt);
+    }
+
+    @Override
+    public Optional<Integer> insertNextAttempt(TestAttempt attempt, Integer maxAttempts) {
+        return forUser(attempt.getUserId()).insertNextAttempt(attempt, maxAttempts);
+    }
+
+    @Override
+    public Optional<TestAttempt> findById(Integer id) {
+        if (!router.ownsId(id)) {
+            return Optional.empty();
+        }
+        return forId(id).findById(id);
+    }
+
+    @Override
+    public List<TestAttempt> findByUserId(Integer userId) {
+        return forUser(userId).findByUserId(userId);
+    }
+
+    @Override
+    public List<TestAttempt> findByTestId(Integer testId) {
+        List<TestAttempt> attempts = new ArrayList<>();
+        router.scatter(shardId -> shards.get(shardId).findByTestId(testId)).forEach(attempts::addAll);
+        attempts.sort(Comparator.comparing(TestAttempt::getId));
+        return attempts;
+    }
+
+
+    @Override
+    public List<TestAttempt> findByUserAndTest(Integer userId, Integer testId) {
+        return forUser(userId).findByUserAndTest(userId, testId);
+    }
+
+    @Override
+    public TestAttemptStats aggregateForTest(Integer testId, int passThreshold) {
+        return merge(router.scatter(shardId -> shards.get(shardId).aggregateForTest(testId, passThreshold)));
+    }
+
+    @Override
+    public long count() {
+        return sum(router.scatter(shardId -> shards.get(shardId).count()));
+    }
+
+    @Override
+    public long countInProgress() {
+        return sum(router.scatter(shardId -> shards.get(shardId).countInProgress()));
+    }
+
+    @Override
+    public long countFinishedBetween(ZonedDateTime from, ZonedDateTime to) {
+        return sum(router.scatter(shardId -> shards.get(shardId).countFinishedBetween(from, to)));
+    }
+
+    @Override
+    public long estimateCount() {
+        return sum(router.scatter(shardId -> shards.get(shardId).estimateCount()));
+    }
+
+    @Override
+    public void delete(Integer id) {
+        forId(id).delete(id);
+    }
+
+    private TestAttemptRepository forUser(Integer userId) {
+        return shards.get(router.shardForUser(userId));
+    }
+
+    private TestAttemptRepository forId(Integer id) {
+        return shards.get(router.shardForId(id));
+    }
+
+    private static long sum(List<Long> counts) {
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    // Means and variances combine weighted by the number of scored attempts on each shard
+    static TestAttemptStats merge(List<TestAttemptStats> parts) {
+        long total = 0;
+        long completed = 0;
+        long scored = 0;
+        long passed = 0;
+        double sum = 0;
+        double sumSquares = 0;
+        Integer max = null;
+        Integer min = null;
+        for (TestAttemptStats part : parts) {
+            total += part.totalAttempts();
+            completed += part.completedAttempts();
+            scored += part.scoredAttempts();
+            passed += part.passedAttempts();
+            sum += part.averageScore() * part.scoredAttempts();
+            sumSquares += (part.scoreStdDev() * part.scoreStdDev() + part.averageScore() * part.averageScore())
+                    * part.scoredAttempts();
+            if (part.maxScore() != null) {
+                max = max == null ? part.maxScore() : Math.max(max, part.maxScore());
+            }
+            if (part.minScore() != null) {
+                min = min == null ? part.minScore() : Math.min(min, part.minScore());
+            }
+        }
+        double average = scored > 0 ? sum / scored : 0.0;
+        double variance = scored > 0 ? Math.max(0.0, sumSquares / scored - average * average) : 0.0;
+        return new TestAttemptStats(total, completed, scored, average, Math.sqrt(variance), max, min, passed);
+    }
+}
@@ -0,0 +1,137 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.model.TestStats;
+import com.github.john_g1t.domain.repository.TestStatsRepository;
+import com.github.john_g1t.domain.repository.UnitOfWork;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.PostgresTestStatsRepository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The rollup stays in the reference database and is kept up to date the same way as
+ * without shards. Only rebuild differs: the attempts are totalled on each shard, against
+ * pass thresholds worked out from the reference questions, and added up there.
+ */
+public class ShardedTestStatsRepository implements TestStatsRepository {
+    private static final String LOCK = "LOCK TABLE test_stats IN EXCLUSIVE MODE";
+    private static final String DELETE_ALL = "DELETE FROM test_stats";
+    private static final String INSERT_EMPTY = "INSERT INTO test_stats (test_id, max_possible_score) " +
+            "SELECT t.id, COALESCE(SUM(q.max_points), 0) FROM tests t LEFT JOIN questions q ON q.test_id = t.id " +
+            "GROUP BY t.id";
+    private static final String FIND_THRESHOLDS = "SELECT test_id, " +
+            "floor(CASE WHEN max_possible_score > 0 THEN max_possible_score ELSE ? END * ?)::integer AS threshold " +
+            "FROM test_stats";
+    private static final String SHARD_TOTALS = "SELECT a.test_id, COUNT(*) AS attempt_count, " +
+            "COUNT(a.end_time) AS completed_count, " +
+            "COUNT(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS scored_count, " +
+            "COALESCE(SUM(a.score) FILTER (WHERE a.end_time IS NOT NULL), 0) AS score_sum, " +
+            "COALESCE(SUM(a.score::bigint * a.score) FILTER (WHERE a.end_time IS NOT NULL), 0) AS score_sum_squares, " +
+            "MIN(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS min_score, " +
+            "MAX(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS max_score, " +
+            "COUNT(*) FILTER (WHERE a.end_time IS NOT NULL AND a.score >= t.threshold) AS pass_count " +
+            "FROM (SELECT test_id, end_time, score FROM test_attempts " +
+            "UNION ALL SELECT test_id, end_time, score FROM archived_attempts) a " +
+            "JOIN unnest(?::integer[], ?::integer[]) AS t (test_id, threshold) ON t.test_id = a.test_id " +
+            "GROUP BY a.test_id";
+    private static final String ADD_TOTALS = "UPDATE test_stats SET " +
+            "attempt_count = attempt_count + ?, completed_count = completed_count + ?, " +
+            "scored_count = scored_count + ?, score_sum = score_sum + ?, " +
+            "score_sum_squares = score_sum_squares + ?, " +
+            "min_score = LEAST(min_score, ?), max_score = GREATEST(max_score, ?), " +
+            "pass_count = pass_count + ?, updated_at = now() " +
+            "WHERE test_id = ?";
+
+    private final PostgresTestStatsRepository delegate;
+    private final ConnectionFactory reference;
+    private final UnitOfWork referenceUnitOfWork;
+    private final ShardRouter router;
+
+    public ShardedTestStatsRepository(ConnectionFactory reference, UnitOfWork referenceUnitOfWork, ShardRouter router) {
+        this.delegate = new PostgresTestStatsRepository(reference, referenceUnitOfWork);
+        this.reference = reference;
+        this.referenceUnitOfWork = referenceUnitOfWork;
+        this.router = router;
+    }
+
+    @Override
+    public Optional<TestStats> findByTestId(Integer testId) {
+        return delegate.findByTestId(testId);
+    }
+
+    @Override
+    public void recordAttemptFinished(Integer testId, ZonedDateTime startTime, int score, boolean passed) {
+        delegate.recordAttemptFinished(testId, startTime, score, passed);
+    }
+
+    @Override
+    public void refreshMaxPossibleScore(Integer testId) {
+        delegate.refreshMaxPossibleScore(testId);
+    }
+
+    @Override
+    public int rebuild() {
+        return referenceUnitOfWork.execute(() -> {
+            try (Connection connection = reference.getConnection()) {
+                int tests;
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(LOCK);
+                    stmt.executeUpdate(DELETE_ALL);
+                    tests = stmt.executeUpdate(INSERT_EMPTY);
+                }
+                List<Integer> testIds = new ArrayList<>();
+                List<Integer> thresholds = new ArrayList<>();
+                try (PreparedStatement stmt = connection.prepareStatement(FIND_THRESHOLDS)) {
+                    stmt.setInt(1, TestStats.DEFAULT_MAX_SCORE);
+                    stmt.setDouble(2, TestStats.PASS_RATIO);
+                    ResultSet rs = stmt.executeQuery();
+                    while (rs.next()) {
+                        testIds.add(rs.getInt("test_id"));
+                        thresholds.add(rs.getInt("threshold"));
+                    }
+                }
+                // Writers wait on the lock above, so nothing is counted twice or missed
+                try (PreparedStatement add = connection.prepareStatement(ADD_TOTALS)) {
+                    for (int shardId : router.shardIds()) {
+                        addShardTotals(shardId, testIds, thresholds, add);
+                    }
+                    add.executeBatch();
+                }
+                return tests;
+            } catch (SQLException e) {
+                throw new RuntimeException("Error rebuilding test stats", e);
+            }
+        });
+    }
+
+    private void addShardTotals(int shardId, List<Integer> testIds, List<Integer> thresholds,
+                                PreparedStatement add) throws SQLException {
+        try (Connection shard = router.shard(shardId).getConnection();
+             PreparedStatement stmt = shard.prepareStatement(SHARD_TOTALS)) {
+            stmt.setArray(1, shard.createArrayOf("integer", testIds.toArray()));
+            stmt.setArray(2, shard.createArrayOf("integer", thresholds.toArray()));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                add.setLong(1, rs.getLong("attempt_count"));
+                add.setLong(2, rs.getLong("completed_count"));
+                add.setLong(3, rs.getLong("scored_count"));
+                add.setLong(4, rs.getLong("score_sum"));
+                add.setLong(5, rs.getLong("score_sum_squares"));
+                add.setObject(6, rs.getObject("min_score", Integer.class), Types.INTEGER);
+                add.setObject(7, rs.getObject("max_score", Integer.class), Types.INTEGER);
+                add.setLong(8, rs.getLong("pass_count"));
+                add.setInt(9, rs.getInt("test_id"));
+                add.addBatch();
+            }
+        }
+    }
+}
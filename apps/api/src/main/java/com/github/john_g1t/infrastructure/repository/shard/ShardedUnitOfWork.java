@@ -0,0 +1,45 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.repository.UnitOfWork;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Opens a unit of work on the reference database and on every shard, so whichever
+ * repositories the work touches join one. Each database leases its connection on first
+ * use, so only the shards the work reaches take a connection and commit. Shards commit
+ * first and the reference database last; a failure in between leaves shard writes
+ * committed without the reference side, which the stats rebuild reconciles. Reads and
+ * async work stay on the reference database.
+ */
+public class ShardedUnitOfWork implements UnitOfWork {
+    private final UnitOfWork reference;
+    private final List<? extends UnitOfWork> shards;
+
+    public ShardedUnitOfWork(UnitOfWork reference, List<? extends UnitOfWork> shards) {
+        this.reference = reference;
+        this.shards = shards;
+    }
+
+    @Override
+    public <T> T execute(Supplier<T> work) {
+        Supplier<T> nested = work;
+        for (UnitOfWork shard : shards) {
+            Supplier<T> inner = nested;
+            nested = () -> shard.execute(inner);
+        }
+        return reference.execute(nested);
+    }
+
+    @Override
+    public <T> T readOnly(Supplier<T> work) {
+        return reference.readOnly(work);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> async(Supplier<T> work) {
+        return reference.async(work);
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.UserAnswerRepository;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.postgres.PostgresUserAnswerRepository;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Answers live on the shard of their attempt, which the attempt id names. Each shard
+ * archives into a directory of its own, since segment numbers are per database.
+ */
+public class ShardedUserAnswerRepository implements UserAnswerRepository {
+    private final ShardRouter router;
+    private final List<UserAnswerRepository> shards = new ArrayList<>();
+
+    public ShardedUserAnswerRepository(ShardRouter router, SegmentStore segmentStore) {
+        this.router = router;
+        for (int shardId : router.shardIds()) {
+            shards.add(new PostgresUserAnswerRepository(router.shard(shardId), segmentStore.forShard(shardId)));
+        }
+    }
+
+    @Override
+    public Integer save(UserAnswer answer) {
+        return forId(answer.getAttemptId()).save(answer);
+    }
+
+    @Override
+    public Integer upsert(UserAnswer answer, ZonedDateTime attemptStart) {
+        return forId(answer.getAttemptId()).upsert(answer, attemptStart);
+    }
+
+    @Override
+    public List<Integer> upsertAll(List<UserAnswer> answers, ZonedDateTime attemptStart) {
+        return perShard(answers, (shard, batch) -> shard.upsertAll(batch, attemptStart));
+    }
+
+    @Override
+    public Optional<UserAnswer> findById(Integer id) {
+        if (!router.ownsId(id)) {
+            return Optional.empty();
+        }
+        return forId(id).findById(id);
+    }
+
+    @Override
+    public List<UserAnswer> findByAttemptId(Integer attemptId) {
+        if (!router.ownsId(attemptId)) {
+            return new ArrayList<>();
+        }
+        return forId(attemptId).findByAttemptId(attemptId);
+    }
+
+    @Override
+    public void delete(Integer id) {
+        forId(id).delete(id);
+    }
+
+    // One batch per shard, keeping the order of answers within it; ids come back in input order
+    private List<Integer> perShard(List<UserAnswer> answers, BiConsumer<UserAnswerRepository, List<UserAnswer>> write) {
+        Map<Integer, List<UserAnswer>> byShard = new LinkedHashMap<>();
+        for (UserAnswer answer : answers) {
+            byShard.computeIfAbsent(router.shardForId(answer.getAttemptId()), shardId -> new ArrayList<>()).add(answer);
+        }
+        byShard.forEach((shardId, batch) -> write.accept(shards.get(shardId), batch));
+
+        List<Integer> ids = new ArrayList<>(answers.size());
+        for (UserAnswer answer : answers) {
+            ids.add(answer.getId());
+        }
+        return ids;
+    }
+
+    private UserAnswerRepository forId(Integer id) {
+        return shards.get(router.shardForId(id));
+    }
+}
@@ -5,7 +5,9 @@ import com.github.john_g1t.domain.model.TestAttempt;
 import com.github.john_g1t.domain.model.User;
 import com.github.john_g1t.infrastructure.ApplicationContext;
 import com.github.john_g1t.presentation.console.command.CreateTestCommand;
+import com.github.john_g1t.presentation.console.command.ImportQuestionBankCommand;
 import com.github.john_g1t.presentation.console.command.MenuCommand;
+import com.github.john_g1t.presentation.console.command.RebuildTestStatsCommand;
 import com.github.john_g1t.presentation.console.command.RegisterUserCommand;
 import com.github.john_g1t.presentation.console.command.TakeTestCommand;
 import com.github.john_g1t.presentation.console.input.ConsoleInputReader;
@@ -14,6 +16,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ConsoleMenu {
     private final ConsoleView view;
@@ -84,6 +88,10 @@ public class ConsoleMenu {
         ));
         commands.put(5, this::handleViewMyResults);
         commands.put(6, this::handleLogout);
+        commands.put(7, new ImportQuestionBankCommand(
+            view, reader, context.getImportQuestionBankUseCase(), currentUser
+        ));
+        commands.put(8, new RebuildTestStatsCommand(view, reader, context.getRebuildTestStatsUseCase()));
 
         MenuCommand command = commands.get(choice);
         if (command != null) {
@@ -119,7 +127,8 @@ public class ConsoleMenu {
 
     private void handleViewMyResults() {
         List<TestAttempt> attempts = context.getAttemptService().getUserAttempts(currentUser.getId());
-        List<Test> tests = context.getTestService().getAllTests();
+        Set<Integer> testIds = attempts.stream().map(TestAttempt::getTestId).collect(Collectors.toSet());
+        List<Test> tests = context.getTestService().getTests(testIds);
         view.showTestResults(attempts, tests);
     }
 
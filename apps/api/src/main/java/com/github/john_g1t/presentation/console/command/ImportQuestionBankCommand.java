@@ -0,0 +1,50 @@
+package com.github.john_g1t.presentation.console.command;
+
+import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.app.usecase.test.ImportQuestionBankRequest;
+import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.repository.QuestionBankImporter.ImportResult;
+import com.github.john_g1t.infrastructure.importer.QuestionBankParser;
+import com.github.john_g1t.presentation.console.input.ConsoleInputReader;
+import com.github.john_g1t.presentation.view.ConsoleView;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ImportQuestionBankCommand extends BaseCommand {
+    private final UseCase<ImportQuestionBankRequest, ImportResult> importQuestionBankUseCase;
+    private final User currentUser;
+
+    public ImportQuestionBankCommand(
+        ConsoleView view,
+        ConsoleInputReader reader,
+        UseCase<ImportQuestionBankRequest, ImportResult> importQuestionBankUseCase,
+        User currentUser
+    ) {
+        super(view, reader);
+        this.importQuestionBankUseCase = importQuestionBankUseCase;
+        this.currentUser = currentUser;
+    }
+
+    @Override
+    public void execute() {
+        try {
+            Path path = Path.of(reader.readLine("Enter path to the question bank file (.json or .csv): "));
+            String format = path.getFileName().toString().toLowerCase().endsWith(".csv") ? "csv" : "json";
+
+            long started = System.currentTimeMillis();
+            ImportResult result;
+            try (Reader file = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                var request = new ImportQuestionBankRequest(currentUser.getId(), QuestionBankParser.parse(file, format));
+                result = importQuestionBankUseCase.execute(request);
+            }
+
+            view.showSuccess("Imported " + result.tests() + " tests, " + result.questions() + " questions and " +
+                    result.answerOptions() + " answer options in " + (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            handleError("Failed to import question bank", e);
+        }
+    }
+}
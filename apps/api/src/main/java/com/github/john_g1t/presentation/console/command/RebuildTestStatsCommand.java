@@ -0,0 +1,30 @@
+package com.github.john_g1t.presentation.console.command;
+
+import com.github.john_g1t.app.usecase.UseCase;
+import com.github.john_g1t.presentation.console.input.ConsoleInputReader;
+import com.github.john_g1t.presentation.view.ConsoleView;
+
+public class RebuildTestStatsCommand extends BaseCommand {
+    private final UseCase<Void, Integer> rebuildTestStatsUseCase;
+
+    public RebuildTestStatsCommand(
+        ConsoleView view,
+        ConsoleInputReader reader,
+        UseCase<Void, Integer> rebuildTestStatsUseCase
+    ) {
+        super(view, reader);
+        this.rebuildTestStatsUseCase = rebuildTestStatsUseCase;
+    }
+
+    @Override
+    public void execute() {
+        try {
+            long started = System.currentTimeMillis();
+            int tests = rebuildTestStatsUseCase.execute(null);
+            view.showSuccess("Rebuilt statistics for " + tests + " tests in " +
+                    (System.currentTimeMillis() - started) + " ms");
+        } catch (Exception e) {
+            handleError("Failed to rebuild test statistics", e);
+        }
+    }
+}
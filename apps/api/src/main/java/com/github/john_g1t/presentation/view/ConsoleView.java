@@ -30,6 +30,8 @@ public class ConsoleView {
         System.out.println("4. Take Test");
         System.out.println("5. View My Results");
         System.out.println("6. Logout");
+        System.out.println("7. Import Question Bank");
+        System.out.println("8. Rebuild Test Statistics");
     }
 
     public void showTests(List<Test> tests) {
@@ -2,25 +2,54 @@ package com.github.john_g1t.presentation.web.listener;
 
 import com.github.john_g1t.domain.service.PasswordGenerator;
 import com.github.john_g1t.infrastructure.ApplicationContext;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.ConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.AttemptArchiver;
+import com.github.john_g1t.infrastructure.repository.postgres.MigrationRunner;
+import com.github.john_g1t.infrastructure.repository.postgres.PartitionMaintainer;
 import com.github.john_g1t.infrastructure.repository.postgres.PostgresConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.RoutingConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.shard.ShardSequences;
 import jakarta.servlet.ServletContext;
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @WebListener
 public class AppContextListener implements ServletContextListener {
 
     private static final String APP_CONTEXT_KEY = "applicationContext";
 
+    private ConnectionFactory connectionFactory;
+    private List<PostgresConnectionFactory> shards = List.of();
+    private ApplicationContext appContext;
+    private final List<PartitionMaintainer> partitionMaintainers = new ArrayList<>();
+    private final List<AttemptArchiver> attemptArchivers = new ArrayList<>();
+
     @Override
     public void contextInitialized(ServletContextEvent sce) {
         ServletContext ctx = sce.getServletContext();
 
         try {
             initializePasswordGenerator();
-            PostgresConnectionFactory connectionFactory = initializePostgres();
-            ApplicationContext appContext = new ApplicationContext(connectionFactory);
+            PostgresConnectionFactory primary = initializePostgres();
+            new MigrationRunner(primary).migrate();
+            startMaintenance(primary, SegmentStore.fromEnvironment());
+            shards = initializeShards();
+            for (int shardId = 0; shardId < shards.size(); shardId++) {
+                PostgresConnectionFactory shard = shards.get(shardId);
+                MigrationRunner.forShard(shard).migrate();
+                ShardSequences.configure(shard, shardId);
+                startMaintenance(shard, SegmentStore.fromEnvironment().forShard(shardId));
+            }
+            connectionFactory = withReplica(primary);
+            appContext = shards.isEmpty()
+                    ? new ApplicationContext(connectionFactory)
+                    : new ApplicationContext(connectionFactory, shards);
 
             ctx.setAttribute(APP_CONTEXT_KEY, appContext);
 
@@ -36,6 +65,17 @@ public class AppContextListener implements ServletContextListener {
     public void contextDestroyed(ServletContextEvent sce) {
         ServletContext ctx = sce.getServletContext();
         ctx.removeAttribute(APP_CONTEXT_KEY);
+        partitionMaintainers.forEach(PartitionMaintainer::close);
+        attemptArchivers.forEach(AttemptArchiver::close);
+        // The context owns the databases once built, along with the executors on top of them
+        if (appContext != null) {
+            appContext.close();
+        } else {
+            shards.forEach(PostgresConnectionFactory::closeConnection);
+            if (connectionFactory != null) {
+                connectionFactory.closeConnection();
+            }
+        }
         System.out.println("ApplicationContext destroyed");
     }
 
@@ -68,6 +108,68 @@ public class AppContextListener implements ServletContextListener {
         return new PostgresConnectionFactory(host, port, name, user, password);
     }
 
+    // Attempt shards are optional. DB_SHARDS lists them in a fixed order, each as a database
+    // name on the main server or as host:port/name; new shards are only ever appended.
+    private static List<PostgresConnectionFactory> initializeShards() {
+        String value = System.getenv("DB_SHARDS");
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<PostgresConnectionFactory> shards = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            String host = "postgres";
+            String port = System.getenv("DB_PORT");
+            String name = entry.trim();
+            int slash = name.indexOf('/');
+            if (slash != -1) {
+                String[] address = name.substring(0, slash).split(":");
+                host = address[0];
+                port = address.length > 1 ? address[1] : port;
+                name = name.substring(slash + 1);
+            }
+            shards.add(new PostgresConnectionFactory(host, port, name,
+                    System.getenv("DB_USER"), System.getenv("DB_PASSWORD")));
+        }
+        return shards;
+    }
+
+    private void startMaintenance(ConnectionFactory database, SegmentStore segmentStore) {
+        PartitionMaintainer partitionMaintainer = new PartitionMaintainer(database);
+        partitionMaintainer.start();
+        partitionMaintainers.add(partitionMaintainer);
+        AttemptArchiver attemptArchiver = new AttemptArchiver(database, segmentStore, archiveRetention());
+        attemptArchiver.start();
+        attemptArchivers.add(attemptArchiver);
+    }
+
+    // A streaming replica is optional; without DB_REPLICA_HOST every query goes to the primary
+    private static ConnectionFactory withReplica(PostgresConnectionFactory primary) {
+        String host = System.getenv("DB_REPLICA_HOST");
+        if (host == null || host.isBlank()) {
+            return primary;
+        }
+        String port = System.getenv("DB_REPLICA_PORT");
+        if (port == null) {
+            port = System.getenv("DB_PORT");
+        }
+        PostgresConnectionFactory replica = new PostgresConnectionFactory(host, port, System.getenv("DB_NAME"),
+                System.getenv("DB_USER"), System.getenv("DB_PASSWORD"));
+        return new RoutingConnectionFactory(primary, replica);
+    }
+
+    // Finished attempts older than this move to the archive
+    private static Duration archiveRetention() {
+        String days = System.getenv("ARCHIVE_RETENTION_DAYS");
+        if (days == null || days.isBlank()) {
+            return Duration.ofDays(365);
+        }
+        try {
+            return Duration.ofDays(Integer.parseInt(days.trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("ARCHIVE_RETENTION_DAYS environment variable must be an integer", e);
+        }
+    }
+
     private static void initializePasswordGenerator() {
         String salt = System.getenv("SALT");
         if (salt == null) {
@@ -0,0 +1,106 @@
+package com.github.john_g1t.presentation.web.servlet;
+
+import com.github.john_g1t.app.usecase.test.ImportQuestionBankRequest;
+import com.github.john_g1t.domain.repository.QuestionBankImporter.ImportResult;
+import com.github.john_g1t.infrastructure.importer.QuestionBankParser;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@WebServlet(name = "AdminServlet", urlPatterns = {"/admin/*"})
+public class AdminServlet extends BaseServlet {
+    // Comma-separated emails in ADMIN_EMAILS; without it nobody may use these endpoints
+    private static final Set<String> ADMIN_EMAILS = adminEmails();
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        setCorsHeaders(response);
+        Integer userId = getCurrentUserId(request);
+        if (userId == null) {
+            sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
+        }
+        if (!isAdmin(userId)) {
+            sendError(response, HttpServletResponse.SC_FORBIDDEN, "Admin access required");
+            return;
+        }
+
+        String pathInfo = request.getPathInfo();
+
+        try {
+            // Route: /admin/import?format=json|csv
+            if ("/import".equals(pathInfo)) {
+                handleImportQuestionBank(request, response, userId);
+            }
+            // Route: /admin/rebuild-stats
+            else if ("/rebuild-stats".equals(pathInfo)) {
+                handleRebuildTestStats(response);
+            } else {
+                sendError(response, HttpServletResponse.SC_NOT_FOUND, "Endpoint not found");
+            }
+        } catch (Exception e) {
+            sendError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Internal server error: " + e.getMessage());
+        }
+    }
+
+    private boolean isAdmin(Integer userId) {
+        return getAppContext().getUserService().findById(userId)
+                .map(user -> ADMIN_EMAILS.contains(user.getEmail().toLowerCase(Locale.ROOT)))
+                .orElse(false);
+    }
+
+    private static Set<String> adminEmails() {
+        String value = System.getenv("ADMIN_EMAILS");
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(email -> email.trim().toLowerCase(Locale.ROOT))
+                .filter(email -> !email.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private void handleRebuildTestStats(HttpServletResponse response) throws IOException {
+        Integer tests = getAppContext().getRebuildTestStatsUseCase().execute(null);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("tests", tests);
+        sendSuccess(response, result);
+    }
+
+    // The body is the raw file, parsed while it is still being uploaded
+    private void handleImportQuestionBank(HttpServletRequest request, HttpServletResponse response,
+                                          Integer userId) throws IOException {
+        String format = request.getParameter("format");
+        if (format == null && request.getContentType() != null && request.getContentType().startsWith("text/csv")) {
+            format = "csv";
+        }
+
+        try {
+            if (request.getCharacterEncoding() == null) {
+                request.setCharacterEncoding("UTF-8");
+            }
+            var importRequest = new ImportQuestionBankRequest(
+                    userId, QuestionBankParser.parse(request.getReader(), format)
+            );
+            ImportResult imported = getAppContext().getImportQuestionBankUseCase().execute(importRequest);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("tests", imported.tests());
+            result.put("questions", imported.questions());
+            result.put("answerOptions", imported.answerOptions());
+            sendSuccess(response, result);
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+}
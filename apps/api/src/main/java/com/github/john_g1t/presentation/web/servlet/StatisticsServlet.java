@@ -8,6 +8,9 @@ import jakarta.servlet.annotation.WebServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
 import java.util.*;
 
 @WebServlet(name = "StatisticsServlet", urlPatterns = {"/statistics/*"})
@@ -39,13 +42,22 @@ public class StatisticsServlet extends BaseServlet {
         ApplicationContext ctx = getAppContext();
         UserService userService = ctx.getUserService();
         TestService testService = ctx.getTestService();
+        TestAttemptService attemptService = ctx.getAttemptService();
 
-        int totalUsers = userService.getAllUsers().size();
-        int totalTests = testService.getAllTests().size();
+        // Totals may come from planner statistics when exact counts are too slow to matter
+        boolean estimate = Boolean.parseBoolean(request.getParameter("estimate"));
+        ZoneId zone = ZoneId.systemDefault();
+        ZonedDateTime startOfToday = LocalDate.now(zone).atStartOfDay(zone);
 
         Map<String, Object> statistics = new HashMap<>();
-        statistics.put("totalUsers", totalUsers);
-        statistics.put("totalTests", totalTests);
+        statistics.put("totalUsers", userService.countUsers(estimate));
+        statistics.put("totalTests", testService.countTests(estimate));
+        statistics.put("activeTests", testService.countActiveTests());
+        statistics.put("totalAttempts", attemptService.countAttempts(estimate));
+        statistics.put("attemptsInProgress", attemptService.countAttemptsInProgress());
+        statistics.put("attemptsFinishedToday",
+                attemptService.countAttemptsFinishedBetween(startOfToday, startOfToday.plusDays(1)));
+        statistics.put("estimated", estimate);
 
         sendSuccess(response, statistics);
     }
@@ -3,6 +3,8 @@ package com.github.john_g1t.presentation.web.servlet;
 import com.github.john_g1t.app.usecase.UseCase;
 import com.github.john_g1t.app.usecase.attempt.*;
 import com.github.john_g1t.domain.model.*;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.UnitOfWork;
 import com.github.john_g1t.domain.service.attempt.TestAttemptService;
 import com.github.john_g1t.domain.service.test.TestService;
 import com.github.john_g1t.infrastructure.ApplicationContext;
@@ -13,6 +15,7 @@ import java.io.IOException;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @WebServlet(name = "TestAttemptServlet", urlPatterns = {"/attempts/*"})
@@ -76,6 +79,9 @@ public class TestAttemptServlet extends BaseServlet {
         try {
             if (pathInfo != null && pathInfo.equals("/start")) {
                 handleStartAttempt(request, response, userId);
+            } else if (pathInfo != null && pathInfo.matches("/\\d+/answers/batch")) {
+                Integer attemptId = parseIdFromPath(pathInfo, "/answers/batch");
+                handleSubmitAnswers(request, response, attemptId, userId);
             } else if (pathInfo != null && pathInfo.matches("/\\d+/answers")) {
                 Integer attemptId = parseIdFromPath(pathInfo, "/answers");
                 handleSubmitAnswer(request, response, attemptId, userId);
@@ -176,6 +182,54 @@ public class TestAttemptServlet extends BaseServlet {
         }
     }
 
+    private void handleSubmitAnswers(HttpServletRequest request, HttpServletResponse response,
+                                     Integer attemptId, Integer userId) throws IOException {
+        ApplicationContext ctx = getAppContext();
+        UseCase<SubmitAnswersRequest, Void> submitAnswersUseCase = ctx.getSubmitAnswersUseCase();
+        TestAttemptService attemptService = ctx.getAttemptService();
+
+        Optional<TestAttempt> attempt = attemptService.getAttempt(attemptId);
+        if (!attempt.isPresent()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Attempt not found");
+            return;
+        }
+
+        if (!attempt.get().getUserId().equals(userId)) {
+            sendError(response, HttpServletResponse.SC_FORBIDDEN, "Not your attempt");
+            return;
+        }
+
+        if (attempt.get().getEndTime() != null) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Attempt already finished");
+            return;
+        }
+
+        SubmitAnswersRequestDto answersRequest = readJson(request, SubmitAnswersRequestDto.class);
+
+        if (answersRequest.answers == null || answersRequest.answers.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Answers are required");
+            return;
+        }
+
+        try {
+            List<SubmitAnswersRequest.Answer> answers = answersRequest.answers.stream()
+                    .map(a -> new SubmitAnswersRequest.Answer(
+                            a.questionId,
+                            a.answerId,
+                            sanitizeInput(a.answerText)
+                    ))
+                    .collect(Collectors.toList());
+
+            submitAnswersUseCase.execute(new SubmitAnswersRequest(attemptId, answers));
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("submitted", answers.size());
+            sendSuccess(response, result);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        }
+    }
+
     private void handleFinishAttempt(HttpServletRequest request, HttpServletResponse response,
                                      Integer attemptId, Integer userId) throws IOException {
         ApplicationContext ctx = getAppContext();
@@ -239,7 +293,12 @@ public class TestAttemptServlet extends BaseServlet {
         ApplicationContext ctx = getAppContext();
         TestAttemptService attemptService = ctx.getAttemptService();
         TestService testService = ctx.getTestService();
+        UnitOfWork unitOfWork = ctx.getUnitOfWork();
 
+        // Answers only need the attempt id, so they load while the attempt and test do, and
+        // the questions load beside the test. A request holds at most three connections.
+        CompletableFuture<List<UserAnswer>> answersLookup =
+                unitOfWork.async(() -> attemptService.getAttemptAnswers(attemptId));
         Optional<TestAttempt> attempt = attemptService.getAttempt(attemptId);
         if (!attempt.isPresent()) {
             sendError(response, HttpServletResponse.SC_NOT_FOUND, "Attempt not found");
@@ -252,15 +311,16 @@ public class TestAttemptServlet extends BaseServlet {
         }
 
         TestAttempt att = attempt.get();
-        List<UserAnswer> answers = attemptService.getAttemptAnswers(attemptId);
+        CompletableFuture<Integer> questionsLookup =
+                unitOfWork.async(() -> testService.getQuestions(att.getTestId()).size());
+        Optional<Test> test = testService.getTest(att.getTestId());
+        int totalQuestions = test.isPresent() ? UnitOfWork.join(questionsLookup) : 0;
+        List<UserAnswer> answers = UnitOfWork.join(answersLookup);
 
         Set<Integer> answeredQuestions = answers.stream()
                 .map(UserAnswer::getQuestionId)
                 .collect(Collectors.toSet());
 
-        Optional<Test> test = testService.getTest(att.getTestId());
-        int totalQuestions = test.map(t -> testService.getQuestions(t.getId()).size()).orElse(0);
-
         Map<String, Object> result = new HashMap<>();
         result.put("id", att.getId());
         result.put("userId", att.getUserId());
@@ -350,29 +410,26 @@ public class TestAttemptServlet extends BaseServlet {
             return;
         }
 
-        TestAttempt att = attempt.get();
-        List<UserAnswer> userAnswers = attemptService.getAttemptAnswers(attemptId);
-
-        // Load all questions for the test
-        List<Question> questions = testService.getQuestions(att.getTestId());
-        Map<Integer, Question> questionMap = questions.stream()
-                .collect(Collectors.toMap(Question::getId, q -> q));
-
-        // Load all answer options for each question
-        Map<Integer, List<AnswerOption>> answerOptionsMap = new HashMap<>();
-        for (Question question : questions) {
-            List<AnswerOption> options = testService.getAnswerOptions(question.getId());
-            answerOptionsMap.put(question.getId(), options);
+        int limit = getIntParameter(request, "limit", 50);
+        String cursor = request.getParameter("cursor");
+
+        Page<AnswerDetail> page;
+        try {
+            page = attemptService.getAnswerDetails(attemptId, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
         }
 
-        // Build detailed answer information
-        List<Map<String, Object>> detailedAnswers = userAnswers.stream()
-                .map(ua -> convertAnswerToDetailedMap(ua, questionMap, answerOptionsMap))
+        List<Map<String, Object>> detailedAnswers = page.items().stream()
+                .map(this::convertAnswerDetailToMap)
                 .collect(Collectors.toList());
 
         Map<String, Object> result = new HashMap<>();
-        result.put("attempt", convertAttemptToMap(att, testService));
+        result.put("attempt", convertAttemptToMap(attempt.get(), testService));
         result.put("answers", detailedAnswers);
+        result.put("limit", limit);
+        result.put("nextCursor", page.nextCursor());
 
         sendSuccess(response, result);
     }
@@ -393,56 +450,16 @@ public class TestAttemptServlet extends BaseServlet {
         return map;
     }
 
-    private Map<String, Object> convertAnswerToDetailedMap(UserAnswer answer,
-                                                           Map<Integer, Question> questionMap,
-                                                           Map<Integer, List<AnswerOption>> answerOptionsMap) {
+    private Map<String, Object> convertAnswerDetailToMap(AnswerDetail answer) {
         Map<String, Object> map = new HashMap<>();
-        map.put("questionId", answer.getQuestionId());
-
-        // Get question details
-        Question question = questionMap.get(answer.getQuestionId());
-        if (question != null) {
-            map.put("questionText", question.getText());
-            map.put("maxScore", question.getMaxPoints());
-        } else {
-            map.put("questionText", "Unknown Question");
-            map.put("maxScore", 0);
-        }
-
-        // Get user's answer
-        map.put("userAnswerId", answer.getAnswerId());
-        map.put("userAnswerText", answer.getAnswerText());
-
-        // Get score earned and correct answer info
-        Integer scoreEarned = 0;
-        String correctAnswerText = null;
-
-        if (answer.getAnswerId() != null) {
-            List<AnswerOption> options = answerOptionsMap.get(answer.getQuestionId());
-            if (options != null) {
-                // Find the selected option
-                Optional<AnswerOption> selectedOption = options.stream()
-                        .filter(opt -> opt.getId().equals(answer.getAnswerId()))
-                        .findFirst();
-
-                if (selectedOption.isPresent()) {
-                    scoreEarned = selectedOption.get().getScore();
-                }
-
-                // Find the correct answer (highest score)
-                Optional<AnswerOption> correctOption = options.stream()
-                        .max(Comparator.comparing(opt -> opt.getScore() != null ? opt.getScore() : 0));
-
-                if (correctOption.isPresent()) {
-                    correctAnswerText = correctOption.get().getOptionText();
-                }
-            }
-        }
-
-        map.put("scoreEarned", scoreEarned);
-        map.put("correctAnswerText", correctAnswerText);
-        map.put("isCorrect", scoreEarned != null && scoreEarned > 0);
-
+        map.put("questionId", answer.questionId());
+        map.put("questionText", answer.questionText() != null ? answer.questionText() : "Unknown Question");
+        map.put("maxScore", answer.maxScore() != null ? answer.maxScore() : 0);
+        map.put("userAnswerId", answer.userAnswerId());
+        map.put("userAnswerText", answer.userAnswerText());
+        map.put("scoreEarned", answer.scoreEarned());
+        map.put("correctAnswerText", answer.correctAnswerText());
+        map.put("isCorrect", answer.isCorrect());
         return map;
     }
 
@@ -462,4 +479,8 @@ public class TestAttemptServlet extends BaseServlet {
         public Integer answerId;
         public String answerText;
     }
+
+    private static class SubmitAnswersRequestDto {
+        public List<SubmitAnswerRequestDto> answers;
+    }
 }
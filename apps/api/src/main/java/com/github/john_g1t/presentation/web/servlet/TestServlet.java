@@ -4,7 +4,10 @@ import com.github.john_g1t.app.usecase.UseCase;
 import com.github.john_g1t.app.usecase.test.CreateTestRequest;
 import com.github.john_g1t.domain.model.Question;
 import com.github.john_g1t.domain.model.Test;
-import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.TestAggregate;
+import com.github.john_g1t.domain.model.TestAttemptStats;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.TestQuery;
 import com.github.john_g1t.domain.service.attempt.TestAttemptService;
 import com.github.john_g1t.domain.service.test.TestService;
 import com.github.john_g1t.infrastructure.ApplicationContext;
@@ -54,6 +57,28 @@ public class TestServlet extends BaseServlet {
                 return;
             }
 
+            // Route: /tests/{id}/full
+            if (uri.contains("/tests/") && uri.endsWith("/full")) {
+                Integer testId = extractTestIdFromUri(uri);
+                if (testId != null) {
+                    handleGetFullTest(request, response, testId);
+                } else {
+                    sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid test ID");
+                }
+                return;
+            }
+
+            // Route: /tests/{id}/export.csv
+            if (uri.contains("/tests/") && uri.endsWith("/export.csv")) {
+                Integer testId = extractTestIdFromUri(uri);
+                if (testId != null) {
+                    handleExportResults(request, response, testId);
+                } else {
+                    sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid test ID");
+                }
+                return;
+            }
+
             // Route: /tests/{id}/statistics
             if (uri.endsWith("/statistics")) {
                 Integer testId = parseIdFromPath(pathInfo, "/statistics");
@@ -265,55 +290,38 @@ public class TestServlet extends BaseServlet {
         ApplicationContext ctx = getAppContext();
         TestService testService = ctx.getTestService();
 
-        int page = getIntParameter(request, "page", 1);
         int limit = getIntParameter(request, "limit", 20);
-        String activeParam = request.getParameter("active");
         String creatorIdParam = request.getParameter("creatorId");
         String search = request.getParameter("search");
+        Boolean active = "true".equalsIgnoreCase(request.getParameter("active")) ? Boolean.TRUE : null;
 
-        List<Test> allTests;
-
-        if ("true".equalsIgnoreCase(activeParam)) {
-            allTests = testService.getActiveTests();
-        } else if (creatorIdParam != null) {
-            try {
-                Integer creatorId = Integer.parseInt(creatorIdParam);
-                allTests = testService.getTestsByCreator(creatorId);
-            } catch (NumberFormatException e) {
-                sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid creator ID");
-                return;
-            }
-        } else {
-            allTests = testService.getAllTests();
+        Integer creatorId;
+        try {
+            creatorId = creatorIdParam != null ? Integer.parseInt(creatorIdParam) : null;
+        } catch (NumberFormatException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, "Invalid creator ID");
+            return;
         }
 
-        // Filter by search if provided
-        if (search != null && !search.isBlank()) {
-            String searchLower = search.toLowerCase();
-            allTests = allTests.stream()
-                    .filter(t -> t.getTitle().toLowerCase().contains(searchLower) ||
-                            (t.getDescription() != null &&
-                                    t.getDescription().toLowerCase().contains(searchLower)))
-                    .collect(Collectors.toList());
+        Page<Test> page;
+        try {
+            TestQuery query = new TestQuery(active, creatorId, request.getParameter("cursor"), limit);
+            page = search != null && !search.isBlank()
+                    ? testService.searchTests(search, query)
+                    : testService.findTests(query);
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
         }
 
-        int total = allTests.size();
-        int start = (page - 1) * limit;
-        int end = Math.min(start + limit, total);
-
-        List<Map<String, Object>> tests = new ArrayList<>();
-        if (start < total) {
-            tests = allTests.subList(start, end).stream()
-                    .map(this::convertTestToMap)
-                    .collect(Collectors.toList());
-        }
+        List<Map<String, Object>> tests = page.items().stream()
+                .map(this::convertTestToMap)
+                .collect(Collectors.toList());
 
         Map<String, Object> result = new HashMap<>();
         result.put("tests", tests);
-        result.put("total", total);
-        result.put("page", page);
         result.put("limit", limit);
-        result.put("totalPages", (int) Math.ceil((double) total / limit));
+        result.put("nextCursor", page.nextCursor());
 
         sendSuccess(response, result);
     }
@@ -440,65 +448,55 @@ public class TestServlet extends BaseServlet {
             return;
         }
 
-        // Get all attempts for this test
-        List<TestAttempt> attempts = attemptService.getByTestId(testId);
+        TestAttemptStats stats = attemptService.getTestStatistics(testId);
 
-        int totalAttempts = attempts.size();
-        int completedAttempts = 0;
-        double totalScore = 0;
-        int scoredAttempts = 0;
-        Integer maxScoreAchieved = null;
-        Integer minScoreAchieved = null;
-        int passedCount = 0;
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("testId", testId);
+        statistics.put("totalAttempts", stats.totalAttempts());
+        statistics.put("completedAttempts", stats.completedAttempts());
+        statistics.put("averageScore", Math.round(stats.averageScore() * 100.0) / 100.0);
+        statistics.put("scoreStdDev", Math.round(stats.scoreStdDev() * 100.0) / 100.0);
+        statistics.put("maxScore", stats.maxScore() != null ? stats.maxScore() : 0);
+        statistics.put("minScore", stats.minScore() != null ? stats.minScore() : 0);
+        statistics.put("passRate", Math.round(stats.passRate() * 100.0) / 100.0);
 
-        // Calculate max possible score from questions
-        List<Question> questions = testService.getQuestions(testId);
-        int maxPossibleScore = questions.stream()
-                .mapToInt(q -> q.getMaxPoints() != null ? q.getMaxPoints() : 0)
-                .sum();
+        sendSuccess(response, statistics);
+    }
 
-        if (maxPossibleScore == 0) {
-            maxPossibleScore = 100; // fallback
+    // No Content-Length is set, so the container streams the CSV with chunked encoding
+    private void handleExportResults(HttpServletRequest request, HttpServletResponse response,
+                                     Integer testId) throws IOException {
+        Integer userId = getCurrentUserId(request);
+        if (userId == null) {
+            sendError(response, HttpServletResponse.SC_UNAUTHORIZED, "Authentication required");
+            return;
         }
 
-        final int passThreshold = (int) (maxPossibleScore * 0.6); // 60% to pass
-
-        for (TestAttempt attempt : attempts) {
-            if (attempt.getEndTime() != null) {
-                completedAttempts++;
-
-                if (attempt.getScore() != null) {
-                    int score = attempt.getScore();
-                    totalScore += score;
-                    scoredAttempts++;
+        ApplicationContext ctx = getAppContext();
+        Optional<Test> test = ctx.getTestService().getTest(testId);
+        if (test.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Test not found");
+            return;
+        }
+        if (!test.get().getCreatedBy().equals(userId)) {
+            sendError(response, HttpServletResponse.SC_FORBIDDEN, "Only the test creator can export results");
+            return;
+        }
 
-                    if (maxScoreAchieved == null || score > maxScoreAchieved) {
-                        maxScoreAchieved = score;
-                    }
-                    if (minScoreAchieved == null || score < minScoreAchieved) {
-                        minScoreAchieved = score;
-                    }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType("text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"test-" + testId + "-results.csv\"");
 
-                    if (score >= passThreshold) {
-                        passedCount++;
-                    }
-                }
+        try {
+            ctx.getGradebookExporter().exportTestResults(testId, response.getOutputStream());
+        } catch (RuntimeException e) {
+            // Once rows have gone out an error body would corrupt the file; the client sees a truncated stream
+            if (!response.isCommitted()) {
+                throw e;
             }
+            System.err.println("Export of test " + testId + " aborted: " + e.getMessage());
         }
-
-        double averageScore = scoredAttempts > 0 ? totalScore / scoredAttempts : 0.0;
-        double passRate = completedAttempts > 0 ? (passedCount * 100.0 / completedAttempts) : 0.0;
-
-        Map<String, Object> statistics = new HashMap<>();
-        statistics.put("testId", testId);
-        statistics.put("totalAttempts", totalAttempts);
-        statistics.put("completedAttempts", completedAttempts);
-        statistics.put("averageScore", Math.round(averageScore * 100.0) / 100.0);
-        statistics.put("maxScore", maxScoreAchieved != null ? maxScoreAchieved : 0);
-        statistics.put("minScore", minScoreAchieved != null ? minScoreAchieved : 0);
-        statistics.put("passRate", Math.round(passRate * 100.0) / 100.0);
-
-        sendSuccess(response, statistics);
     }
 
     // ==========================================
@@ -526,6 +524,51 @@ public class TestServlet extends BaseServlet {
         sendSuccess(response, result);
     }
 
+    // Test, questions and options in one response instead of one request per question
+    private void handleGetFullTest(HttpServletRequest request, HttpServletResponse response,
+                                   Integer testId) throws IOException {
+        Optional<TestAggregate> test = getAppContext().getTestService().getFullTest(testId);
+        if (test.isEmpty()) {
+            sendError(response, HttpServletResponse.SC_NOT_FOUND, "Test not found");
+            return;
+        }
+
+        TestAggregate t = test.get();
+        Map<String, Object> result = new HashMap<>();
+        result.put("id", t.id());
+        result.put("creatorId", t.createdBy());
+        result.put("title", t.title());
+        result.put("description", t.description());
+        result.put("timeLimit", t.timeLimit());
+        result.put("maxAttempts", t.maxAttempts());
+        result.put("isActive", t.active());
+        result.put("startTime", t.startTime());
+        result.put("endTime", t.endTime());
+        result.put("questions", t.questions().stream()
+                .map(q -> {
+                    Map<String, Object> question = new HashMap<>();
+                    question.put("id", q.id());
+                    question.put("testId", t.id());
+                    question.put("text", q.text());
+                    question.put("answerType", q.answerType());
+                    question.put("maxPoints", q.maxPoints());
+                    // Option scores stay server-side, as in /questions/{id}/options
+                    question.put("options", q.options().stream()
+                            .map(o -> {
+                                Map<String, Object> option = new HashMap<>();
+                                option.put("id", o.id());
+                                option.put("questionId", q.id());
+                                option.put("optionText", o.optionText());
+                                return option;
+                            })
+                            .collect(Collectors.toList()));
+                    return question;
+                })
+                .collect(Collectors.toList()));
+
+        sendSuccess(response, result);
+    }
+
     private void handleAddQuestion(HttpServletRequest request, HttpServletResponse response,
                                    Integer testId, Integer userId) throws IOException {
         ApplicationContext ctx = getAppContext();
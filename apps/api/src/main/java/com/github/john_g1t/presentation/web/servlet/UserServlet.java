@@ -4,6 +4,8 @@ import com.github.john_g1t.app.dto.UserDto;
 import com.github.john_g1t.app.usecase.UseCase;
 import com.github.john_g1t.app.usecase.user.CreateUserRequest;
 import com.github.john_g1t.domain.model.User;
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
 import com.github.john_g1t.domain.service.user.UserService;
 import com.github.john_g1t.infrastructure.ApplicationContext;
 import jakarta.servlet.annotation.WebServlet;
@@ -188,37 +190,26 @@ public class UserServlet extends BaseServlet {
         ApplicationContext ctx = getAppContext();
         UserService userService = ctx.getUserService();
 
-        int page = getIntParameter(request, "page", 1);
         int limit = getIntParameter(request, "limit", 20);
         String search = request.getParameter("search");
+        String cursor = request.getParameter("cursor");
 
-        List<User> allUsers = userService.getAllUsers();
-
-        if (search != null && !search.isBlank()) {
-            String searchLower = search.toLowerCase();
-            allUsers = allUsers.stream()
-                    .filter(u -> u.getEmail().toLowerCase().contains(searchLower) ||
-                            (u.getFirstName() != null &&
-                                    u.getFirstName().toLowerCase().contains(searchLower)) ||
-                            (u.getLastName() != null &&
-                                    u.getLastName().toLowerCase().contains(searchLower)))
-                    .collect(Collectors.toList());
+        Page<UserSummary> page;
+        try {
+            page = userService.searchUsers(search, cursor, limit);
+        } catch (IllegalArgumentException e) {
+            sendError(response, HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
         }
 
-        int total = allUsers.size();
-        int start = (page - 1) * limit;
-        int end = Math.min(start + limit, total);
-
-        List<Map<String, Object>> users = allUsers.subList(start, end).stream()
-                .map(this::convertToFullDto)
+        List<Map<String, Object>> users = page.items().stream()
+                .map(this::convertSummaryToDto)
                 .collect(Collectors.toList());
 
         Map<String, Object> result = new HashMap<>();
         result.put("users", users);
-        result.put("total", total);
-        result.put("page", page);
         result.put("limit", limit);
-        result.put("totalPages", (int) Math.ceil((double) total / limit));
+        result.put("nextCursor", page.nextCursor());
 
         sendSuccess(response, result);
     }
@@ -273,6 +264,15 @@ public class UserServlet extends BaseServlet {
         return dto;
     }
 
+    private Map<String, Object> convertSummaryToDto(UserSummary user) {
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", user.id());
+        dto.put("email", user.email());
+        dto.put("firstName", user.firstName());
+        dto.put("lastName", user.lastName());
+        return dto;
+    }
+
     private boolean isValidEmail(String email) {
         return true;
 //        return email != null && email.matches("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
@@ -0,0 +1,19 @@
+-- Shards only. Attempts and answers on a shard refer to users, tests, questions and
+-- options that live in the reference database, so those foreign keys cannot hold here.
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE public.test_attempts
+    DROP CONSTRAINT IF EXISTS fk_test_attempts_test_id,
+    DROP CONSTRAINT IF EXISTS fk_test_attempts_user_id;
+
+ALTER TABLE public.user_answers
+    DROP CONSTRAINT IF EXISTS fk_user_answers_question_id,
+    DROP CONSTRAINT IF EXISTS fk_user_answers_answer_id;
+
+ALTER TABLE public.test_attempt_keys
+    DROP CONSTRAINT IF EXISTS test_attempt_keys_user_id_fkey,
+    DROP CONSTRAINT IF EXISTS test_attempt_keys_test_id_fkey;
+
+ALTER TABLE public.archived_attempts
+    DROP CONSTRAINT IF EXISTS archived_attempts_user_id_fkey,
+    DROP CONSTRAINT IF EXISTS archived_attempts_test_id_fkey;
@@ -0,0 +1,8 @@
+-- no-transaction
+-- Backs insertNextAttempt: two starts racing for the same number conflict instead of both
+-- succeeding. The (user_id, test_id) prefix also serves findByUserId and findByUserAndTest,
+-- so the older two-column index goes.
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_test_attempts_user_test_number
+    ON public.test_attempts (user_id, test_id, attempt_number);
+
+DROP INDEX CONCURRENTLY IF EXISTS public.idx_test_attempts_user_test;
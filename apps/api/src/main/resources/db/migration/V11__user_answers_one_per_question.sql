@@ -0,0 +1,15 @@
+-- no-transaction
+-- An attempt keeps one answer per question; re-submitting replaces it in place.
+-- Earlier re-submissions left extra rows behind, of which the latest wins. The delete is
+-- repeated if the index build below fails and the script runs again.
+DELETE FROM public.user_answers a
+USING public.user_answers b
+WHERE a.attempt_id = b.attempt_id
+  AND a.question_id = b.question_id
+  AND a.id < b.id;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS idx_user_answers_attempt_question_key
+    ON public.user_answers (attempt_id, question_id);
+
+-- Same columns as the unique index, which now serves the answer-detail keyset
+DROP INDEX CONCURRENTLY IF EXISTS public.idx_user_answers_attempt_question;
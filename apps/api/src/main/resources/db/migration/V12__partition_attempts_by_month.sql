@@ -0,0 +1,355 @@
+-- no-transaction
+-- Range-partition test_attempts by start month, and user_answers by the start month of
+-- its attempt, so vacuum, index size and scans stay proportional to a month of data.
+--
+-- No rows are copied. Each existing table is attached whole as the partition for
+-- everything before a cut-over month, and later months get partitions of their own.
+-- What that attach needs is prepared beside live traffic: backfills commit in batches,
+-- indexes are built concurrently and constraints are validated without blocking writes.
+-- Only the two swaps lock a table, briefly and giving up after lock_timeout. Every step
+-- can run again, so an interrupted migration picks up where it stopped.
+
+-- Two months out, so rows written during the migration still belong to the old table.
+-- Fixed on the first run, so a later run agrees with the constraints it already added.
+CREATE TABLE IF NOT EXISTS public.attempt_partition_cutover (
+    cutover timestamp with time zone NOT NULL
+);
+
+INSERT INTO public.attempt_partition_cutover (cutover)
+SELECT (date_trunc('month', now() AT TIME ZONE 'UTC') + interval '2 months') AT TIME ZONE 'UTC'
+WHERE NOT EXISTS (SELECT 1 FROM public.attempt_partition_cutover);
+
+-- Creates one partition per month in [first_month, last_month], named <parent>_pYYYYMM.
+-- Months before the end of <parent>_legacy, the table partitioning started from, are
+-- skipped. A month whose rows already landed in the default partition is skipped with a
+-- warning rather than failing the caller.
+CREATE OR REPLACE FUNCTION public.create_month_partitions(parent regclass, first_month date, last_month date)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    parent_name text := (SELECT relname FROM pg_class WHERE oid = parent);
+    legacy_end timestamp with time zone := (
+        SELECT substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''(.*)''\)')::timestamptz
+        FROM pg_class c
+        WHERE c.oid = to_regclass('public.' || quote_ident(parent_name || '_legacy')));
+    month date := date_trunc('month', first_month)::date;
+    partition_name text;
+    created integer := 0;
+BEGIN
+    WHILE month <= last_month LOOP
+        partition_name := parent_name || '_p' || to_char(month, 'YYYYMM');
+        IF to_regclass('public.' || quote_ident(partition_name)) IS NULL
+           AND (legacy_end IS NULL OR month::timestamp AT TIME ZONE 'UTC' >= legacy_end) THEN
+            BEGIN
+                EXECUTE format('CREATE TABLE public.%I PARTITION OF %s FOR VALUES FROM (%L) TO (%L)',
+                               partition_name, parent,
+                               month::timestamp AT TIME ZONE 'UTC',
+                               (month + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+                created := created + 1;
+            EXCEPTION WHEN others THEN
+                RAISE WARNING 'Could not create partition %: %', partition_name, SQLERRM;
+            END;
+        END IF;
+        month := (month + interval '1 month')::date;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+-- Called at startup and daily by PartitionMaintainer
+CREATE OR REPLACE FUNCTION public.ensure_attempt_partitions(months_ahead integer)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    this_month date := date_trunc('month', now() AT TIME ZONE 'UTC')::date;
+    last_month date := (this_month + make_interval(months => months_ahead))::date;
+BEGIN
+    RETURN public.create_month_partitions('public.test_attempts', this_month, last_month)
+         + public.create_month_partitions('public.user_answers', this_month, last_month);
+END
+$$;
+
+-- A unique index on a partitioned table has to contain the partition key, so attempt ids
+-- and (user_id, test_id, attempt_number) are kept unique here instead. The row also maps
+-- an attempt id to its start time, so a lookup by id alone reads a single partition.
+-- Archiving leaves the row in place; deleting it deletes the attempt.
+DO $$
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    CREATE TABLE IF NOT EXISTS public.test_attempt_keys (
+        id integer PRIMARY KEY,
+        user_id integer NOT NULL REFERENCES public.users (id) ON DELETE CASCADE,
+        test_id integer NOT NULL REFERENCES public.tests (id) ON DELETE CASCADE,
+        attempt_number integer,
+        start_time timestamp with time zone NOT NULL,
+        CONSTRAINT test_attempt_keys_number_key UNIQUE (user_id, test_id, attempt_number)
+    );
+END
+$$;
+
+-- attempt_start copies test_attempts.start_time so each answer lives in its attempt's month
+DO $$
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    ALTER TABLE public.user_answers ADD COLUMN IF NOT EXISTS attempt_start timestamp with time zone;
+END
+$$;
+
+-- Until the swaps, rows written by the previous release get their key and attempt_start
+-- from these triggers, so the backfills below never fall behind
+CREATE OR REPLACE FUNCTION public.test_attempts_add_key()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        UPDATE public.test_attempt_keys
+        SET user_id = NEW.user_id, test_id = NEW.test_id, attempt_number = NEW.attempt_number,
+            start_time = NEW.start_time
+        WHERE id = OLD.id;
+    ELSE
+        -- On a number conflict the previous release's INSERT ... ON CONFLICT DO NOTHING
+        -- skips the attempt too, so no key is left without its attempt
+        INSERT INTO public.test_attempt_keys (id, user_id, test_id, attempt_number, start_time)
+        VALUES (NEW.id, NEW.user_id, NEW.test_id, NEW.attempt_number, NEW.start_time)
+        ON CONFLICT DO NOTHING;
+    END IF;
+    RETURN NEW;
+END
+$$;
+
+CREATE OR REPLACE FUNCTION public.user_answers_fill_attempt_start()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.attempt_start := (SELECT start_time FROM public.test_attempts WHERE id = NEW.attempt_id);
+    RETURN NEW;
+END
+$$;
+
+DO $$
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.test_attempts'::regclass) = 'r' THEN
+        CREATE OR REPLACE TRIGGER test_attempts_add_key
+            BEFORE INSERT OR UPDATE ON public.test_attempts
+            FOR EACH ROW EXECUTE FUNCTION public.test_attempts_add_key();
+    END IF;
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) = 'r' THEN
+        CREATE OR REPLACE TRIGGER user_answers_fill_attempt_start
+            BEFORE INSERT OR UPDATE ON public.user_answers
+            FOR EACH ROW EXECUTE FUNCTION public.user_answers_fill_attempt_start();
+    END IF;
+END
+$$;
+
+-- Both backfills walk the primary key in slices that commit one by one
+DO $$
+DECLARE
+    last_id integer := 0;
+    max_id integer;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.test_attempts'::regclass) <> 'r' THEN
+        RETURN;
+    END IF;
+    max_id := (SELECT COALESCE(MAX(id), 0) FROM public.test_attempts);
+    WHILE last_id < max_id LOOP
+        INSERT INTO public.test_attempt_keys (id, user_id, test_id, attempt_number, start_time)
+        SELECT id, user_id, test_id, attempt_number, start_time
+        FROM public.test_attempts
+        WHERE id > last_id AND id <= last_id + 10000
+        ON CONFLICT (id) DO NOTHING;
+        last_id := last_id + 10000;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+DO $$
+DECLARE
+    last_id integer := 0;
+    max_id integer;
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) <> 'r' THEN
+        RETURN;
+    END IF;
+    max_id := (SELECT COALESCE(MAX(id), 0) FROM public.user_answers);
+    WHILE last_id < max_id LOOP
+        UPDATE public.user_answers ua
+        SET attempt_start = a.start_time
+        FROM public.test_attempts a
+        WHERE a.id = ua.attempt_id
+          AND ua.id > last_id AND ua.id <= last_id + 10000
+          AND ua.attempt_start IS NULL;
+        last_id := last_id + 10000;
+        COMMIT;
+    END LOOP;
+END
+$$;
+
+-- Added NOT VALID under a short lock, then validated while writes go on. A validated
+-- CHECK lets the attach below, and SET NOT NULL, skip their own scan of the table.
+DO $$
+DECLARE
+    cutover timestamp with time zone := (SELECT cutover FROM public.attempt_partition_cutover);
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.test_attempts'::regclass) = 'r' THEN
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'test_attempts_legacy_bound') THEN
+            EXECUTE format('ALTER TABLE public.test_attempts ADD CONSTRAINT test_attempts_legacy_bound '
+                           'CHECK (start_time < %L) NOT VALID', cutover);
+        END IF;
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_test_attempts_key') THEN
+            ALTER TABLE public.test_attempts ADD CONSTRAINT fk_test_attempts_key FOREIGN KEY (id)
+                REFERENCES public.test_attempt_keys (id) ON DELETE CASCADE NOT VALID;
+        END IF;
+    END IF;
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) = 'r'
+       AND NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'user_answers_legacy_bound') THEN
+        EXECUTE format('ALTER TABLE public.user_answers ADD CONSTRAINT user_answers_legacy_bound '
+                       'CHECK (attempt_start IS NOT NULL AND attempt_start < %L) NOT VALID', cutover);
+    END IF;
+END
+$$;
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.test_attempts'::regclass) = 'r' THEN
+        ALTER TABLE public.test_attempts VALIDATE CONSTRAINT test_attempts_legacy_bound;
+        ALTER TABLE public.test_attempts VALIDATE CONSTRAINT fk_test_attempts_key;
+    END IF;
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) = 'r' THEN
+        ALTER TABLE public.user_answers VALIDATE CONSTRAINT user_answers_legacy_bound;
+    END IF;
+END
+$$;
+
+-- The old tables' counterparts of the partitioned indexes, which the attach adopts as is
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS test_attempts_legacy_pkey
+    ON public.test_attempts (id, start_time);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS test_attempts_legacy_user_test_idx
+    ON public.test_attempts (user_id, test_id);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS user_answers_legacy_pkey
+    ON public.user_answers (id, attempt_start);
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS user_answers_legacy_attempt_question_key
+    ON public.user_answers (attempt_id, question_id, attempt_start);
+
+-- The first swap. Every statement in it only changes the catalog.
+DO $$
+DECLARE
+    cutover timestamp with time zone := (SELECT cutover FROM public.attempt_partition_cutover);
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.test_attempts'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+    PERFORM set_config('lock_timeout', '5s', true);
+    LOCK TABLE public.test_attempts, public.user_answers IN ACCESS EXCLUSIVE MODE;
+
+    DROP TRIGGER test_attempts_add_key ON public.test_attempts;
+    -- Replaced below by a key that includes the start time
+    ALTER TABLE public.user_answers DROP CONSTRAINT fk_user_answers_attempt_id;
+    ALTER TABLE public.test_attempts DROP CONSTRAINT test_attempts_pkey;
+    ALTER TABLE public.test_attempts ADD CONSTRAINT test_attempts_legacy_pkey
+        PRIMARY KEY USING INDEX test_attempts_legacy_pkey;
+    -- test_attempt_keys enforces this now
+    DROP INDEX public.idx_test_attempts_user_test_number;
+    ALTER INDEX public.idx_test_attempts_test RENAME TO test_attempts_legacy_test_idx;
+    ALTER INDEX public.idx_test_attempts_in_progress RENAME TO test_attempts_legacy_in_progress_idx;
+    ALTER INDEX public.idx_test_attempts_end_time RENAME TO test_attempts_legacy_end_time_idx;
+    ALTER TABLE public.test_attempts RENAME TO test_attempts_legacy;
+
+    CREATE TABLE public.test_attempts (
+        id integer NOT NULL DEFAULT nextval('public.test_attempts_id_seq'::regclass),
+        user_id integer NOT NULL,
+        test_id integer NOT NULL,
+        start_time timestamp with time zone NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        end_time timestamp with time zone,
+        score integer NOT NULL DEFAULT 0,
+        attempt_number integer DEFAULT 1,
+        CONSTRAINT test_attempts_pkey PRIMARY KEY (id, start_time),
+        CONSTRAINT fk_test_attempts_key FOREIGN KEY (id)
+            REFERENCES public.test_attempt_keys (id) ON DELETE CASCADE,
+        CONSTRAINT fk_test_attempts_test_id FOREIGN KEY (test_id) REFERENCES public.tests (id) ON DELETE CASCADE,
+        CONSTRAINT fk_test_attempts_user_id FOREIGN KEY (user_id) REFERENCES public.users (id) ON DELETE CASCADE
+    ) PARTITION BY RANGE (start_time);
+
+    CREATE INDEX idx_test_attempts_user_test ON public.test_attempts (user_id, test_id);
+    CREATE INDEX idx_test_attempts_test ON public.test_attempts (test_id);
+    CREATE INDEX idx_test_attempts_in_progress ON public.test_attempts (id) WHERE end_time IS NULL;
+    CREATE INDEX idx_test_attempts_end_time ON public.test_attempts (end_time) WHERE end_time IS NOT NULL;
+
+    EXECUTE format('ALTER TABLE public.test_attempts ATTACH PARTITION public.test_attempts_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', cutover);
+    CREATE TABLE public.test_attempts_default PARTITION OF public.test_attempts DEFAULT;
+    -- The sequence would otherwise be dropped along with the old table some day
+    ALTER SEQUENCE public.test_attempts_id_seq OWNED BY public.test_attempts.id;
+
+    ALTER TABLE public.user_answers ADD CONSTRAINT fk_user_answers_attempt_id FOREIGN KEY (attempt_id, attempt_start)
+        REFERENCES public.test_attempts (id, start_time) ON DELETE CASCADE ON UPDATE CASCADE NOT VALID;
+END
+$$;
+
+DO $$
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) = 'r' THEN
+        ALTER TABLE public.user_answers VALIDATE CONSTRAINT fk_user_answers_attempt_id;
+    END IF;
+END
+$$;
+
+-- The second swap, the same way
+DO $$
+DECLARE
+    cutover timestamp with time zone := (SELECT cutover FROM public.attempt_partition_cutover);
+BEGIN
+    IF (SELECT relkind FROM pg_class WHERE oid = 'public.user_answers'::regclass) = 'p' THEN
+        RETURN;
+    END IF;
+    PERFORM set_config('lock_timeout', '5s', true);
+    LOCK TABLE public.user_answers IN ACCESS EXCLUSIVE MODE;
+
+    DROP TRIGGER user_answers_fill_attempt_start ON public.user_answers;
+    ALTER TABLE public.user_answers ALTER COLUMN attempt_start SET NOT NULL;
+    ALTER TABLE public.user_answers DROP CONSTRAINT user_answers_pkey;
+    ALTER TABLE public.user_answers ADD CONSTRAINT user_answers_legacy_pkey
+        PRIMARY KEY USING INDEX user_answers_legacy_pkey;
+    DROP INDEX public.idx_user_answers_attempt_question_key;
+    ALTER TABLE public.user_answers RENAME TO user_answers_legacy;
+
+    CREATE TABLE public.user_answers (
+        id integer NOT NULL DEFAULT nextval('public.user_answers_id_seq'::regclass),
+        attempt_id integer NOT NULL,
+        question_id integer NOT NULL,
+        answer_id integer,
+        answer_text text,
+        attempt_start timestamp with time zone NOT NULL,
+        CONSTRAINT user_answers_pkey PRIMARY KEY (id, attempt_start),
+        CONSTRAINT fk_user_answers_attempt_id FOREIGN KEY (attempt_id, attempt_start)
+            REFERENCES public.test_attempts (id, start_time) ON DELETE CASCADE ON UPDATE CASCADE,
+        CONSTRAINT fk_user_answers_question_id FOREIGN KEY (question_id) REFERENCES public.questions (id) ON DELETE CASCADE,
+        CONSTRAINT fk_user_answers_answer_id FOREIGN KEY (answer_id) REFERENCES public.answer_options (id) ON DELETE CASCADE
+    ) PARTITION BY RANGE (attempt_start);
+
+    CREATE UNIQUE INDEX idx_user_answers_attempt_question_key
+        ON public.user_answers (attempt_id, question_id, attempt_start);
+
+    EXECUTE format('ALTER TABLE public.user_answers ATTACH PARTITION public.user_answers_legacy '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', cutover);
+    CREATE TABLE public.user_answers_default PARTITION OF public.user_answers DEFAULT;
+    ALTER SEQUENCE public.user_answers_id_seq OWNED BY public.user_answers.id;
+END
+$$;
+
+DO $$
+BEGIN
+    PERFORM set_config('lock_timeout', '5s', true);
+    PERFORM public.ensure_attempt_partitions(3);
+END
+$$;
+
+DROP FUNCTION IF EXISTS public.test_attempts_add_key();
+DROP FUNCTION IF EXISTS public.user_answers_fill_attempt_start();
+DROP TABLE IF EXISTS public.attempt_partition_cutover;
+
+ANALYZE public.test_attempt_keys;
+ANALYZE public.test_attempts;
+ANALYZE public.user_answers;
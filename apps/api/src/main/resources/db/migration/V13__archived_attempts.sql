@@ -0,0 +1,21 @@
+-- Finished attempts past the retention window move to segment files on disk. What stays
+-- behind is one summary row per attempt with everything but its answers, plus the
+-- segment that holds the full record. The attempt keeps its row in test_attempt_keys.
+SET LOCAL lock_timeout = '5s';
+
+CREATE SEQUENCE public.archive_segment_seq;
+
+CREATE TABLE public.archived_attempts (
+    id integer PRIMARY KEY REFERENCES public.test_attempt_keys (id) ON DELETE CASCADE,
+    user_id integer NOT NULL REFERENCES public.users (id) ON DELETE CASCADE,
+    test_id integer NOT NULL REFERENCES public.tests (id) ON DELETE CASCADE,
+    start_time timestamp with time zone NOT NULL,
+    end_time timestamp with time zone NOT NULL,
+    score integer NOT NULL,
+    attempt_number integer,
+    segment bigint NOT NULL,
+    archived_at timestamp with time zone NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_archived_attempts_user ON public.archived_attempts (user_id);
+CREATE INDEX idx_archived_attempts_test ON public.archived_attempts (test_id);
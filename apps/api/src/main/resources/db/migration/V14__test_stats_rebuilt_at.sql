@@ -0,0 +1,7 @@
+-- Attempts are no longer counted as they start, which made every start queue on the
+-- test's stats row. The rebuild counts every attempt there is; an attempt started after
+-- it is counted when it finishes. Until now starts were counted right away, so the
+-- cutoff for existing rows is the moment this runs.
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE public.test_stats ADD COLUMN rebuilt_at timestamp with time zone NOT NULL DEFAULT now();
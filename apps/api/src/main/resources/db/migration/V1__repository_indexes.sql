@@ -0,0 +1,28 @@
+-- no-transaction
+-- Indexes behind every findBy* in the Postgres repositories.
+-- Built concurrently so writes keep flowing while they are created.
+-- users(email) is already covered by the users_email_key unique constraint.
+
+-- findByUserId and findByUserAndTest
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_test_attempts_user_test
+    ON public.test_attempts (user_id, test_id);
+
+-- findByTestId, and cascading deletes of tests
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_test_attempts_test
+    ON public.test_attempts (test_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_answers_attempt
+    ON public.user_answers (attempt_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_questions_test
+    ON public.questions (test_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_answer_options_question
+    ON public.answer_options (question_id);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tests_created_by
+    ON public.tests (created_by);
+
+-- Only active tests are ever looked up by flag, so the inactive ones stay out of the index
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tests_active
+    ON public.tests (id) WHERE is_active;
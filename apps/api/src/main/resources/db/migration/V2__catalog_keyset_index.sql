@@ -0,0 +1,7 @@
+-- no-transaction
+-- The catalog pages by id, so a creator's tests are read straight off (created_by, id)
+-- instead of being sorted after the lookup. The composite index supersedes the V1 one.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tests_created_by_id
+    ON public.tests (created_by, id);
+
+DROP INDEX CONCURRENTLY IF EXISTS public.idx_tests_created_by;
@@ -0,0 +1,11 @@
+-- Full-text document for the catalog search: title ranks above description.
+-- 'simple' keeps words as written, since test titles mix Russian and English.
+-- Adding a stored column rewrites tests once; fail fast instead of queueing behind long transactions.
+SET LOCAL lock_timeout = '5s';
+
+ALTER TABLE public.tests
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
@@ -0,0 +1,3 @@
+-- no-transaction
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_tests_search_vector
+    ON public.tests USING gin (search_vector);
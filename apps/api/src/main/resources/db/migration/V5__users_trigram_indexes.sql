@@ -0,0 +1,12 @@
+-- no-transaction
+-- The user directory matches substrings anywhere in email and names, which a btree cannot serve.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_trgm
+    ON public.users USING gin (email gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_first_name_trgm
+    ON public.users USING gin (first_name gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_last_name_trgm
+    ON public.users USING gin (last_name gin_trgm_ops);
@@ -0,0 +1,10 @@
+-- no-transaction
+-- Back the counters on the statistics endpoint with small indexes instead of full scans.
+
+-- countInProgress: unfinished attempts are a small, shifting slice of the table
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_test_attempts_in_progress
+    ON public.test_attempts (id) WHERE end_time IS NULL;
+
+-- countFinishedBetween
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_test_attempts_end_time
+    ON public.test_attempts (end_time) WHERE end_time IS NOT NULL;
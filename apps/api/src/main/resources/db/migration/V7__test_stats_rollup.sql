@@ -0,0 +1,49 @@
+-- Per-test statistics rollup, maintained by the application in the same transaction
+-- as the attempt or question change it accounts for.
+SET LOCAL lock_timeout = '5s';
+
+CREATE TABLE IF NOT EXISTS public.test_stats (
+    test_id integer PRIMARY KEY REFERENCES public.tests (id) ON DELETE CASCADE,
+    attempt_count bigint NOT NULL DEFAULT 0,
+    completed_count bigint NOT NULL DEFAULT 0,
+    scored_count bigint NOT NULL DEFAULT 0,
+    score_sum bigint NOT NULL DEFAULT 0,
+    score_sum_squares bigint NOT NULL DEFAULT 0,
+    min_score integer,
+    max_score integer,
+    pass_count bigint NOT NULL DEFAULT 0,
+    max_possible_score integer NOT NULL DEFAULT 0,
+    updated_at timestamptz NOT NULL DEFAULT now()
+);
+
+-- Seed from the existing data. The pass rule matches TestStats: 60% of the summed
+-- question points, or of 100 when the test has none.
+INSERT INTO public.test_stats (test_id, attempt_count, completed_count, scored_count, score_sum,
+                               score_sum_squares, min_score, max_score, pass_count, max_possible_score)
+WITH q AS (
+    SELECT test_id, SUM(COALESCE(max_points, 0))::integer AS max_possible_score
+    FROM public.questions
+    GROUP BY test_id
+), a AS (
+    SELECT a.test_id,
+           COUNT(*) AS attempt_count,
+           COUNT(a.end_time) AS completed_count,
+           COUNT(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS scored_count,
+           SUM(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS score_sum,
+           SUM(a.score::bigint * a.score) FILTER (WHERE a.end_time IS NOT NULL) AS score_sum_squares,
+           MIN(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS min_score,
+           MAX(a.score) FILTER (WHERE a.end_time IS NOT NULL) AS max_score,
+           COUNT(*) FILTER (WHERE a.end_time IS NOT NULL AND a.score >=
+               floor(CASE WHEN COALESCE(q.max_possible_score, 0) > 0 THEN q.max_possible_score ELSE 100 END * 0.6::float8)
+           ) AS pass_count
+    FROM public.test_attempts a
+    LEFT JOIN q ON q.test_id = a.test_id
+    GROUP BY a.test_id, q.max_possible_score
+)
+SELECT t.id, COALESCE(a.attempt_count, 0), COALESCE(a.completed_count, 0), COALESCE(a.scored_count, 0),
+       COALESCE(a.score_sum, 0), COALESCE(a.score_sum_squares, 0), a.min_score, a.max_score,
+       COALESCE(a.pass_count, 0), COALESCE(q.max_possible_score, 0)
+FROM public.tests t
+LEFT JOIN a ON a.test_id = t.id
+LEFT JOIN q ON q.test_id = t.id
+ON CONFLICT (test_id) DO NOTHING;
@@ -0,0 +1,7 @@
+-- no-transaction
+-- Answer details are paged by question within an attempt. The composite index serves
+-- that keyset and every lookup by attempt alone, so the single-column index goes.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_user_answers_attempt_question
+    ON public.user_answers (attempt_id, question_id);
+
+DROP INDEX CONCURRENTLY IF EXISTS public.idx_user_answers_attempt;
@@ -0,0 +1,20 @@
+-- Attempts used to be numbered by counting earlier ones, so concurrent starts could share
+-- a number. Renumber the affected (user, test) pairs in start order before V10 makes the
+-- numbers unique.
+SET LOCAL lock_timeout = '5s';
+
+WITH affected AS (
+    SELECT user_id, test_id
+    FROM public.test_attempts
+    GROUP BY user_id, test_id
+    HAVING COUNT(*) <> COUNT(DISTINCT attempt_number)
+),
+renumbered AS (
+    SELECT a.id, row_number() OVER (PARTITION BY a.user_id, a.test_id ORDER BY a.start_time, a.id) AS attempt_number
+    FROM public.test_attempts a
+    JOIN affected USING (user_id, test_id)
+)
+UPDATE public.test_attempts a
+SET attempt_number = r.attempt_number
+FROM renumbered r
+WHERE a.id = r.id AND a.attempt_number IS DISTINCT FROM r.attempt_number;
@@ -0,0 +1,132 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.AnswerDetail;
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AttemptArchiverTest {
+    @TempDir
+    Path archive;
+
+    private PostgresConnectionFactory database;
+    private SegmentStore segmentStore;
+    private PostgresTestAttemptRepository attempts;
+    private PostgresUserAnswerRepository answers;
+    private PostgresAnswerDetailRepository details;
+    private TestAttempt attempt;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.create();
+        segmentStore = new SegmentStore(archive);
+        attempts = new PostgresTestAttemptRepository(database);
+        answers = new PostgresUserAnswerRepository(database, segmentStore);
+        details = new PostgresAnswerDetailRepository(database, segmentStore);
+
+        int userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee') RETURNING id");
+        int testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+        int first = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'First', 1) RETURNING id", testId);
+        int second = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'Second', 1) RETURNING id", testId);
+        int option = insert("INSERT INTO answer_options (question_id, option_text, score) VALUES (?, 'Yes', 1) RETURNING id", first);
+
+        ZonedDateTime start = ZonedDateTime.now().minusYears(2);
+        attempt = new TestAttempt(userId, testId, start, start.plusMinutes(10), 1, 1);
+        attempts.save(attempt);
+        answers.upsertAll(List.of(
+                new UserAnswer(attempt.getId(), first, option, null),
+                new UserAnswer(attempt.getId(), second, null, "no idea")), start);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.closeConnection();
+        }
+    }
+
+    @Test
+    void archivedAttemptReadsBackAsItWasLive() {
+        TestAttempt live = attempts.findById(attempt.getId()).orElseThrow();
+        List<UserAnswer> liveAnswers = sorted(answers.findByAttemptId(attempt.getId()));
+        Page<AnswerDetail> liveDetails = details.findByAttemptId(attempt.getId(), null, 10);
+
+        assertEquals(1, archiver().archive());
+        assertEquals(0, count("SELECT COUNT(*) FROM test_attempts"));
+        assertEquals(0, count("SELECT COUNT(*) FROM user_answers"));
+
+        TestAttempt archived = attempts.findById(attempt.getId()).orElseThrow();
+        assertEquals(live.getStartTime().toInstant(), archived.getStartTime().toInstant());
+        assertEquals(live.getEndTime().toInstant(), archived.getEndTime().toInstant());
+        assertEquals(live.getScore(), archived.getScore());
+        assertEquals(live.getAttemptNumber(), archived.getAttemptNumber());
+
+        List<UserAnswer> archivedAnswers = sorted(answers.findByAttemptId(attempt.getId()));
+        assertEquals(liveAnswers.size(), archivedAnswers.size());
+        for (int i = 0; i < liveAnswers.size(); i++) {
+            assertEquals(liveAnswers.get(i).getId(), archivedAnswers.get(i).getId());
+            assertEquals(liveAnswers.get(i).getQuestionId(), archivedAnswers.get(i).getQuestionId());
+            assertEquals(liveAnswers.get(i).getAnswerId(), archivedAnswers.get(i).getAnswerId());
+            assertEquals(liveAnswers.get(i).getAnswerText(), archivedAnswers.get(i).getAnswerText());
+        }
+        assertEquals(liveDetails, details.findByAttemptId(attempt.getId(), null, 10));
+    }
+
+    @Test
+    void deletingAnArchivedAttemptRemovesItsSummary() {
+        archiver().archive();
+
+        attempts.delete(attempt.getId());
+
+        assertTrue(attempts.findById(attempt.getId()).isEmpty());
+        assertEquals(0, count("SELECT COUNT(*) FROM archived_attempts"));
+        assertEquals(0, archiver().archive());
+    }
+
+    private AttemptArchiver archiver() {
+        return new AttemptArchiver(database, segmentStore, Duration.ofDays(365));
+    }
+
+    private static List<UserAnswer> sorted(List<UserAnswer> answers) {
+        return answers.stream().sorted(Comparator.comparing(UserAnswer::getId)).toList();
+    }
+
+    private int count(String sql) {
+        try {
+            return insert(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
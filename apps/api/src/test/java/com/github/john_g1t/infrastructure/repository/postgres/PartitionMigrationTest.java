@@ -0,0 +1,122 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionMigrationTest {
+    @TempDir
+    Path archive;
+
+    private PostgresConnectionFactory database;
+    private int userId;
+    private int testId;
+    private int questionId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.createUnmigrated();
+        userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee') RETURNING id");
+        testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+        questionId = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'First', 1) RETURNING id", testId);
+    }
+
+    @Test
+    void legacyRowsAreAttachedInPlace() throws SQLException {
+        OffsetDateTime[] starts = {OffsetDateTime.now().minusYears(2), OffsetDateTime.now().minusMonths(1),
+                OffsetDateTime.now()};
+        int[] attemptIds = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            attemptIds[i] = insert("INSERT INTO test_attempts (user_id, test_id, start_time, attempt_number) " +
+                    "VALUES (?, ?, ?, ?) RETURNING id", userId, testId, starts[i], i + 1);
+            insert("INSERT INTO user_answers (attempt_id, question_id, answer_text) VALUES (?, ?, 'yes') RETURNING id",
+                    attemptIds[i], questionId);
+        }
+
+        new MigrationRunner(database).migrate();
+
+        assertEquals("p", queryString("SELECT relkind::text FROM pg_class WHERE oid = 'public.test_attempts'::regclass"));
+        assertEquals("p", queryString("SELECT relkind::text FROM pg_class WHERE oid = 'public.user_answers'::regclass"));
+        assertEquals("test_attempts", queryString("SELECT inhparent::regclass::text FROM pg_inherits " +
+                "WHERE inhrelid = 'public.test_attempts_legacy'::regclass"));
+        assertEquals("user_answers", queryString("SELECT inhparent::regclass::text FROM pg_inherits " +
+                "WHERE inhrelid = 'public.user_answers_legacy'::regclass"));
+        assertEquals(3, insert("SELECT COUNT(*) FROM test_attempts_legacy"));
+        assertEquals(3, insert("SELECT COUNT(*) FROM user_answers_legacy"));
+        assertEquals(3, insert("SELECT COUNT(*) FROM test_attempt_keys"));
+        assertEquals(0, insert("SELECT COUNT(*) FROM user_answers ua JOIN test_attempts a ON a.id = ua.attempt_id " +
+                "WHERE ua.attempt_start <> a.start_time"));
+        assertNull(queryString("SELECT to_regclass('public.attempt_partition_cutover')::text"));
+
+        PostgresTestAttemptRepository attempts = new PostgresTestAttemptRepository(database);
+        Optional<TestAttempt> first = attempts.findById(attemptIds[0]);
+        assertTrue(first.isPresent());
+        assertEquals(1, first.get().getAttemptNumber());
+        List<UserAnswer> answers = new PostgresUserAnswerRepository(database, new SegmentStore(archive))
+                .findByAttemptId(attemptIds[0]);
+        assertEquals(1, answers.size());
+        assertEquals("yes", answers.get(0).getAnswerText());
+    }
+
+    // test_attempt_keys keeps (user, test, attempt number) unique across partitions, and
+    // numbers continue from the highest one left, so deleting the latest attempt frees its number
+    @Test
+    void attemptNumbersStayUniqueAcrossPartitions() {
+        new MigrationRunner(database).migrate();
+        PostgresTestAttemptRepository attempts = new PostgresTestAttemptRepository(database);
+
+        TestAttempt old = new TestAttempt(userId, testId, ZonedDateTime.now().minusYears(2), null, 0, 1);
+        attempts.save(old);
+        TestAttempt duplicate = new TestAttempt(userId, testId, ZonedDateTime.now(), null, 0, 1);
+        assertThrows(RuntimeException.class, () -> attempts.save(duplicate));
+
+        TestAttempt second = new TestAttempt(userId, testId, ZonedDateTime.now(), null, 0, 0);
+        assertTrue(attempts.insertNextAttempt(second, 3).isPresent());
+        assertEquals(2, second.getAttemptNumber());
+
+        attempts.delete(second.getId());
+        TestAttempt third = new TestAttempt(userId, testId, ZonedDateTime.now(), null, 0, 0);
+        assertTrue(attempts.insertNextAttempt(third, 3).isPresent());
+        assertEquals(2, third.getAttemptNumber());
+        assertTrue(attempts.findById(second.getId()).isEmpty());
+    }
+
+    private String queryString(String sql) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
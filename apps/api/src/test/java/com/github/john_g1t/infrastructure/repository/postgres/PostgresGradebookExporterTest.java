@@ -0,0 +1,120 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.JdbcUnitOfWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresGradebookExporterTest {
+    @TempDir
+    Path archive;
+
+    private PostgresConnectionFactory database;
+    private JdbcUnitOfWork unitOfWork;
+    private SegmentStore segmentStore;
+
+    @BeforeEach
+    void setUp() {
+        database = TestDatabase.create();
+        unitOfWork = new JdbcUnitOfWork(database);
+        segmentStore = new SegmentStore(archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (unitOfWork != null) {
+            unitOfWork.closeConnection();
+        }
+    }
+
+    @Test
+    void archivedAttemptExportsTheSameRowsAsBeforeArchiving() throws SQLException {
+        int userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee, Jr.') RETURNING id");
+        int testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+        int first = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'First', 1) RETURNING id", testId);
+        int second = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'Second', 1) RETURNING id", testId);
+        int option = insert("INSERT INTO answer_options (question_id, option_text, score) VALUES (?, 'Yes', 1) RETURNING id", first);
+
+        OffsetDateTime longAgo = OffsetDateTime.now().minusYears(2);
+        int archived = insertAttempt(userId, testId, longAgo, 1);
+        insertAnswer(archived, longAgo, first, option, null);
+        insertAnswer(archived, longAgo, second, null, "said \"no\", twice");
+        OffsetDateTime yesterday = OffsetDateTime.now().minusDays(1);
+        int live = insertAttempt(userId, testId, yesterday, 2);
+        insertAnswer(live, yesterday, first, option, null);
+
+        List<String> before = export(testId);
+        assertEquals(1, new AttemptArchiver(database, segmentStore, Duration.ofDays(365)).archive());
+        List<String> after = export(testId);
+
+        assertEquals(4, after.size());
+        assertEquals(before.get(0), after.get(0));
+        // Live attempts first, then the archived one with both of its answers
+        assertEquals(before.get(3), after.get(1));
+        assertEquals(before.subList(1, 3), after.subList(2, 4));
+        assertTrue(after.get(3).endsWith(",\"said \"\"no\"\", twice\""), after.get(3));
+    }
+
+    @Test
+    void archivedAttemptWithoutAnswersExportsOneRow() throws SQLException {
+        int userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('bo@example.com', 'secret', 'Bo', 'Ek') RETURNING id");
+        int testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+        insertAttempt(userId, testId, OffsetDateTime.now().minusYears(2), 1);
+
+        List<String> before = export(testId);
+        new AttemptArchiver(database, segmentStore, Duration.ofDays(365)).archive();
+
+        assertEquals(before, export(testId));
+        assertTrue(before.get(1).endsWith(",,,"), before.get(1));
+    }
+
+    private List<String> export(int testId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new PostgresGradebookExporter(unitOfWork, unitOfWork, segmentStore).exportTestResults(testId, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private int insertAttempt(int userId, int testId, OffsetDateTime start, int attemptNumber) throws SQLException {
+        return insert("WITH key AS (INSERT INTO test_attempt_keys (id, user_id, test_id, start_time, attempt_number) " +
+                "VALUES (nextval('test_attempts_id_seq'), ?, ?, ?, ?) RETURNING *) " +
+                "INSERT INTO test_attempts (id, user_id, test_id, start_time, end_time, score, attempt_number) " +
+                "SELECT id, user_id, test_id, start_time, ?, 1, attempt_number FROM key RETURNING id",
+                userId, testId, start, attemptNumber, start.plusMinutes(10));
+    }
+
+    private void insertAnswer(int attemptId, OffsetDateTime attemptStart, int questionId, Integer answerId,
+                              String answerText) throws SQLException {
+        insert("INSERT INTO user_answers (attempt_id, attempt_start, question_id, answer_id, answer_text) " +
+                "VALUES (?, ?, ?, ?, ?) RETURNING id", attemptId, attemptStart, questionId, answerId, answerText);
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
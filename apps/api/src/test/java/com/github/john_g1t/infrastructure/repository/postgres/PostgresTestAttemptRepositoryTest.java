@@ -0,0 +1,101 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.TestAttempt;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresTestAttemptRepositoryTest {
+    private static final int STARTERS = 8;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private PostgresConnectionFactory database;
+    private PostgresTestAttemptRepository attempts;
+    private int userId;
+    private int testId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.create();
+        attempts = new PostgresTestAttemptRepository(database);
+        userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee') RETURNING id");
+        testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.closeConnection();
+        }
+    }
+
+    @Test
+    void concurrentStartsNeverExceedTheLimit() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<Integer>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(STARTERS)) {
+            for (int i = 0; i < STARTERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return attempts.insertNextAttempt(newAttempt(), MAX_ATTEMPTS);
+                }));
+            }
+            start.countDown();
+        }
+
+        int started = 0;
+        for (Future<Optional<Integer>> result : results) {
+            if (result.get().isPresent()) {
+                started++;
+            }
+        }
+        assertEquals(MAX_ATTEMPTS, started);
+        assertEquals(List.of(1, 2, 3), attempts.findByUserAndTest(userId, testId).stream()
+                .map(TestAttempt::getAttemptNumber)
+                .sorted()
+                .toList());
+    }
+
+    @Test
+    void refusedStartSpendsNoId() {
+        Optional<Integer> first = attempts.insertNextAttempt(newAttempt(), 1);
+        assertTrue(first.isPresent());
+        assertTrue(attempts.insertNextAttempt(newAttempt(), 1).isEmpty());
+
+        Optional<Integer> unlimited = attempts.insertNextAttempt(newAttempt(), null);
+        assertEquals(Optional.of(first.get() + 1), unlimited);
+    }
+
+    private TestAttempt newAttempt() {
+        return new TestAttempt(userId, testId, ZonedDateTime.now(), null, 0, 0);
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.repository.Page;
+import com.github.john_g1t.domain.repository.TestQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PostgresTestRepositoryTest {
+    private PostgresConnectionFactory database;
+    private PostgresTestRepository tests;
+    private int ann;
+    private int bob;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.create();
+        tests = new PostgresTestRepository(database);
+        ann = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee') RETURNING id");
+        bob = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('bob@example.com', 'secret', 'Bob', 'Ek') RETURNING id");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.closeConnection();
+        }
+    }
+
+    @Test
+    void catalogPagesFollowTheCursorInIdOrder() throws SQLException {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(insertTest(ann, "Quiz " + i));
+            insertTest(bob, "Other " + i);
+        }
+
+        List<Integer> seen = walk(cursor -> tests.findPage(new TestQuery(null, ann, cursor, 2)), 3);
+
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void searchPagesThroughEqualRanksWithoutRepeats() throws SQLException {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            expected.add(insertTest(ann, "Algebra quiz"));
+        }
+        insertTest(ann, "Geometry quiz");
+        // Equal ranks fall back to id, newest first
+        expected.sort(Comparator.reverseOrder());
+
+        List<Integer> seen = walk(cursor -> tests.search("algebra", new TestQuery(null, null, cursor, 3)), 3);
+
+        assertEquals(expected, seen);
+    }
+
+    // Follows nextCursor to the end, checking the number of pages it takes
+    private List<Integer> walk(Function<String, Page<com.github.john_g1t.domain.model.Test>> fetch, int pages) {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        for (int i = 0; i < pages; i++) {
+            Page<com.github.john_g1t.domain.model.Test> page = fetch.apply(cursor);
+            page.items().forEach(test -> seen.add(test.getId()));
+            cursor = page.nextCursor();
+        }
+        assertNull(cursor);
+        return seen;
+    }
+
+    private int insertTest(int creatorId, String title) throws SQLException {
+        return insert("INSERT INTO tests (created_by, title) VALUES (?, ?) RETURNING id", creatorId, title);
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
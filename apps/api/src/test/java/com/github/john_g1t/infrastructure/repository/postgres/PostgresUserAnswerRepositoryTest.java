@@ -0,0 +1,89 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.TestAttempt;
+import com.github.john_g1t.domain.model.UserAnswer;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostgresUserAnswerRepositoryTest {
+    @TempDir
+    Path archive;
+
+    private PostgresConnectionFactory database;
+    private PostgresUserAnswerRepository answers;
+    private TestAttempt attempt;
+    private int first;
+    private int second;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        database = TestDatabase.create();
+        answers = new PostgresUserAnswerRepository(database, new SegmentStore(archive));
+        int userId = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee') RETURNING id");
+        int testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", userId);
+        first = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'First', 1) RETURNING id", testId);
+        second = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'Second', 1) RETURNING id", testId);
+        // Last month, so the attempt's partition is not the one new rows default to
+        attempt = new TestAttempt(userId, testId, ZonedDateTime.now().minusMonths(1), null, 0, 1);
+        new PostgresTestAttemptRepository(database).save(attempt);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.closeConnection();
+        }
+    }
+
+    @Test
+    void resubmissionReplacesTheAnswerInPlace() {
+        int id = answers.upsert(new UserAnswer(attempt.getId(), first, null, "maybe"), attempt.getStartTime());
+        int again = answers.upsert(new UserAnswer(attempt.getId(), first, null, "yes"), attempt.getStartTime());
+
+        assertEquals(id, again);
+        List<UserAnswer> stored = answers.findByAttemptId(attempt.getId());
+        assertEquals(1, stored.size());
+        assertEquals("yes", stored.get(0).getAnswerText());
+    }
+
+    @Test
+    void laterAnswerInABatchWins() {
+        List<Integer> ids = answers.upsertAll(List.of(
+                new UserAnswer(attempt.getId(), first, null, "maybe"),
+                new UserAnswer(attempt.getId(), second, null, "no"),
+                new UserAnswer(attempt.getId(), first, null, "yes")), attempt.getStartTime());
+
+        assertEquals(ids.get(0), ids.get(2));
+        List<String> texts = answers.findByAttemptId(attempt.getId()).stream()
+                .sorted((a, b) -> a.getQuestionId().compareTo(b.getQuestionId()))
+                .map(UserAnswer::getAnswerText)
+                .toList();
+        assertEquals(List.of("yes", "no"), texts);
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
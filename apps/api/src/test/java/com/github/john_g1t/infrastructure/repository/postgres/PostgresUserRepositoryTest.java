@@ -0,0 +1,79 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.domain.model.UserSummary;
+import com.github.john_g1t.domain.repository.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PostgresUserRepositoryTest {
+    private PostgresConnectionFactory database;
+    private PostgresUserRepository users;
+
+    @BeforeEach
+    void setUp() {
+        database = TestDatabase.create();
+        users = new PostgresUserRepository(database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (database != null) {
+            database.closeConnection();
+        }
+    }
+
+    @Test
+    void searchPagesFollowTheCursorInIdOrder() throws SQLException {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(insertUser("ann" + i + "@example.com", "Ann"));
+            insertUser("bob" + i + "@example.com", "Bob");
+        }
+
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        for (int i = 0; i < 3; i++) {
+            Page<UserSummary> page = users.search("ann", cursor, 2);
+            page.items().forEach(user -> seen.add(user.id()));
+            cursor = page.nextCursor();
+        }
+
+        assertNull(cursor);
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void wildcardsInTheTermMatchLiterally() throws SQLException {
+        insertUser("ann@example.com", "Ann");
+        int underscored = insertUser("a_b@example.com", "Ab");
+
+        assertTrue(users.search("%", null, 10).items().isEmpty());
+        assertEquals(List.of(underscored), users.search("a_b", null, 10).items().stream()
+                .map(UserSummary::id)
+                .toList());
+    }
+
+    private int insertUser(String email, String firstName) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement("INSERT INTO users (email, password, first_name, " +
+                     "last_name) VALUES (?, 'secret', ?, 'Lee') RETURNING id")) {
+            stmt.setString(1, email);
+            stmt.setString(2, firstName);
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
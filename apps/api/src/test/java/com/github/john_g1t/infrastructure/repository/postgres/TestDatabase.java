@@ -0,0 +1,65 @@
+package com.github.john_g1t.infrastructure.repository.postgres;
+
+import com.github.john_g1t.infrastructure.repository.ConnectionPoolConfig;
+import org.junit.jupiter.api.Assumptions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A scratch database for the tests that need Postgres, given by TEST_DB_URL, TEST_DB_USER
+ * and TEST_DB_PASSWORD. Without TEST_DB_URL those tests are skipped. Everything in the
+ * database is dropped and rebuilt from the base schema and the migrations.
+ */
+public final class TestDatabase {
+    private static final String RESET = "DROP SCHEMA public CASCADE; CREATE SCHEMA public";
+
+    private TestDatabase() {
+    }
+
+    // A fresh schema behind a fresh pool, so no pooled connection caches plans of dropped tables
+    public static PostgresConnectionFactory create() {
+        PostgresConnectionFactory database = createUnmigrated();
+        new MigrationRunner(database).migrate();
+        return database;
+    }
+
+    // Only the base schema, for tests that put data in place before migrating
+    public static PostgresConnectionFactory createUnmigrated() {
+        String url = System.getenv("TEST_DB_URL");
+        Assumptions.assumeTrue(url != null && !url.isBlank(), "TEST_DB_URL is not set");
+        String user = environment("TEST_DB_USER", "postgres");
+        String password = environment("TEST_DB_PASSWORD", "");
+
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(RESET);
+            stmt.execute(load("db/base_schema.sql"));
+        } catch (SQLException e) {
+            throw new RuntimeException("Error resetting the test database", e);
+        }
+        return new PostgresConnectionFactory(url, user, password, ConnectionPoolConfig.defaults());
+    }
+
+    private static String load(String resource) {
+        try (InputStream in = TestDatabase.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing test resource " + resource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String environment(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null ? defaultValue : value;
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.john_g1t.infrastructure.repository.shard;
+
+import com.github.john_g1t.domain.repository.GradebookExporter;
+import com.github.john_g1t.infrastructure.archive.SegmentStore;
+import com.github.john_g1t.infrastructure.repository.JdbcUnitOfWork;
+import com.github.john_g1t.infrastructure.repository.postgres.AttemptArchiver;
+import com.github.john_g1t.infrastructure.repository.postgres.PostgresConnectionFactory;
+import com.github.john_g1t.infrastructure.repository.postgres.PostgresGradebookExporter;
+import com.github.john_g1t.infrastructure.repository.postgres.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShardedGradebookExporterTest {
+    @TempDir
+    Path archive;
+
+    private PostgresConnectionFactory database;
+    private JdbcUnitOfWork unitOfWork;
+    private ShardRouter router;
+
+    @BeforeEach
+    void setUp() {
+        database = TestDatabase.create();
+        unitOfWork = new JdbcUnitOfWork(database);
+        router = new ShardRouter(List.of(database));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (router != null) {
+            router.close();
+            unitOfWork.closeConnection();
+        }
+    }
+
+    // With one shard that is also the reference database, both exporters see the same rows
+    @Test
+    void exportsTheSameRowsAsTheSingleDatabaseExporter() throws SQLException {
+        int ann = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('ann@example.com', 'secret', 'Ann', 'Lee, Jr.') RETURNING id");
+        int bo = insert("INSERT INTO users (email, password, first_name, last_name) " +
+                "VALUES ('bo@example.com', 'secret', 'Bo', 'Ek') RETURNING id");
+        int testId = insert("INSERT INTO tests (created_by, title) VALUES (?, 'Quiz') RETURNING id", ann);
+        int question = insert("INSERT INTO questions (test_id, text, max_points) VALUES (?, 'Why', 1) RETURNING id", testId);
+
+        OffsetDateTime longAgo = OffsetDateTime.now().minusYears(2);
+        int archived = insertAttempt(ann, testId, longAgo, 1);
+        insertAnswer(archived, longAgo, question, "because");
+        OffsetDateTime yesterday = OffsetDateTime.now().minusDays(1);
+        insertAnswer(insertAttempt(ann, testId, yesterday, 2), yesterday, question, "line one\nline two");
+        insertAttempt(bo, testId, yesterday, 1);
+
+        SegmentStore segmentStore = new SegmentStore(archive);
+        List<String> live = export(new PostgresGradebookExporter(unitOfWork, unitOfWork, segmentStore), testId);
+        assertEquals(live, export(new ShardedGradebookExporter(router, database, segmentStore), testId));
+
+        SegmentStore shardSegments = segmentStore.forShard(0);
+        assertEquals(1, new AttemptArchiver(database, shardSegments, Duration.ofDays(365)).archive());
+        assertEquals(export(new PostgresGradebookExporter(unitOfWork, unitOfWork, shardSegments), testId),
+                export(new ShardedGradebookExporter(router, database, segmentStore), testId));
+    }
+
+    private static List<String> export(GradebookExporter exporter, int testId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.exportTestResults(testId, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private int insertAttempt(int userId, int testId, OffsetDateTime start, int attemptNumber) throws SQLException {
+        return insert("WITH key AS (INSERT INTO test_attempt_keys (id, user_id, test_id, start_time, attempt_number) " +
+                "VALUES (nextval('test_attempts_id_seq'), ?, ?, ?, ?) RETURNING *) " +
+                "INSERT INTO test_attempts (id, user_id, test_id, start_time, end_time, score, attempt_number) " +
+                "SELECT id, user_id, test_id, start_time, ?, 1, attempt_number FROM key RETURNING id",
+                userId, testId, start, attemptNumber, start.plusMinutes(10));
+    }
+
+    private void insertAnswer(int attemptId, OffsetDateTime attemptStart, int questionId, String answerText)
+            throws SQLException {
+        insert("INSERT INTO user_answers (attempt_id, attempt_start, question_id, answer_text) " +
+                "VALUES (?, ?, ?, ?) RETURNING id", attemptId, attemptStart, questionId, answerText);
+    }
+
+    private int insert(String sql, Object... params) throws SQLException {
+        try (Connection connection = database.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            ResultSet rs = stmt.executeQuery();
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+-- The schema of db/init.sql without its data, which the migrations build on. init.sql
+-- never creates answer_options_id_seq, so it is created here.
+
+CREATE TYPE answer_type AS ENUM (
+    'single_choice',
+    'multiple_choice',
+    'text'
+);
+
+CREATE TABLE answer_options (
+    id integer NOT NULL,
+    question_id integer NOT NULL,
+    option_text text NOT NULL,
+    score integer NOT NULL
+);
+
+CREATE TABLE questions (
+    id integer NOT NULL,
+    test_id integer NOT NULL,
+    text text NOT NULL,
+    answer_type public.answer_type DEFAULT 'single_choice'::public.answer_type NOT NULL,
+    max_points integer NOT NULL
+);
+
+CREATE SEQUENCE public.questions_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.questions_id_seq OWNED BY public.questions.id;
+
+CREATE TABLE public.test_attempts (
+    id integer NOT NULL,
+    user_id integer NOT NULL,
+    test_id integer NOT NULL,
+    start_time timestamp with time zone DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    end_time timestamp with time zone,
+    score integer DEFAULT 0 NOT NULL,
+    attempt_number integer DEFAULT 1
+);
+
+CREATE SEQUENCE public.test_attempts_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.test_attempts_id_seq OWNED BY public.test_attempts.id;
+
+CREATE TABLE public.tests (
+    id integer NOT NULL,
+    created_by integer NOT NULL,
+    title character varying(255) NOT NULL,
+    description text,
+    time_limit integer,
+    max_attempts integer DEFAULT 1,
+    is_active boolean DEFAULT true,
+    start_time timestamp with time zone,
+    end_time timestamp with time zone
+);
+
+CREATE SEQUENCE public.tests_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.tests_id_seq OWNED BY public.tests.id;
+
+CREATE TABLE public.user_answers (
+    id integer NOT NULL,
+    attempt_id integer NOT NULL,
+    question_id integer NOT NULL,
+    answer_id integer,
+    answer_text text
+);
+
+CREATE SEQUENCE public.user_answers_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.user_answers_id_seq OWNED BY public.user_answers.id;
+
+CREATE TABLE public.users (
+    id integer NOT NULL,
+    email character varying(255) NOT NULL,
+    password character varying(255) NOT NULL,
+    first_name character varying(100) NOT NULL,
+    last_name character varying(100) NOT NULL
+);
+
+CREATE SEQUENCE public.users_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.users_id_seq OWNED BY public.users.id;
+
+CREATE SEQUENCE public.answer_options_id_seq
+    AS integer
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+ALTER SEQUENCE public.answer_options_id_seq OWNED BY public.answer_options.id;
+
+ALTER TABLE ONLY public.answer_options ALTER COLUMN id SET DEFAULT nextval('public.answer_options_id_seq'::regclass);
+
+ALTER TABLE ONLY public.questions ALTER COLUMN id SET DEFAULT nextval('public.questions_id_seq'::regclass);
+
+ALTER TABLE ONLY public.test_attempts ALTER COLUMN id SET DEFAULT nextval('public.test_attempts_id_seq'::regclass);
+
+ALTER TABLE ONLY public.tests ALTER COLUMN id SET DEFAULT nextval('public.tests_id_seq'::regclass);
+
+ALTER TABLE ONLY public.user_answers ALTER COLUMN id SET DEFAULT nextval('public.user_answers_id_seq'::regclass);
+
+ALTER TABLE ONLY public.users ALTER COLUMN id SET DEFAULT nextval('public.users_id_seq'::regclass);
+
+ALTER TABLE ONLY public.answer_options
+    ADD CONSTRAINT answer_options_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.questions
+    ADD CONSTRAINT questions_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.test_attempts
+    ADD CONSTRAINT test_attempts_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.tests
+    ADD CONSTRAINT tests_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.user_answers
+    ADD CONSTRAINT user_answers_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.users
+    ADD CONSTRAINT users_email_key UNIQUE (email);
+
+ALTER TABLE ONLY public.users
+    ADD CONSTRAINT users_pkey PRIMARY KEY (id);
+
+ALTER TABLE ONLY public.answer_options
+    ADD CONSTRAINT fk_answer_options_question_id FOREIGN KEY (question_id) REFERENCES public.questions(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.questions
+    ADD CONSTRAINT fk_questions_test_id FOREIGN KEY (test_id) REFERENCES public.tests(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.test_attempts
+    ADD CONSTRAINT fk_test_attempts_test_id FOREIGN KEY (test_id) REFERENCES public.tests(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.test_attempts
+    ADD CONSTRAINT fk_test_attempts_user_id FOREIGN KEY (user_id) REFERENCES public.users(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.tests
+    ADD CONSTRAINT fk_tests_created_by FOREIGN KEY (created_by) REFERENCES public.users(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.user_answers
+    ADD CONSTRAINT fk_user_answers_answer_id FOREIGN KEY (answer_id) REFERENCES public.answer_options(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.user_answers
+    ADD CONSTRAINT fk_user_answers_attempt_id FOREIGN KEY (attempt_id) REFERENCES public.test_attempts(id) ON DELETE CASCADE;
+
+ALTER TABLE ONLY public.user_answers
+    ADD CONSTRAINT fk_user_answers_question_id FOREIGN KEY (question_id) REFERENCES public.questions(id) ON DELETE CASCADE;
@@ -4,6 +4,7 @@ import type {
   AttemptProgress,
   AttemptAnswer,
   PaginatedResponse,
+  CursorPage,
 } from '@/types/types';
 
 export const attemptsApi = {
@@ -20,6 +21,17 @@ export const attemptsApi = {
       | { questionId: number; answerText: string }
   ) => api.post<null>(`/attempts/${attemptId}/answers`, data),
 
+  submitAnswers: (
+    attemptId: number,
+    answers: Array<
+      | { questionId: number; answerId: number }
+      | { questionId: number; answerText: string }
+    >
+  ) =>
+    api.post<{ submitted: number }>(`/attempts/${attemptId}/answers/batch`, {
+      answers,
+    }),
+
   getAttemptProgress: (attemptId: number) =>
     api.get<AttemptProgress>(`/attempts/${attemptId}`),
 
@@ -43,8 +55,8 @@ export const attemptsApi = {
     );
   },
 
-  getAttemptDetails: (attemptId: number) =>
-    api.get<{ attempt: TestAttempt; answers: AttemptAnswer[] }>(
-      `/attempts/${attemptId}/details`
+  getAttemptDetails: (attemptId: number, cursor?: string | null) =>
+    api.get<{ attempt: TestAttempt; answers: AttemptAnswer[] } & CursorPage>(
+      `/attempts/${attemptId}/details${cursor ? `?cursor=${encodeURIComponent(cursor)}` : ''}`
     ),
 };
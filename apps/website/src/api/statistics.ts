@@ -2,19 +2,16 @@ import { api } from './client';
 import type { UserStatistics } from '@/types/types';
 
 export const statisticsApi = {
-  getGlobalStatistics: () =>
+  getGlobalStatistics: (estimate = false) =>
     api.get<{
       totalUsers: number;
       totalTests: number;
+      activeTests: number;
       totalAttempts: number;
-      completedAttempts: number;
-      averageScore: number;
-      mostPopularTests: Array<{
-        testId: number;
-        title: string;
-        attemptCount: number;
-      }>;
-    }>('/statistics/global'),
+      attemptsInProgress: number;
+      attemptsFinishedToday: number;
+      estimated: boolean;
+    }>(`/statistics/global${estimate ? '?estimate=true' : ''}`),
 
   getUserStatistics: (userId: number) =>
     api.get<UserStatistics>(`/statistics/user/${userId}`),
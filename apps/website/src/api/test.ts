@@ -1,5 +1,5 @@
 import { api } from './client';
-import type { Test, TestStatistics, PaginatedResponse } from '@/types/types';
+import type { Test, FullTest, TestStatistics, CursorPage } from '@/types/types';
 
 export const testsApi = {
   createTest: (data: {
@@ -12,27 +12,28 @@ export const testsApi = {
   }) => api.post<{ testId: number }>('/tests', data),
 
   getAllTests: (params?: {
-    page?: number;
+    cursor?: string | null;
     limit?: number;
     active?: boolean;
     creatorId?: number;
     search?: string;
   }) => {
-    console.log(params?.page, params?.limit);
     const query = new URLSearchParams();
-    if (params?.page) query.append('page', params.page.toString());
+    if (params?.cursor) query.append('cursor', params.cursor);
     if (params?.limit) query.append('limit', params.limit.toString());
     if (params?.active !== undefined) query.append('active', String(params.active));
     if (params?.creatorId) query.append('creatorId', params.creatorId.toString());
     if (params?.search) query.append('search', params.search);
     console.log(query);
-    return api.get<{ tests: Test[] } & PaginatedResponse<Test>>(
+    return api.get<{ tests: Test[] } & CursorPage>(
       `/tests${query ? `?${query}` : ''}`
     );
   },
 
   getTestById: (id: number) => api.get<Test>(`/tests/${id}`),
 
+  getFullTest: (id: number) => api.get<FullTest>(`/tests/${id}/full`),
+
   updateTest: (
     id: number,
     data: {
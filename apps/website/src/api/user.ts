@@ -1,5 +1,5 @@
 import { api } from './client';
-import type { User, PaginatedResponse } from '@/types/types';
+import type { User, CursorPage } from '@/types/types';
 
 export const usersApi = {
   register: (data: {
@@ -17,14 +17,14 @@ export const usersApi = {
   getCurrentUser: () => api.get<User>('/users/me'),
 
   getAllUsers: (params?: {
-    page?: number;
+    cursor?: string;
     limit?: number;
     search?: string;
   }) => {
     const query = new URLSearchParams(
       params as Record<string, string>
     ).toString();
-    return api.get<{ users: User[] } & PaginatedResponse<User>>(
+    return api.get<{ users: User[] } & CursorPage>(
       `/users${query ? `?${query}` : ''}`
     );
   },
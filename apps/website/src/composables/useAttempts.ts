@@ -14,6 +14,7 @@ export function useAttempts() {
   const attemptDetails = ref<{
     attempt: TestAttempt;
     answers: AttemptAnswer[];
+    nextCursor: string | null;
   } | null>(null);
 
   const isLoading = ref(false);
@@ -157,6 +158,28 @@ export function useAttempts() {
     }
   };
 
+  // Long exams are reviewed a page of questions at a time
+  const fetchMoreAttemptAnswers = async (attemptId: number): Promise<void> => {
+    const current = attemptDetails.value;
+    if (!current?.nextCursor || isLoading.value) return;
+    isLoading.value = true;
+    error.value = null;
+
+    try {
+      const page = await attemptsApi.getAttemptDetails(attemptId, current.nextCursor);
+      attemptDetails.value = {
+        attempt: current.attempt,
+        answers: [...current.answers, ...page.answers],
+        nextCursor: page.nextCursor,
+      };
+    } catch (e) {
+      error.value = (e as Error).message;
+      throw e;
+    } finally {
+      isLoading.value = false;
+    }
+  };
+
   /* -------------------- exports -------------------- */
 
   return {
@@ -172,5 +195,6 @@ export function useAttempts() {
     finishAttempt,
     fetchUserAttempts,
     fetchAttemptDetails,
+    fetchMoreAttemptAnswers,
   };
 }
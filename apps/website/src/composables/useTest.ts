@@ -9,14 +9,13 @@ export function useTests() {
   const isLoading = ref(false);
   const error = ref<string | null>(null);
   const pagination = ref({
-    total: 0,
-    page: 1,
+    cursor: null as string | null,
     limit: 5,
-    totalPages: 0,
+    nextCursor: null as string | null,
   });
 
   const fetchTests = async (params?: {
-    page?: number;
+    cursor?: string | null;
     limit?: number;
     active?: boolean;
     creatorId?: number;
@@ -28,10 +27,9 @@ export function useTests() {
       const response = await testsApi.getAllTests(params);
       tests.value = response.tests;
       pagination.value = {
-        total: response.total,
-        page: response.page,
-        limit: pagination.value.limit,
-        totalPages: response.totalPages,
+        cursor: params?.cursor ?? null,
+        limit: response.limit,
+        nextCursor: response.nextCursor,
       };
     } catch (e) {
       error.value = (e as Error).message;
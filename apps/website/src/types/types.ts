@@ -36,6 +36,10 @@ export interface AnswerOption {
   score: number;
 }
 
+export interface FullTest extends Omit<Test, 'createdAt'> {
+  questions: Array<Question & { options: Omit<AnswerOption, 'score'>[] }>;
+}
+
 export interface TestAttempt {
   id: number;
   userId: number;
@@ -85,6 +89,11 @@ export interface PaginatedResponse<T> {
   totalPages: number;
 }
 
+export interface CursorPage {
+  limit: number;
+  nextCursor: string | null;
+}
+
 export interface TestStatistics {
   testId: number;
   totalAttempts: number;
@@ -0,0 +1,11 @@
+#!/bin/bash
+# Creates one database per name in DB_SHARD_NAMES next to the main one, with the same
+# schema and no rows, for the API to use as attempt shards (its DB_SHARDS setting).
+for shard in ${DB_SHARD_NAMES//,/ }; do
+    psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" \
+        -c "CREATE DATABASE \"$shard\"" || exit 1
+    psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$shard" \
+        -f /docker-entrypoint-initdb.d/init.sql || exit 1
+    psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$shard" \
+        -c "TRUNCATE users, tests, questions, answer_options, test_attempts, user_answers RESTART IDENTITY CASCADE" || exit 1
+done